@@ -0,0 +1,163 @@
+package edu.ncsu.csc.Galant;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import javax.tools.Diagnostic;
+
+import edu.ncsu.csc.Galant.algorithm.Algorithm;
+import edu.ncsu.csc.Galant.algorithm.code.CodeIntegrator;
+import edu.ncsu.csc.Galant.algorithm.code.CompilationException;
+import edu.ncsu.csc.Galant.algorithm.code.macro.MalformedMacroException;
+import edu.ncsu.csc.Galant.graph.component.BinaryGraphReader;
+import edu.ncsu.csc.Galant.graph.parser.TextGraphLoader;
+
+/**
+ * Runs an algorithm on every graph file in a directory without a user
+ * interface, e.g., to regression-test heuristics on many instances:
+ *
+ *   java -Djava.awt.headless=true -cp Galant.jar edu.ncsu.csc.Galant.BatchRunner
+ *        [-j THREADS] [-t] algorithm.alg input-directory [output-directory]
+ *
+ * Graphs are read from GraphML files, from the plain text formats of
+ * TextGraphLoader (edge lists, gph, sgf) and from binary graphs (.gbin,
+ * see BinaryGraphWriter). The algorithm is compiled once,
+ * as with the Compile button. For each input graph the algorithm runs to
+ * completion without waiting for a display at each step; the graph in its
+ * final state is written as GraphML to a file of the same name (with
+ * .graphml added for other inputs) in the output directory (default
+ * batch-output), and
+ * the times for parsing and running, along with the outcome, are written
+ * to timing.csv in the same directory. With -j, up to THREADS graphs are
+ * processed at the same time (see ExperimentRunner). With -t, each run is
+ * also saved as a trace file next to its output graph, to be replayed in
+ * the graph window (File -> Replay Trace). Algorithms that ask
+ * the user for input (getString() etc.) cannot run this way; they end with
+ * an exception.
+ */
+public class BatchRunner {
+  public static final String DEFAULT_OUTPUT_DIRECTORY = "batch-output";
+  public static final String TIMING_FILE = "timing.csv";
+  public static final String GRAPHML_EXTENSION = ".graphml";
+  public static final String THREADS_OPTION = "-j";
+  public static final String TRACE_OPTION = "-t";
+
+  public static void main(String[] args) {
+    int numberOfThreads = 1;
+    boolean writeTraces = false;
+    int first = 0;
+    while ( first < args.length && args[first].startsWith("-") ) {
+      if ( args[first].equals(THREADS_OPTION) && first + 1 < args.length ) {
+        try {
+          numberOfThreads = Integer.parseInt(args[first + 1]);
+        }
+        catch ( NumberFormatException e ) {
+          usage();
+        }
+        first += 2;
+      }
+      else if ( args[first].equals(TRACE_OPTION) ) {
+        writeTraces = true;
+        first++;
+      }
+      else usage();
+    }
+    if ( args.length - first < 2 || args.length - first > 3 ) usage();
+    Timer.parsingTime = new Timer("parsing");
+    Timer.drawingTime = new Timer("drawing");
+    GalantPreferences.initPrefs();
+
+    File algorithmFile = new File(args[first]);
+    File inputDirectory = new File(args[first + 1]);
+    File outputDirectory
+      = new File(args.length - first > 2
+                 ? args[first + 2] : DEFAULT_OUTPUT_DIRECTORY);
+    if ( ! inputDirectory.isDirectory() ) {
+      System.err.println("Not a directory: " + inputDirectory);
+      System.exit(1);
+    }
+    outputDirectory.mkdirs();
+
+    Algorithm algorithm = compile(algorithmFile);
+    if ( algorithm == null ) System.exit(1);
+
+    File[] inputs = inputDirectory.listFiles(new FileFilter() {
+        public boolean accept(File file) {
+          return file.isFile()
+            && ( file.getName().endsWith(GRAPHML_EXTENSION)
+                 || TextGraphLoader.handles(file)
+                 || BinaryGraphReader.handles(file) );
+        }
+      });
+    Arrays.sort(inputs);
+
+    int failures = 0;
+    try ( PrintWriter timing
+          = new PrintWriter(new File(outputDirectory, TIMING_FILE),
+                            "UTF-8") ) {
+      ExperimentRunner runner
+        = new ExperimentRunner(algorithm.getClass(), numberOfThreads);
+      runner.setWriteTraces(writeTraces);
+      List<ExperimentRunner.Result> results
+        = runner.run(Arrays.asList(inputs), outputDirectory, timing);
+      for ( ExperimentRunner.Result result : results ) {
+        if ( ! result.finished() ) failures++;
+      }
+    }
+    catch ( IOException e ) {
+      System.err.println("Unable to write " + TIMING_FILE + ": " + e);
+      System.exit(1);
+    }
+    System.out.printf("%d of %d graphs finished\n",
+                      inputs.length - failures, inputs.length);
+    // an algorithm stuck in a loop that never takes a step cannot be
+    // stopped, so its thread would keep the JVM alive
+    System.exit(failures == 0 ? 0 : 1);
+  }
+
+  private static void usage() {
+    System.err.println("Usage: java -Djava.awt.headless=true"
+                       + " edu.ncsu.csc.Galant.BatchRunner"
+                       + " [" + THREADS_OPTION + " THREADS]"
+                       + " [" + TRACE_OPTION + "]"
+                       + " ALGORITHM.alg INPUT_DIRECTORY [OUTPUT_DIRECTORY]");
+    System.exit(1);
+  }
+
+  /**
+   * Compiles the algorithm in the given file
+   * @return the compiled algorithm or null if there were errors; these are
+   * printed
+   */
+  static Algorithm compile(File algorithmFile) {
+    try {
+      String code = new String(Files.readAllBytes(algorithmFile.toPath()),
+                               StandardCharsets.UTF_8);
+      return CodeIntegrator.integrateCode(algorithmFile.getName(), code);
+    }
+    catch ( CompilationException e ) {
+      for ( Diagnostic<?> diagnostic :
+              e.getDiagnostics().getDiagnostics() ) {
+        System.err.println("Error, line " + diagnostic.getLineNumber()
+                           + ": " + diagnostic.getMessage(null));
+      }
+    }
+    catch ( MalformedMacroException e ) {
+      System.err.println("Macro error: " + e.getMessage());
+    }
+    catch ( GalantException e ) {
+      e.report("while compiling " + algorithmFile);
+    }
+    catch ( IOException e ) {
+      System.err.println("Unable to read " + algorithmFile + ": " + e);
+    }
+    return null;
+  }
+}
+
+//  [Last modified: 2026 10 17 at 18:59:16 GMT]
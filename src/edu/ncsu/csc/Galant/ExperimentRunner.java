@@ -0,0 +1,261 @@
+package edu.ncsu.csc.Galant;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.ncsu.csc.Galant.algorithm.Algorithm;
+import edu.ncsu.csc.Galant.algorithm.AlgorithmExecutor;
+import edu.ncsu.csc.Galant.algorithm.AlgorithmSynchronizer;
+import edu.ncsu.csc.Galant.graph.component.BinaryGraphReader;
+import edu.ncsu.csc.Galant.graph.component.Graph;
+import edu.ncsu.csc.Galant.graph.component.TraceWriter;
+import edu.ncsu.csc.Galant.graph.parser.GraphMLParser;
+import edu.ncsu.csc.Galant.graph.parser.TextGraphLoader;
+import edu.ncsu.csc.Galant.gui.window.GraphWindow;
+
+/**
+ * Runs a compiled algorithm on many graphs concurrently, using a fixed
+ * number of worker threads. Each run has its own instance of the algorithm
+ * class and its own GraphDispatch (see GraphDispatch.enterRun()), hence its
+ * own working graph, executor and synchronizer; the algorithm runs to
+ * completion without waiting for a display. The graph in its final state
+ * is written to the output directory, and a line of metrics for each
+ * graph goes to a CSV file, in the order of the inputs. Optionally, each
+ * run is also saved as a trace (see TraceWriter) that can be replayed in
+ * the graph window.
+ *
+ * There is no window, so each run is given the default size of the graph
+ * window (GraphWindow.DEFAULT_WIDTH x DEFAULT_HEIGHT) as its window size.
+ * Algorithms that scale by windowWidth(), windowHeight() or
+ * diagonalLength(), e.g., to turn Euclidean distances into edge weights,
+ * therefore get the same finite results in every run, independent of the
+ * graph; they match an interactive run only if its window has that size.
+ */
+public class ExperimentRunner {
+  public static final String CSV_HEADER
+    = "graph,nodes,edges,steps,parse_ms,run_ms,outcome";
+
+  /** outcomes of a single run, as reported in the CSV file */
+  public static final String FINISHED = "finished";
+  public static final String TIME_LIMIT = "time limit exceeded";
+  public static final String EXCEPTION = "exception";
+  public static final String PARSE_ERROR = "parse error";
+  public static final String OUTPUT_ERROR = "output error";
+
+  /**
+   * Metrics for the run of the algorithm on a single graph
+   */
+  public static class Result {
+    public final String graphName;
+    public int nodes;
+    public int edges;
+    /** number of algorithm steps (states) */
+    public int steps;
+    public double parseMillis;
+    public double runMillis;
+    public String outcome;
+
+    Result(String graphName) {
+      this.graphName = graphName;
+    }
+
+    public boolean finished() {
+      return FINISHED.equals(outcome);
+    }
+
+    public String csvLine() {
+      if ( PARSE_ERROR.equals(outcome) )
+        return String.format("%s,,,,,,%s", graphName, outcome);
+      return String.format("%s,%d,%d,%d,%.3f,%.3f,%s",
+                           graphName, nodes, edges, steps,
+                           parseMillis, runMillis, outcome);
+    }
+  }
+
+  private final Class<? extends Algorithm> algorithmClass;
+  private final int numberOfThreads;
+  private boolean writeTraces = false;
+
+  /**
+   * @param algorithmClass a compiled algorithm, e.g., the class of the
+   * object returned by CodeIntegrator.integrateCode(); it is instantiated
+   * once per graph
+   * @param numberOfThreads the maximum number of runs at any one time
+   */
+  public ExperimentRunner(Class<? extends Algorithm> algorithmClass,
+                          int numberOfThreads) {
+    this.algorithmClass = algorithmClass;
+    this.numberOfThreads = Math.max(1, numberOfThreads);
+  }
+
+  /**
+   * @param writeTraces if true, the trace of each run is written to the
+   * output directory, under the name of the input with TraceWriter.EXTENSION
+   * added
+   */
+  public void setWriteTraces(boolean writeTraces) {
+    this.writeTraces = writeTraces;
+  }
+
+  /**
+   * Runs the algorithm on each of the inputs; the final graphs are written
+   * to the output directory under the names of the inputs
+   * @param csv receives a header and then one line per input, as soon as
+   * the runs of all earlier inputs are done
+   * @return the metrics of all runs, in the order of the inputs
+   */
+  public List<Result> run(List<File> inputs, final File outputDirectory,
+                          PrintWriter csv) {
+    final AtomicInteger workers = new AtomicInteger();
+    ExecutorService pool
+      = Executors.newFixedThreadPool(numberOfThreads, new ThreadFactory() {
+          public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task);
+            thread.setName("Experiment worker " + workers.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+          }
+        });
+    List<Future<Result>> futures = new ArrayList<Future<Result>>();
+    for ( final File input : inputs ) {
+      futures.add(pool.submit(new Callable<Result>() {
+          public Result call() {
+            return runOne(input, outputDirectory);
+          }
+        }));
+    }
+
+    List<Result> results = new ArrayList<Result>();
+    csv.println(CSV_HEADER);
+    try {
+      for ( Future<Result> future : futures ) {
+        Result result = future.get();
+        results.add(result);
+        csv.println(result.csvLine());
+        csv.flush();
+        System.out.println(result.graphName + ": " + result.outcome);
+      }
+    }
+    catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+    }
+    catch ( ExecutionException e ) {
+      throw new RuntimeException(e.getCause());
+    }
+    finally {
+      pool.shutdownNow();
+    }
+    return results;
+  }
+
+  /**
+   * @return the name of the output file for the given input; the output
+   * is always GraphML
+   */
+  static String outputName(File input) {
+    if ( TextGraphLoader.handles(input) || BinaryGraphReader.handles(input) )
+      return input.getName() + BatchRunner.GRAPHML_EXTENSION;
+    return input.getName();
+  }
+
+  /**
+   * Parses the graph in the input file, runs a new instance of the
+   * algorithm on it in a dispatch of its own and writes the graph in its
+   * final state to the output directory
+   */
+  Result runOne(File input, File outputDirectory) {
+    Result result = new Result(input.getName());
+    GraphDispatch dispatch = GraphDispatch.enterRun();
+    Algorithm algorithm = null;
+    try {
+      long startTime = System.nanoTime();
+      Graph graph;
+      try {
+        if ( TextGraphLoader.handles(input) )
+          graph = TextGraphLoader.load(input);
+        else if ( BinaryGraphReader.handles(input) )
+          graph = BinaryGraphReader.load(input);
+        else graph = new GraphMLParser(input).getGraph();
+      }
+      catch ( GalantException e ) {
+        e.report("while parsing " + input);
+        result.outcome = PARSE_ERROR;
+        return result;
+      }
+      result.parseMillis = (System.nanoTime() - startTime) / 1e6;
+
+      try {
+        algorithm = algorithmClass.getDeclaredConstructor().newInstance();
+      }
+      catch ( ReflectiveOperationException e ) {
+        System.out.println("Unable to instantiate " + algorithmClass
+                           + ": " + e);
+        result.outcome = EXCEPTION;
+        return result;
+      }
+
+      startTime = System.nanoTime();
+      dispatch.setWindowSize(GraphWindow.DEFAULT_HEIGHT, GraphWindow.DEFAULT_WIDTH);
+      dispatch.setWorkingGraph(graph, null);
+      dispatch.startAnimation(algorithm);
+      AlgorithmExecutor executor = dispatch.getAlgorithmExecutor();
+      AlgorithmSynchronizer synchronizer
+        = dispatch.getAlgorithmSynchronizer();
+      // a free run is cut short after a while to keep the user interface
+      // responsive; here it simply resumes
+      while ( ! synchronizer.algorithmFinished()
+              && ! synchronizer.exceptionThrown()
+              && ! executor.infiniteLoop
+              && executor.algorithmThread.isAlive() ) {
+        executor.runToCompletion();
+      }
+      result.runMillis = (System.nanoTime() - startTime) / 1e6;
+
+      result.outcome = FINISHED;
+      if ( executor.infiniteLoop ) result.outcome = TIME_LIMIT;
+      else if ( ! synchronizer.algorithmFinished() ) result.outcome = EXCEPTION;
+
+      Graph finalGraph = dispatch.getWorkingGraph();
+      result.steps = executor.getAlgorithmState();
+      result.nodes = finalGraph.numberOfNodes();
+      result.edges = finalGraph.numberOfEdges();
+      try {
+        try ( Writer out
+              = Files.newBufferedWriter(new File(outputDirectory,
+                                                 outputName(input)).toPath(),
+                                        StandardCharsets.UTF_8) ) {
+          finalGraph.writeXml(out, result.steps);
+        }
+        if ( writeTraces )
+          executor.writeTrace(new File(outputDirectory, input.getName()
+                                       + TraceWriter.EXTENSION));
+      }
+      catch ( IOException e ) {
+        System.out.println("Unable to write result for " + input
+                           + ": " + e);
+        result.outcome = OUTPUT_ERROR;
+      }
+      executor.stopAlgorithm();
+      return result;
+    }
+    finally {
+      if ( algorithm != null ) Algorithm.algorithms.remove(algorithm);
+      GraphDispatch.exitRun();
+    }
+  }
+}
+
+//  [Last modified: 2026 10 17 at 20:52:53 GMT]
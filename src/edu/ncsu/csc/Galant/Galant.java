@@ -3,6 +3,7 @@ package edu.ncsu.csc.Galant;
 import javax.swing.SwingUtilities;
 import java.awt.Dimension;
 
+import edu.ncsu.csc.Galant.algorithm.code.CompilerAndLoader;
 import edu.ncsu.csc.Galant.gui.editor.GEditorFrame;
 import edu.ncsu.csc.Galant.gui.util.ExceptionDialog;
 import edu.ncsu.csc.Galant.gui.util.WindowUtil;
@@ -17,6 +18,8 @@ public class Galant {
   public static final String VERSION = "v6.1.3, 2021_02_01";
   public static void main(String[] args) {
     ExceptionDialog.setDialogExceptionHandlerAsDefault();
+    // get the compiler going while the windows are being set up
+    CompilerAndLoader.warmUp();
     SwingUtilities.invokeLater(new Runnable() {
         @Override
         public void run() {
@@ -36,4 +39,4 @@ public class Galant {
   }
 }
 
-//  [Last modified: 2021 02 01 at 17:25:00 GMT]
+//  [Last modified: 2026 10 17 at 17:58:37 GMT]
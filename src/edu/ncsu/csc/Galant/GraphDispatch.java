@@ -8,6 +8,7 @@ import java.util.UUID;
 import javax.swing.JDialog;
 
 import edu.ncsu.csc.Galant.graph.component.Graph;
+import edu.ncsu.csc.Galant.graph.component.TraceReader;
 import edu.ncsu.csc.Galant.gui.window.GraphWindow;
 import edu.ncsu.csc.Galant.logging.LogHelper;
 import edu.ncsu.csc.Galant.algorithm.Algorithm;
@@ -41,6 +42,24 @@ import java.util.logging.Logger;
 public class GraphDispatch {
 
   private static GraphDispatch instance;
+
+  /**
+   * The dispatch of the run that the current thread belongs to, if any; a
+   * run started with enterRun() has a dispatch of its own so that several
+   * algorithms can run at the same time, each on its own working graph (see
+   * ExperimentRunner). The value is not inherited: threads that are created
+   * during a run but outlive it, e.g., those of the common ForkJoinPool
+   * used by GraphMLStreamParser, must not keep the dispatch; the algorithm
+   * thread is given it explicitly (see inCurrentRun()).
+   */
+  private static final ThreadLocal<GraphDispatch> runDispatch
+    = new ThreadLocal<GraphDispatch>();
+
+  /**
+   * true once any run has its own dispatch; until then getInstance() does
+   * not need to consult runDispatch
+   */
+  private static volatile boolean runDispatchesInUse = false;
   private Graph workingGraph;
   
   private Graph editGraph;
@@ -59,6 +78,12 @@ public class GraphDispatch {
   /** true if animating an algorithm instead of editing */
   private boolean animationMode = false;
 
+  /**
+   * true if the animation is the replay of a recorded run rather than an
+   * algorithm execution (see startReplay())
+   */
+  private boolean replayMode = false;
+
   /** 
    * true if editing a graph; false during parsing
    */
@@ -78,7 +103,8 @@ public class GraphDispatch {
   private AlgorithmSynchronizer algorithmSynchronizer;
 
   /**
-   * The current graph window, whether in edit or animation mode
+   * The current graph window, whether in edit or animation mode; null when
+   * Galant runs without a user interface (see BatchRunner)
    */
   private GraphWindow graphWindow;
 
@@ -152,12 +178,56 @@ public class GraphDispatch {
    * to interact with the display, animation, etc.
    */
   public static GraphDispatch getInstance() {
+    if ( runDispatchesInUse ) {
+      GraphDispatch dispatch = runDispatch.get();
+      if ( dispatch != null ) return dispatch;
+    }
     if (instance == null) {
       instance = new GraphDispatch();
     }
     return instance;
   }
 
+  /**
+   * Gives the current thread a dispatch of its own, separate from the one
+   * used by the user interface and from those of other runs.
+   * @return the new dispatch, which getInstance() returns until exitRun()
+   */
+  public static GraphDispatch enterRun() {
+    GraphDispatch dispatch = new GraphDispatch();
+    runDispatchesInUse = true;
+    runDispatch.set(dispatch);
+    return dispatch;
+  }
+
+  /**
+   * Returns the current thread to the global dispatch after enterRun()
+   */
+  public static void exitRun() {
+    runDispatch.remove();
+  }
+
+  /**
+   * @return a task that does the given one in the run of the current
+   * thread, i.e., with the same dispatch, in whatever thread it runs; the
+   * task itself if the current thread does not belong to a run
+   */
+  public static Runnable inCurrentRun(final Runnable task) {
+    final GraphDispatch dispatch = runDispatch.get();
+    if ( dispatch == null ) return task;
+    return new Runnable() {
+      public void run() {
+        runDispatch.set(dispatch);
+        try {
+          task.run();
+        }
+        finally {
+          runDispatch.remove();
+        }
+      }
+    };
+  }
+
   public Graph getWorkingGraph() {
     if (workingGraph == null) {
       workingGraph = new Graph();
@@ -184,6 +254,10 @@ public class GraphDispatch {
     return this.animationMode;
   }
 
+  public boolean isReplayMode() {
+    return this.replayMode;
+  }
+
   public boolean isEditMode() {
     return this.editMode;
   }
@@ -210,6 +284,7 @@ public class GraphDispatch {
      */
     public void startAnimation(Algorithm algorithm) {
         this.animationMode = true;
+        this.replayMode = false;
         this.editMode = false; 
         // save the current working graph so that changes made by algorithm
         // can be undone easily
@@ -217,7 +292,8 @@ public class GraphDispatch {
         this.algorithmSynchronizer = new AlgorithmSynchronizer();
         this.algorithmExecutor
             = new AlgorithmExecutor(algorithm, this.algorithmSynchronizer);
-        this.graphWindow.updateStatusLabel("Starting animation");
+        if ( this.graphWindow != null )
+            this.graphWindow.updateStatusLabel("Starting animation");
         // start the animation with a clean copy of the edit graph, a copy
         // without the edit states
         this.workingGraph = this.editGraph.copyCurrentState(this.editGraph);
@@ -226,17 +302,45 @@ public class GraphDispatch {
         notifyListeners(ANIMATION_MODE, ! this.animationMode, this.animationMode);
     }
     
+    /**
+     * Starts the replay of a recorded run: the graph of the trace, which
+     * already has all of its states, is animated in place of the working
+     * graph, by an executor without an algorithm; as with an algorithm,
+     * stopAlgorithm() returns to the working graph.
+     */
+    public void startReplay(TraceReader trace) {
+        this.editGraph = getWorkingGraph();
+        this.animationMode = true;
+        this.replayMode = true;
+        this.editMode = false;
+        this.algorithmMovesNodes = trace.algorithmMovesNodes();
+        this.algorithmSynchronizer = new AlgorithmSynchronizer();
+        this.algorithmSynchronizer.finishAlgorithm();
+        this.algorithmExecutor
+            = new AlgorithmExecutor(this.algorithmSynchronizer,
+                                    trace.getNumberOfStates(),
+                                    trace.getQueryAnswers());
+        this.workingGraph = trace.getGraph();
+        this.workingGraph.graphWindow = this.graphWindow;
+        this.algorithmExecutor.startAlgorithm();
+        notifyListeners(ANIMATION_MODE, ! this.animationMode, this.animationMode);
+    }
+
     /**
      * undoes effect of animation by returning to the edit graph, but
-     * preserving any node position changes during algorithm execution
+     * preserving any node position changes during algorithm execution;
+     * the nodes of a replayed graph are not those of the edit graph
      */
     public void stopAlgorithm() {
         Graph algorithmGraph = this.workingGraph;
         this.workingGraph = this.editGraph;
-        this.workingGraph.setNodePositions(algorithmGraph);
+        if ( ! this.replayMode )
+            this.workingGraph.setNodePositions(algorithmGraph);
+        this.replayMode = false;
         this.animationMode = false;
         this.editMode = true;
-        this.graphWindow.updateStatusLabel("Animation stopped");
+        if ( this.graphWindow != null )
+            this.graphWindow.updateStatusLabel("Animation stopped");
         notifyListeners(ANIMATION_MODE, ! this.animationMode, this.animationMode);
     }
 
@@ -410,4 +514,4 @@ public class GraphDispatch {
 
 }
 
-//  [Last modified: 2021 02 12 at 00:19:01 GMT]
+//  [Last modified: 2026 10 17 at 20:27:47 GMT]
@@ -1,5 +1,7 @@
 package edu.ncsu.csc.Galant;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * for global timers to be used for profiling efficiency; the global timers
  * are initialized in Galant.java and printing is invoked right before each
@@ -19,25 +21,26 @@ public class Timer {
   String name;
   
   /**
-   * cumulative time in milliseconds
+   * cumulative time in milliseconds, summed over all threads
    */
-  long cumulativeTime = 0;
+  final AtomicLong cumulativeTime = new AtomicLong();
 
   /**
-   * time of checkpoint, i.e., time of last start() call
+   * time of checkpoint, i.e., time of last start() call, for each thread;
+   * graphs are parsed concurrently by the runs of an ExperimentRunner, each
+   * of which starts and stops the global parsing timer
    */
-  long startTime;
+  final ThreadLocal<Long> startTime = new ThreadLocal<Long>();
 
   public Timer(String name) {
     this.name = name;
-    cumulativeTime = 0;
   }
   
   /**
    * @return cumulative time in seconds
    */
   public double getTotalTime() {
-    return cumulativeTime / 1000.0;
+    return cumulativeTime.get() / 1000.0;
   }
 
   /**
@@ -53,16 +56,20 @@ public class Timer {
    */
   public void start() {
     if ( TIMING )
-      startTime = System.currentTimeMillis();
+      startTime.set(System.currentTimeMillis());
   }
 
   /**
-   * adds the time since the last start to the cumulative time
+   * adds the time since the last start in the same thread to the
+   * cumulative time
    */
   public void stop() {
-    if ( TIMING )
-      cumulativeTime += System.currentTimeMillis() - startTime;
+    if ( ! TIMING ) return;
+    Long start = startTime.get();
+    if ( start == null ) return;
+    startTime.remove();
+    cumulativeTime.addAndGet(System.currentTimeMillis() - start);
   }
 }
 
-//  [Last modified: 2017 07 25 at 19:32:18 GMT]
+//  [Last modified: 2026 10 17 at 20:27:47 GMT]
@@ -15,6 +15,7 @@
 package edu.ncsu.csc.Galant.algorithm;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -52,8 +53,12 @@ import edu.ncsu.csc.Galant.algorithm.AlgorithmExecutor;
 import edu.ncsu.csc.Galant.logging.LogHelper;
 
 public abstract class Algorithm implements Runnable {
-  /** A list of all the runnable algorithms. */
-  public static final List<Algorithm> algorithms = new ArrayList<Algorithm>();
+  /**
+   * A list of all the runnable algorithms; synchronized because algorithms
+   * may be instantiated concurrently, one for each run of an experiment.
+   */
+  public static final List<Algorithm> algorithms
+    = Collections.synchronizedList(new ArrayList<Algorithm>());
 
   /** The graph on which the algorithm is being run. */
   public Graph graph;
@@ -1043,14 +1048,7 @@ public abstract class Algorithm implements Runnable {
   public Boolean isEdge(Node v, Node w) throws GalantException {
     checkGraphElement(v);
     checkGraphElement(w);
-    EdgeList incidenceList
-      = v.getOutgoingEdges();
-    for ( Edge e : incidenceList ) {
-      if ( v.travel(e) == w ) {
-        return true;
-      }
-    }
-    return false;
+    return graph.findEdge(v, w) != null;
   }
 
   /**
@@ -1123,7 +1121,9 @@ public abstract class Algorithm implements Runnable {
     synchronizer.pauseExecution();
     query = null;           // to keep window from lingering when
     // execution is terminated
-    return dispatch.getStringAnswer();
+    String answer = dispatch.getStringAnswer();
+    recordAnswer(prompt, answer);
+    return answer;
   }
 
   /**
@@ -1189,7 +1189,9 @@ public abstract class Algorithm implements Runnable {
     synchronizer.pauseExecution();
     query = null;           // to keep window from lingering when
     // execution is terminated
-    return dispatch.getIntegerAnswer();
+    Integer answer = dispatch.getIntegerAnswer();
+    recordAnswer(prompt, answer);
+    return answer;
   }
 
   /**
@@ -1201,7 +1203,9 @@ public abstract class Algorithm implements Runnable {
     synchronizer.pauseExecution();
     query = null;           // to keep window from lingering when
     // execution is terminated
-    return dispatch.getDoubleAnswer();
+    Double answer = dispatch.getDoubleAnswer();
+    recordAnswer(prompt, answer);
+    return answer;
   }
 
   /**
@@ -1223,7 +1227,9 @@ public abstract class Algorithm implements Runnable {
   {
     // synchronizer.startStep();
     // synchronizer.pauseExecution();
-    return Queries.booleanQuery(question, yesText, noText);
+    Boolean answer = Queries.booleanQuery(question, yesText, noText);
+    recordAnswer(question, answer);
+    return answer;
   }
 
   public Boolean getBoolean(String question)
@@ -1236,7 +1242,9 @@ public abstract class Algorithm implements Runnable {
    * @return an edge specified by the user in response to the prompt
    */
   public Edge getEdge(String prompt) throws Terminate {
-    return graph.getEdge(prompt);
+    Edge edge = graph.getEdge(prompt);
+    recordAnswer(prompt, edge);
+    return edge;
   }
 
   /**
@@ -1248,14 +1256,18 @@ public abstract class Algorithm implements Runnable {
    */
   public Edge getEdge(String prompt, EdgeSet restrictedSet, String errorMessage)
     throws Terminate {
-    return graph.getEdge(prompt, restrictedSet, errorMessage);
+    Edge edge = graph.getEdge(prompt, restrictedSet, errorMessage);
+    recordAnswer(prompt, edge);
+    return edge;
   }
 
   /**
    * @return a node specified by the user in response to the prompt
    */
   public Node getNode(String prompt) throws Terminate {
-    return graph.getNode(prompt);
+    Node node = graph.getNode(prompt);
+    recordAnswer(prompt, node);
+    return node;
   }
 
   /**
@@ -1267,7 +1279,23 @@ public abstract class Algorithm implements Runnable {
    */
   public Node getNode(String prompt, NodeSet restrictedSet, String errorMessage)
     throws Terminate {
-    return graph.getNode(prompt, restrictedSet, errorMessage);
+    Node node = graph.getNode(prompt, restrictedSet, errorMessage);
+    recordAnswer(prompt, node);
+    return node;
+  }
+
+  /**
+   * Lets the executor record the answer to a query, so that it can be
+   * saved in a trace of the run; nodes and edges are recorded by id
+   */
+  private void recordAnswer(String prompt, Object answer) {
+    if ( answer instanceof Node ) answer = ((Node) answer).getId();
+    else if ( answer instanceof Edge ) {
+      Edge edge = (Edge) answer;
+      answer = edge.getSourceNode().getId() + "," + edge.getTargetNode().getId();
+    }
+    AlgorithmExecutor executor = dispatch.getAlgorithmExecutor();
+    if ( executor != null ) executor.recordQueryAnswer(prompt, answer);
   }
 
   /**
@@ -1345,9 +1373,15 @@ public abstract class Algorithm implements Runnable {
     return graph.isDirected();
   }
 
-  /**  */
+  /**
+   * Changes the directedness of the graph, also in the graph window if
+   * there is one
+   */
   public void setDirected(boolean directed) {
-      dispatch.getGraphWindow().setDirectedness(directed);
+      if ( dispatch.getGraphWindow() != null )
+          dispatch.getGraphWindow().setDirectedness(directed);
+      else
+          graph.setDirected(directed);
   }
 
   public NodeList getNodes() {
@@ -1525,4 +1559,4 @@ public abstract class Algorithm implements Runnable {
   public abstract void run();
 }
 
-//  [Last modified: 2021 01 30 at 23:24:54 GMT]
+//  [Last modified: 2026 10 17 at 18:10:48 GMT]
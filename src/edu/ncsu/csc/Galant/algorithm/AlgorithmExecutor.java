@@ -11,23 +11,23 @@
 
 package edu.ncsu.csc.Galant.algorithm;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.Thread;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import edu.ncsu.csc.Galant.algorithm.Algorithm;
 import edu.ncsu.csc.Galant.GraphDispatch;
 import edu.ncsu.csc.Galant.graph.component.Graph;
+import edu.ncsu.csc.Galant.graph.component.TraceWriter;
 import edu.ncsu.csc.Galant.gui.window.GraphWindow;
 import edu.ncsu.csc.Galant.logging.LogHelper;
 
 public class AlgorithmExecutor {
 
     /**
-     * the amount of time to wait between polling the algorithm, in
-     * milliseconds
-     */
-    final int WAIT_TIME = 10;
-
-    /**
-     * interval between console printouts during busy wait
+     * interval between progress reports while waiting for a step to finish
      */
     final int PRINT_INTERVAL = 500;
     
@@ -37,6 +37,12 @@ public class AlgorithmExecutor {
      */
     final int BUSY_WAIT_TIME_LIMIT = 10000;
 
+    /**
+     * amount of time an algorithm may run freely, as a result of
+     * runToState(), before it is made to wait again
+     */
+    final int FREE_RUN_TIME_LIMIT = 60000;
+
     private Algorithm algorithm;
     private AlgorithmSynchronizer synchronizer;
     /**
@@ -44,7 +50,10 @@ public class AlgorithmExecutor {
      * helps)
      */
     public Thread algorithmThread;
-    private int algorithmState;
+    /**
+     * written by the algorithm thread when it runs freely
+     */
+    private volatile int algorithmState;
     private int displayState;
 
     /**
@@ -56,7 +65,14 @@ public class AlgorithmExecutor {
      * true if a GalantException is thrown during algorithm execution
      * @todo this is now redundant with equivalent flag in AlgorithmSynchronizer
      */
-    public boolean exceptionThrown = false;
+    public volatile boolean exceptionThrown = false;
+
+    /**
+     * answers to the queries asked by the algorithm so far, in order; they
+     * are saved in a trace along with the changes to the graph
+     */
+    private final List<QueryAnswer> queryAnswers
+        = Collections.synchronizedList(new ArrayList<QueryAnswer>());
 
     /**
      * Makes a note of the algorithm and its synchronizer and creates a
@@ -66,18 +82,46 @@ public class AlgorithmExecutor {
                              AlgorithmSynchronizer synchronizer) {
         this.algorithm = algorithm;
         this.synchronizer = synchronizer;
-        this.algorithmThread = new Thread(algorithm);
+        synchronizer.setExecutor(this);
+        // in a batch run, the algorithm uses the dispatch of the run
+        this.algorithmThread
+            = new Thread(GraphDispatch.inCurrentRun(algorithm));
 		algorithmThread.setName("Execution thread");
         this.infiniteLoop = false;
         this.exceptionThrown = false;
     }
 
+    /**
+     * Makes an executor for the replay of a recorded run (see
+     * GraphDispatch.startReplay()); there is no algorithm thread: all
+     * states are already in the graph, so stepping only changes the display
+     * state.
+     * @param synchronizer a synchronizer for which the algorithm has
+     * finished
+     * @param numberOfStates the number of the last recorded state
+     * @param queryAnswers the answers given to queries in the recorded run
+     */
+    public AlgorithmExecutor(AlgorithmSynchronizer synchronizer,
+                             int numberOfStates,
+                             List<QueryAnswer> queryAnswers) {
+        this.synchronizer = synchronizer;
+        synchronizer.setExecutor(this);
+        this.algorithmState = numberOfStates;
+        this.queryAnswers.addAll(queryAnswers);
+    }
+
     /**
      * Starts the algorithm thread and causes it to execute the first step.
      */
     public void startAlgorithm() {
         GraphDispatch dispatch = GraphDispatch.getInstance();
         dispatch.setActiveQuery(null);
+        if ( algorithmThread == null ) {
+            // replay: the first state is already there
+            displayState = Math.min(1, algorithmState);
+            showStates();
+            return;
+        }
         algorithmState = displayState = 0;
         algorithmThread.start();
         incrementDisplayState();
@@ -92,17 +136,15 @@ public class AlgorithmExecutor {
         LogHelper.enterMethod(getClass(), "stopAlgorithm");
         GraphDispatch dispatch = GraphDispatch.getInstance();
         dispatch.stopAlgorithm();
-        synchronized ( synchronizer ) {
-            synchronizer.stop();
-            synchronizer.notify();
-        }
+        synchronizer.stop();
         LogHelper.logDebug("algorithm thread notified"
                            + ", infiniteLoop = " + infiniteLoop
                            + ", exceptionThrown = " + synchronizer.exceptionThrown()
                            + ", activeQuery = "
                            + dispatch.getActiveQuery());
         try {
-            if ( ! infiniteLoop
+            if ( algorithmThread != null
+                 && ! infiniteLoop
                  && ! synchronizer.exceptionThrown()
                  && dispatch.getActiveQuery() == null ) {
                 LogHelper.logDebug("stopAlgorithm(): about to join algorithm thread");
@@ -128,6 +170,12 @@ public class AlgorithmExecutor {
      */
     public int getAlgorithmState() { return algorithmState; }
 
+    /**
+     * Called by the synchronizer (in the algorithm thread) whenever the
+     * algorithm goes on to a new step
+     */
+    void setAlgorithmState(int state) { algorithmState = state; }
+
     /**
      * Needed for code that relies on knowing what the current display is showing
      */
@@ -137,7 +185,44 @@ public class AlgorithmExecutor {
         String message
             = "display state = " + this.displayState
             + "  algorithm state = " + this.algorithmState;
-        GraphDispatch.getInstance().getGraphWindow().updateStatusLabel(message);
+        if ( algorithmThread == null ) {
+            // in a replay, show what the user answered at this point
+            synchronized ( queryAnswers ) {
+                for ( QueryAnswer answer : queryAnswers ) {
+                    if ( answer.getState() == displayState )
+                        message += "  [" + answer + "]";
+                }
+            }
+        }
+        updateStatusLabel(message);
+    }
+
+    /**
+     * Shows the message in the status bar of the graph window, if there is
+     * one, i.e., unless the algorithm runs in batch mode
+     */
+    private void updateStatusLabel(String message) {
+        GraphWindow window = GraphDispatch.getInstance().getGraphWindow();
+        if ( window == null ) return;
+        /**
+         * @todo despite the synchronization, the status label fails to get
+         * updated when called from the busy-wait in waitForAlgorithm()
+         */
+        synchronized ( window ) {
+            window.updateStatusLabel(message);
+        }
+    }
+
+    /**
+     * Lets the graph window know that the algorithm was terminated due to
+     * unusual circumstances so that the appropriate message will appear on
+     * the status bar; in batch mode the caller checks for these
+     * circumstances instead.
+     */
+    private void terminateInWindow() {
+        GraphWindow window = GraphDispatch.getInstance().getGraphWindow();
+        if ( window != null )
+            window.performDone();
     }
 
     /**
@@ -163,66 +248,17 @@ public class AlgorithmExecutor {
             algorithmState++;
             this.showStates();
 
-            // wake up the algorithmThread, have it do something
-            synchronized ( synchronizer ) {
-                synchronizer.notify();
-            }
-            int timeInBusyWait = 0;
-            do {
-                try {
-                    Thread.sleep(WAIT_TIME);
-                    timeInBusyWait += WAIT_TIME;
-                    if ( timeInBusyWait % PRINT_INTERVAL == 0 ) {
-                        message = "waiting "
-                            + (timeInBusyWait / (double) 1000)
-                            + " seconds of "
-                            + BUSY_WAIT_TIME_LIMIT / ((double) 1000);
-                        GraphWindow window = dispatch.getGraphWindow();
-                        /**
-                         * @todo despite the synchronization, the
-                         * status label fails to get updated here
-                         */
-                        synchronized ( window ) {
-                            window.updateStatusLabel(message);
-                        }
-                        System.out.println(message);
-                    }
-                } catch (InterruptedException e) {
-                    message = "Terminated because of exception";
-                    System.out.printf(message);
-                    dispatch.getGraphWindow().updateStatusLabel(message);
-                    e.printStackTrace(System.out);
-                }
-            } while ( ! synchronizer.stepFinished()
-                      && ! synchronizer.stopped()
-                      /**
-                       * there two types of exception thrown here:
-                       * synchronizer when an exception is displayed
-                       * in a popup
-                       * this whenever a GalantException is thrown
-                       * during execution
-                       * not clear that both are needed, but the
-                       * synchronizer one is a backstop
-                       */
-                      && ! synchronizer.exceptionThrown()
-                      && ! this.exceptionThrown
-                      && timeInBusyWait < BUSY_WAIT_TIME_LIMIT );
-            if ( timeInBusyWait >= BUSY_WAIT_TIME_LIMIT ) {
-                message = "Busy wait time limit exceeded";
-                System.out.println(message);
-                dispatch.getGraphWindow().updateStatusLabel(message);
-                infiniteLoop = true;
-            }
+            // wake up the algorithmThread, have it do something, and block
+            // until it is done
+            synchronizer.requestStep();
+            waitForAlgorithm();
         }
         else if ( displayState < algorithmState ) {
             displayState++;
             this.showStates();
         }
         if ( infiniteLoop || synchronizer.exceptionThrown() ) {
-            // need to let window know that algorithm was terminated due
-            // to unusual circumstances so that appropriate message will
-            // appear on the status bar
-            dispatch.getGraphWindow().performDone();
+            terminateInWindow();
         }
         LogHelper.logDebug("<- incrementDisplayState display = "
                            + displayState
@@ -230,6 +266,119 @@ public class AlgorithmExecutor {
         LogHelper.restoreState();
     }
 
+    /**
+     * Blocks until the algorithm has completed all requested steps, waking
+     * up every PRINT_INTERVAL only to report progress (in the status bar
+     * and the debug log) and to check on the thread. The algorithm is assumed to be in an infinite loop if it
+     * completes no step for BUSY_WAIT_TIME_LIMIT; a free run that lasts
+     * longer than FREE_RUN_TIME_LIMIT is cut short at the current step.
+     */
+    private void waitForAlgorithm() {
+        String message = null;
+        int timeInBusyWait = 0;
+        int timeRunning = 0;
+        long stepsCompleted = synchronizer.stepsCompleted();
+        try {
+            while ( ! synchronizer.awaitStepFinished(PRINT_INTERVAL)
+                    /**
+                     * there two types of exception thrown here:
+                     * synchronizer when an exception is displayed
+                     * in a popup (this wakes up the wait)
+                     * this whenever a GalantException is thrown
+                     * during execution
+                     * not clear that both are needed, but the
+                     * synchronizer one is a backstop
+                     */
+                    && ! this.exceptionThrown
+                    && algorithmThread.isAlive()
+                    && timeInBusyWait < BUSY_WAIT_TIME_LIMIT ) {
+                timeRunning += PRINT_INTERVAL;
+                if ( timeRunning == FREE_RUN_TIME_LIMIT ) {
+                    synchronizer.cancelRemainingSteps();
+                }
+                if ( synchronizer.stepsCompleted() != stepsCompleted ) {
+                    stepsCompleted = synchronizer.stepsCompleted();
+                    timeInBusyWait = 0;
+                    message = "running, " + stepsCompleted + " steps";
+                }
+                else {
+                    timeInBusyWait += PRINT_INTERVAL;
+                    message = "waiting "
+                        + (timeInBusyWait / (double) 1000)
+                        + " seconds of "
+                        + BUSY_WAIT_TIME_LIMIT / ((double) 1000);
+                }
+                updateStatusLabel(message);
+                LogHelper.logDebug(message);
+            }
+        } catch (InterruptedException e) {
+            message = "Terminated because of exception";
+            System.out.printf(message);
+            updateStatusLabel(message);
+            e.printStackTrace(System.out);
+        }
+        if ( timeInBusyWait >= BUSY_WAIT_TIME_LIMIT ) {
+            message = "Busy wait time limit exceeded";
+            System.out.println(message);
+            updateStatusLabel(message);
+            infiniteLoop = true;
+        }
+    }
+
+    /**
+     * Moves the display directly to the given state. If the algorithm has
+     * not reached that state yet, it first runs freely, i.e., without a
+     * handoff to the display at every step, until it gets there, finishes
+     * or asks a query; all states along the way are recorded as usual, so
+     * the user can still step back through them.
+     *
+     * This blocks until the algorithm gets there, for as long as
+     * FREE_RUN_TIME_LIMIT, so the graph window calls it from a background
+     * thread (see GraphWindow.performRunToEnd()).
+     *
+     * @param state the desired display state; Integer.MAX_VALUE runs the
+     * algorithm to completion
+     */
+    public synchronized void runToState(int state) {
+        GraphDispatch dispatch = GraphDispatch.getInstance();
+        if ( state > algorithmState
+             && ! synchronizer.algorithmFinished()
+             && ! synchronizer.stopped()
+             && ! synchronizer.exceptionThrown()
+             && dispatch.getActiveQuery() == null ) {
+            synchronizer.requestSteps((long) state - algorithmState);
+            waitForAlgorithm();
+        }
+        displayState = Math.max(Math.min(state, algorithmState),
+                                Math.min(1, algorithmState));
+        this.showStates();
+        if ( infiniteLoop || synchronizer.exceptionThrown() ) {
+            terminateInWindow();
+        }
+    }
+
+    /**
+     * Displays the given state directly, e.g., when the user drags the state
+     * slider in the graph window; unlike runToState(), this never makes the
+     * algorithm run, so the state is limited to those already reached. No
+     * states in between are visited: every attribute has a timeline of its
+     * own in which its value at any state is found by binary search (see
+     * AttributeHistory), so a jump costs the same as a single step.
+     */
+    public synchronized void jumpToState(int state) {
+        displayState = Math.max(Math.min(state, algorithmState),
+                                Math.min(1, algorithmState));
+        this.showStates();
+    }
+
+    /**
+     * Runs the algorithm to the end (or to the next query) and displays the
+     * final state
+     */
+    public void runToCompletion() {
+        runToState(Integer.MAX_VALUE);
+    }
+
     /**
      * Called when user requests a step back
      */
@@ -256,10 +405,39 @@ public class AlgorithmExecutor {
         return (displayState > 1);
     }
 
+    /**
+     * Called by the algorithm (in the algorithm thread) when the user has
+     * answered a query
+     */
+    void recordQueryAnswer(String prompt, Object answer) {
+        queryAnswers.add(new QueryAnswer(algorithmState, prompt,
+                                         String.valueOf(answer)));
+    }
+
+    /**
+     * @return the answers to queries so far, in the order they were given
+     */
+    public List<QueryAnswer> getQueryAnswers() {
+        synchronized ( queryAnswers ) {
+            return new ArrayList<QueryAnswer>(queryAnswers);
+        }
+    }
+
+    /**
+     * Saves the run so far, i.e., all changes to the graph up to the
+     * current algorithm state and the answers to queries, in a trace file
+     * that can be replayed without the algorithm (see TraceWriter)
+     */
+    public synchronized void writeTrace(File file) throws IOException {
+        GraphDispatch dispatch = GraphDispatch.getInstance();
+        TraceWriter.write(file, dispatch.getWorkingGraph(), algorithmState,
+                          dispatch.algorithmMovesNodes(), getQueryAnswers());
+    }
+
     public void printStates() {
         System.out.printf("displayState = %d, algorithmState = %d\n",
                           displayState, algorithmState);
     }
 }
 
-//  [Last modified: 2021 02 08 at 18:01:49 GMT]
+//  [Last modified: 2026 10 17 at 20:27:47 GMT]
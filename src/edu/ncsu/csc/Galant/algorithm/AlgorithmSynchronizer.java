@@ -13,26 +13,45 @@
  *   manager (AlgorithmExecutor)
  *
  * - if the current display state is the same as the algorithm state, the
- *   algorithm wakes up and executes, doing a startStep(), i.e., setting
- *   stepFinished false and checking for termination
+ *   algorithm wakes up and executes, doing a startStep(), i.e., checking
+ *   for termination
  *
  * - when the current algorithm step is done, the algorithm calls
  *   pauseExecution() to wake up the AlgorithmExecuter (main thread)
  *
  * - this synchronizer waits to be woken up again, i.e., when the user steps
  *    forward beyond the current algorithm state
+ *
+ * The handoff is a pair of counters guarded by the monitor of this object:
+ * the main thread increments stepsRequested (requestStep()) and blocks in
+ * awaitStepFinished() until the algorithm has completed as many steps; the
+ * algorithm increments stepsCompleted when it pauses and blocks until
+ * another step is requested. Each side is woken with notifyAll() as soon
+ * as the other one is done, so a step takes only as long as the
+ * algorithm's work, and a request made before the algorithm starts waiting
+ * is not lost. The first step is the one that ends with the pause in
+ * Algorithm.initialize().
+ *
+ * The main thread can also request many steps at once (requestSteps()), in
+ * which case the algorithm runs freely: it goes on to the next step as soon
+ * as it completes one, without a handoff, and only waits when it reaches
+ * the last requested step, i.e., when the display catches up with it. The
+ * state history is recorded in full either way.
  */
 
 package edu.ncsu.csc.Galant.algorithm;
 
 import edu.ncsu.csc.Galant.GraphDispatch;
-import edu.ncsu.csc.Galant.algorithm.AlgorithmExecutor;
 import edu.ncsu.csc.Galant.logging.LogHelper;
 
 public class AlgorithmSynchronizer {
 
-    /** true if done with current algorithm step */
-    protected boolean stepFinished = false;
+    /** number of steps the main thread has asked the algorithm to take */
+    protected long stepsRequested = 0;
+    /** number of steps the algorithm has completed, i.e., paused after */
+    protected long stepsCompleted = 0;
+    /** the executor whose algorithm state advances with each new step */
+    private AlgorithmExecutor executor;
     /** true if algorithm has reached the end of execution; may still be
      * animating */
     protected boolean algorithmFinished = false;
@@ -51,6 +70,7 @@ public class AlgorithmSynchronizer {
      */
     public synchronized void stop() {
         terminated = true;
+        notifyAll();
      }
 
     public synchronized boolean stopped() {
@@ -61,9 +81,8 @@ public class AlgorithmSynchronizer {
      * The algorithm signals that it has reached the end of execution on its own.
      */
     public synchronized void finishAlgorithm() {
-        synchronized( this ) {
-            algorithmFinished = true;
-        }
+        algorithmFinished = true;
+        notifyAll();
     }
 
     public synchronized boolean algorithmFinished() {
@@ -76,21 +95,85 @@ public class AlgorithmSynchronizer {
 
     public synchronized void reportExceptionThrown() {
         exceptionThrown = true;
+        notifyAll();
     }
 
     public synchronized boolean exceptionThrown() {
         return exceptionThrown;
     }
 
+    void setExecutor(AlgorithmExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Called by the main thread to let the algorithm take its next step;
+     * the algorithm, if it is waiting in pauseExecution(), resumes.
+     */
+    public synchronized void requestStep() {
+        requestSteps(1);
+    }
+
+    /**
+     * Lets the algorithm take the given number of steps without waiting for
+     * the main thread in between; Long.MAX_VALUE lets it run to completion
+     */
+    public synchronized void requestSteps(long numberOfSteps) {
+        if ( numberOfSteps > Long.MAX_VALUE - stepsRequested )
+            stepsRequested = Long.MAX_VALUE;
+        else
+            stepsRequested += numberOfSteps;
+        notifyAll();
+    }
+
+    /**
+     * Withdraws any requests beyond the step the algorithm is working on,
+     * so that it waits again at the end of that step
+     */
+    public synchronized void cancelRemainingSteps() {
+        if ( stepsRequested > stepsCompleted + 1 )
+            stepsRequested = stepsCompleted + 1;
+    }
+
+    /**
+     * @return the number of steps completed so far; used by the main
+     * thread to tell whether the algorithm is making progress
+     */
+    public synchronized long stepsCompleted() {
+        return stepsCompleted;
+    }
+
+    /**
+     * Called by the main thread after requestStep(); blocks until the
+     * algorithm has finished the step (or the algorithm has finished,
+     * been stopped or thrown an exception), but for at most the given
+     * number of milliseconds.
+     *
+     * @return true unless the time ran out first
+     */
+    public synchronized boolean awaitStepFinished(long timeLimit)
+        throws InterruptedException {
+        long deadline = System.nanoTime() + timeLimit * 1000000L;
+        while ( stepsCompleted < stepsRequested
+                && ! algorithmFinished
+                && ! terminated
+                && ! exceptionThrown ) {
+            long remaining = deadline - System.nanoTime();
+            if ( remaining <= 0 )
+                return false;
+            this.wait(remaining / 1000000L, (int) (remaining % 1000000L));
+        }
+        return true;
+    }
+
     /**
-     * Signals the beginning of a step: the algorithm calls startStep() and
-     * the main thread checks, in a busy wait loop, to see whether the
-     * current step is finished.
+     * Signals the beginning of a step.
      *
      * startStep() is also used by the algorithm to take appropriate action when
      * termination is called for; if yes then throws an exception to
      * effectively do a 'long jump' to the end of the run() method of the
-     * compiled algorithm;
+     * compiled algorithm; if a step begun with beginStep() is still in
+     * progress, that step ends here
      * @see edu.ncsu.csc.Galant.algorithm.code.CodeIntegrator
      */
     public synchronized void startStep() throws Terminate {
@@ -102,38 +185,52 @@ public class AlgorithmSynchronizer {
         }
         if ( terminated )
             throw new Terminate();
-        stepFinished = false;
     }
 
+    /**
+     * @return true if the algorithm has completed all requested steps
+     */
     public synchronized boolean stepFinished() {
-        return stepFinished;
+        return stepsCompleted >= stepsRequested;
     }
 
     public synchronized void finishStep() {
-        stepFinished = true;
+        stepsCompleted = stepsRequested;
+        notifyAll();
     }
 
     /**
-     * Called at the end of each algorithm step; yields control back to the
-     * main thread
+     * Called at the end of each algorithm step; if no further steps have
+     * been requested, yields control back to the main thread and waits for
+     * the next request, otherwise goes right on. A query (dialog) that
+     * awaits an answer always ends a free run. Does nothing (other than
+     * check for termination) in the middle of a step that is locked by
+     * beginStep().
      */
     public synchronized void pauseExecution() throws Terminate {
         LogHelper.disable();
         LogHelper.logDebug("-> pauseExecution, locked = " + locked);
         if ( terminated )
             throw new Terminate();
-        AlgorithmExecutor executor
-            = GraphDispatch.getInstance().getAlgorithmExecutor();
-        stepFinished = true;
-        synchronized( this ) {
-            try {
-                if ( ! locked ) {
-                    this.wait();
-                }
+        if ( ! locked ) {
+            stepsCompleted++;
+            if ( stepsRequested > stepsCompleted
+                 && GraphDispatch.getInstance().getActiveQuery() != null ) {
+                stepsRequested = stepsCompleted;
             }
-            catch ( InterruptedException e ) {
-                System.out.println("interruption in pauseExecution");
+            if ( stepsRequested <= stepsCompleted ) {
+                notifyAll();
+                try {
+                    while ( stepsRequested <= stepsCompleted && ! terminated ) {
+                        this.wait();
+                    }
+                }
+                catch ( InterruptedException e ) {
+                    System.out.println("interruption in pauseExecution");
+                }
             }
+            if ( executor != null )
+                executor.setAlgorithmState((int) (stepsCompleted + 1));
         }
         if ( terminated )
             throw new Terminate();
@@ -142,4 +239,4 @@ public class AlgorithmSynchronizer {
     }
 }
 
-//  [Last modified: 2021 01 30 at 22:21:41 GMT]
+//  [Last modified: 2026 10 17 at 17:47:35 GMT]
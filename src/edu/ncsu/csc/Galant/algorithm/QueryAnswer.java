@@ -0,0 +1,30 @@
+package edu.ncsu.csc.Galant.algorithm;
+
+/**
+ * The answer given to an interactive query (getString(), getNode(), etc.)
+ * during an algorithm run, as recorded by the AlgorithmExecutor so that it
+ * can be saved in a trace along with the changes to the graph.
+ */
+public class QueryAnswer {
+    /** the algorithm state in which the query was asked */
+    private final int state;
+    private final String prompt;
+    /** the answer as text, e.g., the id of a node that was selected */
+    private final String answer;
+
+    public QueryAnswer(int state, String prompt, String answer) {
+        this.state = state;
+        this.prompt = prompt;
+        this.answer = answer;
+    }
+
+    public int getState() { return state; }
+    public String getPrompt() { return prompt; }
+    public String getAnswer() { return answer; }
+
+    public String toString() {
+        return prompt + " " + answer;
+    }
+}
+
+//  [Last modified: 2026 10 17 at 18:10:48 GMT]
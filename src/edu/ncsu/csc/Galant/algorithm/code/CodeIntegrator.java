@@ -2,12 +2,15 @@ package edu.ncsu.csc.Galant.algorithm.code;
 
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Scanner;
 import javax.tools.DiagnosticCollector;
 import javax.tools.JavaFileObject;
 import edu.ncsu.csc.Galant.GalantPreferences;
 import edu.ncsu.csc.Galant.algorithm.Algorithm;
 import edu.ncsu.csc.Galant.algorithm.code.macro.Macro;
+import edu.ncsu.csc.Galant.algorithm.code.macro.MacroExpander;
 import edu.ncsu.csc.Galant.algorithm.code.macro.MalformedMacroException;
 import edu.ncsu.csc.Galant.logging.LogHelper;
 import edu.ncsu.csc.Galant.GalantException;
@@ -26,10 +29,10 @@ import java.io.InputStreamReader;
  * <li>Stripping comments.
  * <li>Replacing any macros with the equivalent Java code.</li>
  * <li>Inserting the code into a basic class structure.</li>
- * <li>Compiling the completed Java class into a <code>.class</code> file,
- *  which is stored in the folder defined by
- * {@link GalantPreferences#OUTPUT_DIRECTORY}.</li>
- * <li>Loading the <code>.class</code> file into the program so that its
+ * <li>Compiling the completed Java class, in memory, into the bytes of a
+ * <code>.class</code> file; the steps so far are skipped if the same code
+ * was compiled before (see CompiledAlgorithmCache).</li>
+ * <li>Loading the class from those bytes into the program so that its
  * <code>runAlgorithm</code> method can be called.</li>
  * <li>Creating an <code>Algorithm</code> from the loaded class
  * for easy reference.</li>
@@ -58,6 +61,13 @@ public class CodeIntegrator	{
     private static final String REAL_ALGORITHM_HEAD = "initialize();";
     private static final String REAL_ALGORITHM_TAIL = "finishAlgorithm();";
 
+    /** matches an import declaration of the algorithm */
+    private static final Pattern IMPORT_PATTERN = Pattern.compile("import.*;");
+
+    /** expands the macros in Macro.MACROS */
+    private static final MacroExpander MACRO_EXPANDER
+        = new MacroExpander(Macro.MACROS);
+
     /**
      * The basic class structure into which the user's code can be inserted
      * so it can be compiled.
@@ -132,7 +142,7 @@ public class CodeIntegrator	{
     {
         // separate animator declared imports from main code; these are
         // assumed to be at the beginning of the program
-        Matcher matcher = Pattern.compile("import.*;").matcher(userCode);
+        Matcher matcher = IMPORT_PATTERN.matcher(userCode);
         int splitAt = 0;
         while ( matcher.find() )
             splitAt = matcher.end();
@@ -159,14 +169,15 @@ public class CodeIntegrator	{
                                   userCode));
         userCode = sb.toString();
 
-        // apply macros
-        for ( Macro macro : Macro.MACROS ) {
-            userCode = macro.applyTo(userCode);
+        // apply macros, all in one pass; the lists of macros are shared, so
+        // algorithms compiled concurrently take turns
+        synchronized ( Macro.MACROS ) {
+            userCode = MACRO_EXPANDER.expand(userCode);
+            // apply generated macros, removing each one so if the code is recompiled,
+            // you don't end up with incorrect/duplicate macros
+            while(!Macro.GENERATED_MACROS.isEmpty())
+                userCode = Macro.GENERATED_MACROS.remove(0).applyTo(userCode);
         }
-        // apply generated macros, removing each one so if the code is recompiled,
-        // you don't end up with incorrect/duplicate macros
-        while(!Macro.GENERATED_MACROS.isEmpty())
-            userCode = Macro.GENERATED_MACROS.remove(0).applyTo(userCode);
 
         // insert into class structure
         return CLASS_STRUCTURE.replace(NAME_FIELD, algorithmName).replace(CODE_FIELD,
@@ -183,6 +194,36 @@ public class CodeIntegrator	{
      */
     public static Algorithm integrateCode(String algorithmName, String userCode)
         throws CompilationException, MalformedMacroException, GalantException
+    {
+        return CompilerAndLoader.instantiate(compileAlgorithm(algorithmName,
+                                                              userCode,
+                                                              true));
+    }
+
+    /**
+     * Compiles the given code, or finds it in the cache, without creating
+     * an instance; this is what the editor does in the background while the
+     * user types, so that the class is ready when the algorithm is run.
+     * Unlike integrateCode(), it does not display the source code.
+     * @return the class of the algorithm.
+     * @throws CompilationException if compiler errors occur.
+     * @throws MalformedMacroException if there are errors in macro usage.
+     */
+    public static Class<? extends Algorithm>
+        compileAlgorithm(String algorithmName, String userCode)
+        throws CompilationException, MalformedMacroException, GalantException
+    {
+        return compileAlgorithm(algorithmName, userCode, false);
+    }
+
+    /**
+     * @param showSource if true, the source code after macro processing is
+     * displayed, whether or not the class is found in the cache
+     */
+    private static Class<? extends Algorithm>
+        compileAlgorithm(String algorithmName, String userCode,
+                         boolean showSource)
+        throws CompilationException, MalformedMacroException, GalantException
     {
         // Make sure the name is a valid Java identifier; use the file name
         // and replace all illegal characters with _'s
@@ -199,20 +240,33 @@ public class CodeIntegrator	{
         String className = nameBuilder.toString();
         String qualifiedName = PACKAGE + "." + className;
 
-        // Replace macros and insert into class structure
-        String sourceCode = toJavaClass(className, userCode);
+        // Replace macros and insert into class structure; this is only
+        // needed up front if the source code is to be displayed
+        String sourceCode = null;
+        if ( showSource ) {
+            sourceCode = toJavaClass(className, userCode);
+            LogHelper.showSourceCode(sourceCode);
+        }
+
+        // Use the class compiled earlier if the code has not changed
+        String key = CompiledAlgorithmCache.key(className, userCode);
+        Class<? extends Algorithm> algorithmClass
+            = CompiledAlgorithmCache.get(key, qualifiedName);
+        if ( algorithmClass != null )
+            return algorithmClass;
 
-        // Display source code after macro processing
-        LogHelper.showSourceCode(sourceCode);
+        if ( sourceCode == null )
+            sourceCode = toJavaClass(className, userCode);
 
         // Compile
+        Map<String, byte[]> classFiles = new HashMap<String, byte[]>();
         DiagnosticCollector<JavaFileObject> diagnostics =
-            CompilerAndLoader.compile(qualifiedName, sourceCode);
+            CompilerAndLoader.compile(qualifiedName, sourceCode, classFiles);
         if ( diagnostics != null )
             throw new CompilationException(diagnostics);
 
         // Load
-        return CompilerAndLoader.loadAlgorithm(qualifiedName);
+        return CompiledAlgorithmCache.put(key, qualifiedName, classFiles);
     }
 
     /**
@@ -298,13 +352,11 @@ public class CodeIntegrator	{
      * finite-state machine; preserves line numbering -- all line breaks
      * remain intact.
      *
-     * @todo Use a StringBuffer to make this more efficient (?); probably
-     * won't make a difference unless the algorithm has thousands of lines.
      */
     private static String removeAllComments(String code) {
         LogHelper.logDebug("-> removeAllComments, code =\n" + code);
 
-        String withoutComments = "";
+        StringBuilder withoutComments = new StringBuilder(code.length());
         State state = State.DEFAULT;
 
         for ( int i = 0; i < code.length(); i++ ) {
@@ -315,7 +367,7 @@ public class CodeIntegrator	{
                 if ( current == '/' ) state = State.SLASH;
                 else {
                     if ( current == '"' ) state = State.IN_STRING;
-                    withoutComments += current;
+                    withoutComments.append(current);
                 }
             }
             else if ( state == State.SLASH ) {
@@ -324,14 +376,14 @@ public class CodeIntegrator	{
                 else if ( current == '/' ) state = State.SLASH_SLASH;
                 else {
                     state = State.DEFAULT;
-                    withoutComments += '/';
-                    withoutComments += current;
+                    withoutComments.append('/');
+                    withoutComments.append(current);
                 }
             }
             else if ( state == State.SLASH_STAR ) {
                 //LogHelper.logDebug("    state = SLASH_STAR");
                 if ( current == '*' ) state = State.STAR;
-                else if ( current == '\n' ) withoutComments += current;
+                else if ( current == '\n' ) withoutComments.append(current);
                 // do nothing otherwise -- in a comment
             }
             else if ( state == State.STAR ) {
@@ -339,31 +391,31 @@ public class CodeIntegrator	{
                 if ( current == '/' ) state = State.DEFAULT;
                 else {
                     state = State.SLASH_STAR;
-                    if ( current == '\n' ) withoutComments += current;
+                    if ( current == '\n' ) withoutComments.append(current);
                 }
             }
             else if ( state == State.SLASH_SLASH ) {
                 //LogHelper.logDebug("    state = SLASH_SLASH");
                 if ( current == '\n' ) {
                     state = State.DEFAULT;
-                    withoutComments += current;
+                    withoutComments.append(current);
                 }
                 // do nothing otherwise -- in a comment
             }
             else if ( state == State.IN_STRING ) {
                 if ( current == '\\' ) state = State.BACKSLASH;
                 if ( current == '"' ) state = state.DEFAULT;
-                withoutComments += current;
+                withoutComments.append(current);
             }
             else if ( state == State.BACKSLASH ) {
                 state = State.IN_STRING;
-                withoutComments += current;
+                withoutComments.append(current);
             }
         }
         LogHelper.logDebug("<- removeAllComments, withoutComments =\n"
                            + withoutComments);
-        return withoutComments;
+        return withoutComments.toString();
     }
 }
 
-//  [Last modified: 2021 01 30 at 22:26:21 GMT]
+//  [Last modified: 2026 10 17 at 20:54:53 GMT]
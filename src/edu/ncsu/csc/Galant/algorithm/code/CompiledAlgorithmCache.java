@@ -0,0 +1,341 @@
+package edu.ncsu.csc.Galant.algorithm.code;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import edu.ncsu.csc.Galant.Galant;
+import edu.ncsu.csc.Galant.GalantException;
+import edu.ncsu.csc.Galant.GalantPreferences;
+import edu.ncsu.csc.Galant.GraphDispatch;
+import edu.ncsu.csc.Galant.algorithm.Algorithm;
+import edu.ncsu.csc.Galant.algorithm.Terminate;
+import edu.ncsu.csc.Galant.algorithm.code.macro.Function;
+import edu.ncsu.csc.Galant.algorithm.code.macro.Macro;
+import edu.ncsu.csc.Galant.algorithm.code.macro.MacroExpander;
+import edu.ncsu.csc.Galant.algorithm.code.macro.MacroUtil;
+import edu.ncsu.csc.Galant.algorithm.code.macro.Macros;
+import edu.ncsu.csc.Galant.algorithm.code.macro.Pair;
+import edu.ncsu.csc.Galant.graph.component.Edge;
+import edu.ncsu.csc.Galant.graph.component.Graph;
+import edu.ncsu.csc.Galant.graph.component.GraphElement;
+import edu.ncsu.csc.Galant.graph.component.Node;
+import edu.ncsu.csc.Galant.graph.datastructure.EdgeList;
+import edu.ncsu.csc.Galant.graph.datastructure.EdgePriorityQueue;
+import edu.ncsu.csc.Galant.graph.datastructure.EdgeQueue;
+import edu.ncsu.csc.Galant.graph.datastructure.EdgeSet;
+import edu.ncsu.csc.Galant.graph.datastructure.NodeList;
+import edu.ncsu.csc.Galant.graph.datastructure.NodePriorityQueue;
+import edu.ncsu.csc.Galant.graph.datastructure.NodeQueue;
+import edu.ncsu.csc.Galant.graph.datastructure.NodeSet;
+import edu.ncsu.csc.Galant.logging.LogHelper;
+
+/**
+ * Keeps compiled algorithm classes so that an algorithm whose text has not
+ * changed is not run through the macros and the Java compiler again.
+ *
+ * An entry is keyed by a hash of the algorithm's name and text. Its class
+ * files are stored on disk, named by binary class name, in a directory
+ * named by the class name and the key under CACHE_DIRECTORY in the output
+ * directory (see GalantPreferences.OUTPUT_DIRECTORY), and the loaded class
+ * is also kept in memory. Only the latest entry for each algorithm name is
+ * kept, in memory and on disk: the editor compiles the text every time the
+ * user stops typing, and the earlier versions are not likely to be run
+ * again. Entries are grouped under a
+ * fingerprint of everything else that determines the compiled code: the
+ * Galant and Java versions, the class template in CodeIntegrator, the class
+ * files of the macros and of the classes algorithms are compiled against
+ * (API_CLASSES), and, when Galant runs from a jar, the size and modification
+ * time of the jar. When the fingerprint changes, e.g., with a new release or
+ * after a macro or Graph is edited, the entries made under the old one are
+ * no longer found and are removed from disk.
+ */
+public class CompiledAlgorithmCache {
+    public static final String CACHE_DIRECTORY = "cache";
+    private static final String CLASS_EXTENSION = ".class";
+
+    /** number of hex digits of a hash used in a directory name */
+    private static final int NAME_LENGTH = 32;
+
+    /**
+     * classes imported by the template in CodeIntegrator, i.e., the API an
+     * algorithm is compiled against; their Galant superclasses are
+     * fingerprinted as well
+     */
+    private static final Class<?> [] API_CLASSES = {
+        Algorithm.class, Graph.class, Node.class, Edge.class,
+        GraphElement.class, NodeSet.class, EdgeSet.class, NodeList.class,
+        EdgeList.class, NodeQueue.class, EdgeQueue.class,
+        NodePriorityQueue.class, EdgePriorityQueue.class, Function.class,
+        Pair.class, GalantException.class, GraphDispatch.class,
+        Terminate.class
+    };
+
+    /** key of the latest entry for each qualified class name */
+    private static final Map<String, String> latestKeys
+        = new HashMap<String, String>();
+
+    /** class of the latest entry for each qualified class name */
+    private static final Map<String, Class<? extends Algorithm>> loadedClasses
+        = new HashMap<String, Class<? extends Algorithm>>();
+
+    /** directory for entries under the current fingerprint */
+    private static File fingerprintDirectory;
+
+    /**
+     * @return the key of the compiled version of the given algorithm
+     */
+    public static String key(String className, String userCode) {
+        MessageDigest digest = newDigest();
+        digest.update(className.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(userCode.getBytes(StandardCharsets.UTF_8));
+        return toHex(digest.digest());
+    }
+
+    /**
+     * @return the class of the algorithm with the given key and qualified
+     * name if it has been compiled before, null otherwise
+     */
+    public static synchronized Class<? extends Algorithm>
+        get(String key, String qualifiedName) {
+        if ( key.equals(latestKeys.get(qualifiedName)) )
+            return loadedClasses.get(qualifiedName);
+        File entry = new File(fingerprintDirectory(),
+                              entryName(key, qualifiedName));
+        if ( ! entry.isDirectory() ) return null;
+        Class<? extends Algorithm> algorithmClass;
+        try {
+            algorithmClass
+                = CompilerAndLoader.loadAlgorithmClass(qualifiedName,
+                                                       readEntry(entry));
+        }
+        catch ( IOException | GalantException e ) {
+            // most likely an incomplete or foreign entry; compile again
+            LogHelper.logDebug("discarding cache entry " + entry + ": " + e);
+            delete(entry);
+            return null;
+        }
+        latestKeys.put(qualifiedName, key);
+        loadedClasses.put(qualifiedName, algorithmClass);
+        return algorithmClass;
+    }
+
+    /**
+     * Loads the algorithm class from the class files produced by the
+     * compiler and makes them the entry for the key, replacing the earlier
+     * entry for the same class name, if any; failure to store the entry on
+     * disk only means that it will be compiled again next time
+     * @return the algorithm class
+     */
+    public static synchronized Class<? extends Algorithm>
+        put(String key, String qualifiedName, Map<String, byte[]> classFiles)
+        throws GalantException {
+        Class<? extends Algorithm> algorithmClass
+            = CompilerAndLoader.loadAlgorithmClass(qualifiedName, classFiles);
+        latestKeys.put(qualifiedName, key);
+        loadedClasses.put(qualifiedName, algorithmClass);
+        String name = entryName(key, qualifiedName);
+        File entry = new File(fingerprintDirectory(), name);
+        File directory
+            = new File(fingerprintDirectory(), name + "-" + UUID.randomUUID());
+        try {
+            Files.createDirectories(directory.toPath());
+            for ( Map.Entry<String, byte[]> classFile : classFiles.entrySet() ) {
+                Files.write(new File(directory, classFile.getKey()
+                                     + CLASS_EXTENSION).toPath(),
+                            classFile.getValue());
+            }
+            // another Galant process may have made the same entry
+            // in the meantime, in which case the move fails
+            Files.move(directory.toPath(), entry.toPath(),
+                       StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch ( IOException e ) {
+            LogHelper.logDebug("unable to make cache entry " + entry + ": " + e);
+            delete(directory);
+        }
+        removeOtherEntries(key, qualifiedName);
+        return algorithmClass;
+    }
+
+    /**
+     * @return the name of the directory of an entry: the simple class name
+     * and the key, which contain no '-'
+     */
+    private static String entryName(String key, String qualifiedName) {
+        return qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1)
+            + "-" + key;
+    }
+
+    /**
+     * Removes the entries on disk for the same class name as the given
+     * entry; directories still being written, whose names have a third
+     * part, are left to the process writing them
+     */
+    private static void removeOtherEntries(String key, String qualifiedName) {
+        String name = entryName(key, qualifiedName);
+        String prefix = name.substring(0, name.indexOf('-') + 1);
+        File[] entries = fingerprintDirectory().listFiles();
+        if ( entries == null ) return;
+        for ( File entry : entries ) {
+            String other = entry.getName();
+            if ( other.startsWith(prefix) && ! other.equals(name)
+                 && other.indexOf('-', prefix.length()) < 0 )
+                delete(entry);
+        }
+    }
+
+    /**
+     * @return the class files of an entry, keyed by binary class name
+     */
+    private static Map<String, byte[]> readEntry(File entry)
+        throws IOException {
+        Map<String, byte[]> classFiles = new HashMap<String, byte[]>();
+        File[] files = entry.listFiles();
+        if ( files == null ) throw new IOException("unable to list " + entry);
+        for ( File file : files ) {
+            String name = file.getName();
+            if ( ! name.endsWith(CLASS_EXTENSION) ) continue;
+            classFiles.put(name.substring(0, name.length()
+                                          - CLASS_EXTENSION.length()),
+                           Files.readAllBytes(file.toPath()));
+        }
+        return classFiles;
+    }
+
+    /**
+     * @return the directory for entries under the current fingerprint; on
+     * the first call, directories for other fingerprints are removed
+     */
+    private static File fingerprintDirectory() {
+        if ( fingerprintDirectory == null ) {
+            File cache = new File(GalantPreferences.OUTPUT_DIRECTORY.get(),
+                                  CACHE_DIRECTORY);
+            String name = fingerprint();
+            File[] existing = cache.listFiles();
+            if ( existing != null ) {
+                for ( File directory : existing ) {
+                    if ( ! directory.getName().equals(name) ) delete(directory);
+                }
+            }
+            fingerprintDirectory = new File(cache, name);
+        }
+        return fingerprintDirectory;
+    }
+
+    /**
+     * @return a hash of the Galant and Java versions, of the class files
+     * that turn algorithm text into Java code and of those the code is
+     * compiled against
+     */
+    private static String fingerprint() {
+        MessageDigest digest = newDigest();
+        digest.update(Galant.VERSION.getBytes(StandardCharsets.UTF_8));
+        digest.update(System.getProperty("java.specification.version")
+                      .getBytes(StandardCharsets.UTF_8));
+        // a rebuilt jar may change classes that are not listed below
+        File jar = codeSource();
+        if ( jar != null && jar.isFile() ) {
+            digest.update((jar.length() + " " + jar.lastModified())
+                          .getBytes(StandardCharsets.UTF_8));
+        }
+        Set<Class<?>> classes = new LinkedHashSet<Class<?>>();
+        classes.add(CodeIntegrator.class);
+        classes.add(Macros.class);
+        classes.add(MacroUtil.class);
+        classes.add(MacroExpander.class);
+        for ( Macro macro : Macro.MACROS ) {
+            addWithSuperclasses(classes, macro.getClass());
+        }
+        for ( Class<?> c : API_CLASSES ) {
+            addWithSuperclasses(classes, c);
+        }
+        for ( Class<?> c : classes ) {
+            digest.update(c.getName().getBytes(StandardCharsets.UTF_8));
+            String resource = "/" + c.getName().replace('.', '/') + ".class";
+            try ( InputStream in = c.getResourceAsStream(resource) ) {
+                if ( in == null ) continue;
+                byte[] buffer = new byte[8192];
+                int length;
+                while ( (length = in.read(buffer)) > 0 ) {
+                    digest.update(buffer, 0, length);
+                }
+            }
+            catch ( IOException e ) {
+                LogHelper.logDebug("unable to read " + resource + ": " + e);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Adds the class and its superclasses up to the first one outside
+     * Galant, e.g., Object or Exception
+     */
+    private static void addWithSuperclasses(Set<Class<?>> classes,
+                                            Class<?> c) {
+        String prefix = Galant.class.getPackage().getName() + ".";
+        for ( ; c != null && c.getName().startsWith(prefix);
+              c = c.getSuperclass() ) {
+            classes.add(c);
+        }
+    }
+
+    /**
+     * @return the jar or directory Galant was loaded from, null if unknown
+     */
+    private static File codeSource() {
+        try {
+            CodeSource source
+                = Algorithm.class.getProtectionDomain().getCodeSource();
+            if ( source == null || source.getLocation() == null ) return null;
+            return new File(source.getLocation().toURI());
+        }
+        catch ( URISyntaxException | IllegalArgumentException
+                | SecurityException e ) {
+            LogHelper.logDebug("unable to locate the Galant classes: " + e);
+            return null;
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch ( NoSuchAlgorithmException e ) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] hash) {
+        StringBuilder hex = new StringBuilder(NAME_LENGTH);
+        for ( int i = 0; hex.length() < NAME_LENGTH; i++ ) {
+            hex.append(String.format("%02x", hash[i]));
+        }
+        return hex.toString();
+    }
+
+    private static void delete(File file) {
+        File[] contents = file.listFiles();
+        if ( contents != null ) {
+            for ( File f : contents ) delete(f);
+        }
+        file.delete();
+    }
+}
+
+//  [Last modified: 2026 10 17 at 20:30:53 GMT]
@@ -1,69 +1,144 @@
 package edu.ncsu.csc.Galant.algorithm.code;
 
-import java.io.File;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URI;
-import java.net.URL;
-import java.net.URLClassLoader;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
 import javax.tools.JavaCompiler;
 import javax.tools.JavaCompiler.CompilationTask;
+import javax.tools.JavaFileManager;
 import javax.tools.JavaFileObject;
+import javax.tools.JavaFileObject.Kind;
 import javax.tools.SimpleJavaFileObject;
 import javax.tools.StandardJavaFileManager;
 import javax.tools.ToolProvider;
-import edu.ncsu.csc.Galant.GalantPreferences;
 import edu.ncsu.csc.Galant.algorithm.Algorithm;
-import edu.ncsu.csc.Galant.gui.util.ExceptionDialog;
+import edu.ncsu.csc.Galant.algorithm.code.macro.MalformedMacroException;
+import edu.ncsu.csc.Galant.logging.LogHelper;
 import edu.ncsu.csc.Galant.GalantException;
 
 /**
- * Dynamic code compilation class
+ * Dynamic code compilation class. The compiler reads the source code from a
+ * string and writes the class files to byte arrays (see
+ * InMemoryClassFileManager), from which the classes are loaded by a class
+ * loader of their own (see ByteArrayClassLoader); nothing goes through the
+ * file system, so there are no stale class files and compilations of
+ * different algorithms can run concurrently. The compiler and its file
+ * managers are kept for the rest of the session (see warmUp()).
  * @see http://www.accordess.com/wpblog/an-overview-of-java-compilation-api-jsr-199/
  */
 public class CompilerAndLoader
 	{
+		/**
+		 * The system Java compiler, looked up once; it is thread safe, so
+		 * all compilations share it.
+		 */
+		private static JavaCompiler compiler;
+
+		/**
+		 * Standard file managers that are not in use by a compilation. A file
+		 * manager keeps the indexes of the platform classes and the class path
+		 * it has read, so it is put back here after each compilation rather
+		 * than closed; there are as many as there have been concurrent
+		 * compilations.
+		 */
+		private static final Queue<StandardJavaFileManager> idleFileManagers = new ConcurrentLinkedQueue<StandardJavaFileManager>();
+
+		/** name of the class compiled by warmUp() */
+		private static final String WARM_UP_CLASS = "WarmUp";
+
+		/**
+		 * Compiles a trivial algorithm in a background thread of low
+		 * priority, so that the compiler classes are loaded and a file
+		 * manager is ready by the time the user first compiles an
+		 * algorithm; the first compilation in a Java VM otherwise takes
+		 * several times as long as the ones after it.
+		 */
+		public static void warmUp()
+			{
+				Thread thread = new Thread(new Runnable()
+					{
+						public void run()
+							{
+								try
+									{
+										String sourceCode = CodeIntegrator.toJavaClass(WARM_UP_CLASS, "algorithm { }");
+										compile(CodeIntegrator.PACKAGE + "." + WARM_UP_CLASS, sourceCode, new HashMap<String, byte[]>());
+									}
+								catch(MalformedMacroException | GalantException e)
+									{
+										// the first real compilation will report the problem
+										LogHelper.logDebug("compiler warm-up failed: " + e);
+									}
+							}
+					});
+				thread.setName("Compiler warm-up");
+				thread.setDaemon(true);
+				thread.setPriority(Thread.MIN_PRIORITY);
+				thread.start();
+			}
+
+		/**
+		 * @return the system Java compiler.
+		 * @throws GalantException if there is none, i.e., Galant runs on a
+		 *         JRE rather than a JDK.
+		 */
+		private static synchronized JavaCompiler getCompiler() throws GalantException
+			{
+				if(compiler == null)
+					{
+						compiler = ToolProvider.getSystemJavaCompiler();
+						if ( compiler == null ) {
+							// problem might be that JAVA_HOME points to a jre instead of a jdk
+							String jdkHome = System.getProperty("java.home").replace("jre", "jdk");
+							System.setProperty("java.home", jdkHome);
+							compiler = ToolProvider.getSystemJavaCompiler();
+							if ( compiler == null )
+								throw new GalantException("No compiler found, need a JDK, java.home = " + System.getProperty("java.home"));
+						}
+					}
+				return compiler;
+			}
+
 		/**
 		 * Does the required object initialization and compilation.
 		 * @param qualifiedName The qualified name of the class to compile.
 		 * @param sourceCode The source code to compile.
+		 * @param classFiles receives the bytes of each class file, keyed by
+		 *        the binary name of the class; there may be several, e.g.,
+		 *        for classes declared in the algorithm.
 		 * @return if there were compilation errors: a <code>DiagnosticCollector</code> containing <code>Diagnostic</code>s
 		 *         detailing the errors; otherwise, <code>null</code>.
 		 */
-		public static DiagnosticCollector<JavaFileObject> compile(String qualifiedName, String sourceCode) throws GalantException
+		public static DiagnosticCollector<JavaFileObject> compile(String qualifiedName, String sourceCode, Map<String, byte[]> classFiles) throws GalantException
 			{
-				// Create output directory
-				File outputDir = GalantPreferences.OUTPUT_DIRECTORY.get();
-
-				if(!outputDir.exists())
-					outputDir.mkdirs();
-
 				/* Creating dynamic java source code file object */
 				SimpleJavaFileObject fileObject = new DynamicJavaSourceCodeObject(qualifiedName, sourceCode);
 				JavaFileObject javaFileObjects[] = new JavaFileObject[]{fileObject};
 
-				/* Instantiating the java compiler */
-				JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
-                if ( compiler == null ) {
-					// problem might be that JAVA_HOME points to a jre instead of a jdk
-					String jdkHome = System.getProperty("java.home").replace("jre", "jdk");
-					System.setProperty("java.home", jdkHome);
-					compiler = ToolProvider.getSystemJavaCompiler();
-					if ( compiler == null )
-						throw new GalantException("No compiler found, need a JDK, java.home = " + System.getProperty("java.home"));
-                }
+				JavaCompiler compiler = getCompiler();
+
 				/**
-				 * Retrieving the standard file manager from compiler object,
-				 * which is used to provide basic building block for
-				 * customizing how a compiler reads and writes to files. The
-				 * same file manager can be reopened for another compiler
-				 * task. Thus we reduce the overhead of scanning through file
-				 * system and jar files each time
+				 * Taking a standard file manager that no other compilation
+				 * is using, or creating one, which is used to provide basic
+				 * building block for customizing how a compiler reads and
+				 * writes to files; it still reads the Galant classes from
+				 * the class path, but the class files that are written end
+				 * up in classFiles.
 				 */
-				StandardJavaFileManager stdFileManager
-                    = compiler.getStandardFileManager(null, Locale.getDefault(), null);
+				StandardJavaFileManager stdFileManager = idleFileManagers.poll();
+				if(stdFileManager == null)
+					stdFileManager = compiler.getStandardFileManager(null, Locale.getDefault(), null);
+				JavaFileManager fileManager = new InMemoryClassFileManager(stdFileManager, classFiles);
 
 				/*
 				 * Prepare a list of compilation units (java source code file objects) to input to
@@ -71,12 +146,6 @@ public class CompilerAndLoader
 				 */
 				Iterable<? extends JavaFileObject> compilationUnits = Arrays.asList(javaFileObjects);
 
-				/* Prepare any compilation options to be used during compilation */
-				// In this example, we are asking the compiler to place the output files under bin
-				// folder.
-				String[] compileOptions = new String[]{"-d", outputDir.getPath()};
-				Iterable<String> compilationOptionss = Arrays.asList(compileOptions);
-
 				/* Create a diagnostic controller, which holds the compilation problems */
 				DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
 
@@ -85,59 +154,59 @@ public class CompilerAndLoader
 				 * prepared above
 				 */
 				CompilationTask compilerTask =
-					compiler.getTask(null, stdFileManager, diagnostics, compilationOptionss, null, compilationUnits);
+					compiler.getTask(null, fileManager, diagnostics, null, null, compilationUnits);
 
 				// Perform the compilation by calling the call method on compilerTask object.
-				boolean status = compilerTask.call();
-				
-				// Want to delete class files on exit.
-
-				// The class file was deleted after each compilation.
-				// removeClassFiles(outputDir);
-
+				boolean status;
+				try
+					{
+						status = compilerTask.call();
+					}
+				finally
+					{
+						// Keep the file manager for the next compilation
+						idleFileManagers.offer(stdFileManager);
+					}
 				if(!status)
 					{// If compilation error occurs
 						return diagnostics;
 					}
+				return null;
+			}
+
+		/**
+		 * Loads the class with the given name as an <code>Algorithm</code>
+		 * class from the given class files, using a class loader of its own.
+		 * @param classFiles the bytes of the class files, keyed by binary
+		 *        class name, as filled in by compile().
+		 * @throws GalantException if the class cannot be loaded.
+		 */
+		public static Class<? extends Algorithm> loadAlgorithmClass(String qualifiedName, Map<String, byte[]> classFiles) throws GalantException
+			{
 				try
 					{
-						stdFileManager.close();// Close the file manager
+						ClassLoader cl = new ByteArrayClassLoader(classFiles);
+						return cl.loadClass(qualifiedName).asSubclass(Algorithm.class);
 					}
-				catch(IOException e)
+				catch(ClassNotFoundException | LinkageError | ClassCastException e)
 					{
-						ExceptionDialog.displayExceptionInDialog(e);
+						throw new GalantException("Unable to load " + qualifiedName + ": " + e);
 					}
-				return null;
 			}
 
 		/**
-		 * Loads the class with the given name as an <code>Algorithm</code>,
-		 * and returns an instance of it. The algorithm's <code>.class</code>
-		 * file is stored in a directory specified by preferences.
-		 * @param qualifiedName the qualified name of the class to load.
-		 * @return an <code>Algorithm</code> object representing the desired
-		 * algorithm.
+		 * @return a new instance of a loaded algorithm class.
+		 * @throws GalantException if the class cannot be instantiated.
 		 */
-		public static Algorithm loadAlgorithm(String qualifiedName) {
-            try {
-                ClassLoader cl
-                    = new URLClassLoader(new URL[]{GalantPreferences.OUTPUT_DIRECTORY.get().toURI().toURL()});
-                return cl.loadClass(qualifiedName).asSubclass(Algorithm.class).newInstance();
-            }
-            catch(Exception e) {
-                ExceptionDialog.displayExceptionInDialog(e);
-            }
-            return null;
-        }
-
-		private static void removeClassFiles(File directory)
+		public static Algorithm instantiate(Class<? extends Algorithm> algorithmClass) throws GalantException
 			{
-				for(File file : directory.listFiles())
+				try
+					{
+						return algorithmClass.getDeclaredConstructor().newInstance();
+					}
+				catch(ReflectiveOperationException e)
 					{
-						if(file.isDirectory())
-							removeClassFiles(file);
-						if(file.isFile() && file.getName().endsWith(".class"))
-							file.deleteOnExit();
+						throw new GalantException("Unable to instantiate " + algorithmClass.getName() + ": " + e);
 					}
 			}
 	}
@@ -190,4 +259,69 @@ class DynamicJavaSourceCodeObject extends SimpleJavaFileObject
 			}
 	}
 
-//  [Last modified: 2016 12 29 at 20:27:53 GMT]
+/**
+ * A file manager that hands the compiler an in-memory file object for each
+ * class file it writes; when the compiler closes the file, its bytes are
+ * put into the map given to the constructor. All other requests go to the
+ * standard file manager.
+ */
+class InMemoryClassFileManager extends ForwardingJavaFileManager<StandardJavaFileManager>
+	{
+		private final Map<String, byte[]> classFiles;
+
+		InMemoryClassFileManager(StandardJavaFileManager fileManager, Map<String, byte[]> classFiles)
+			{
+				super(fileManager);
+				this.classFiles = classFiles;
+			}
+
+		@Override
+		public JavaFileObject getJavaFileForOutput(Location location, final String className, Kind kind, FileObject sibling) throws IOException
+			{
+				if(kind != Kind.CLASS)
+					return super.getJavaFileForOutput(location, className, kind, sibling);
+				return new SimpleJavaFileObject(URI.create("bytes:///" + className.replace('.', '/') + kind.extension), kind)
+					{
+						@Override
+						public OutputStream openOutputStream()
+							{
+								return new ByteArrayOutputStream()
+									{
+										@Override
+										public void close() throws IOException
+											{
+												super.close();
+												classFiles.put(className, toByteArray());
+											}
+									};
+							}
+					};
+			}
+	}
+
+/**
+ * Defines classes from the bytes of their class files, as produced by
+ * InMemoryClassFileManager; everything else, in particular the Galant
+ * classes, comes from the loader of the Algorithm class.
+ */
+class ByteArrayClassLoader extends ClassLoader
+	{
+		private final Map<String, byte[]> classFiles;
+
+		ByteArrayClassLoader(Map<String, byte[]> classFiles)
+			{
+				super(Algorithm.class.getClassLoader());
+				this.classFiles = new HashMap<String, byte[]>(classFiles);
+			}
+
+		@Override
+		protected Class<?> findClass(String name) throws ClassNotFoundException
+			{
+				byte[] bytes = classFiles.get(name);
+				if(bytes == null)
+					throw new ClassNotFoundException(name);
+				return defineClass(name, bytes, 0, bytes.length);
+			}
+	}
+
+//  [Last modified: 2026 10 17 at 17:58:37 GMT]
@@ -1,10 +1,9 @@
 package edu.ncsu.csc.Galant.algorithm.code.macro;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.regex.MatchResult;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
@@ -20,16 +19,18 @@ import java.util.regex.Pattern;
  * </p>
  * <p>
  * Each macro has a <code>Pattern</code> that is used to find relevant
- * sections of the user's code.
- * {@link Matcher#appendReplacement(StringBuffer, String)} and
- * {@link Matcher#appendTail(StringBuffer)} are used to construct a
- * modified version of the code with a <code>StringBuffer</code>.
+ * sections of the user's code. The patterns are compiled once, when the
+ * macro is created, and all macros are expanded together in a single pass
+ * over the code (see {@link MacroExpander}); each one is tried only at the
+ * start of an identifier, where the pattern is matched in place.
  * </p>
  * <p>
- * There are two subclasses:
+ * There are two subclasses, which implement
+ * {@link #expandAt(MacroExpander, String, int, StringBuilder)}:
  * <ol>
  * <li>
- * SimpleReplacementMacro - used for simple text replacement.
+ * SimpleReplacementMacro - used for simple text replacement; the match of
+ * the pattern is replaced in place.
  * </li>
  * <li>
  * ParameterizedMacro - used for anything that looks like a function with
@@ -63,9 +64,14 @@ public abstract class Macro {
 
     private Pattern pattern;
 
+    /** literal text at the start of every match of the pattern */
+    private String prefix;
+
     /** Creates a macro that looks for the given pattern. */
     public Macro(Pattern pattern) {
         this.pattern = pattern;
+        this.prefix = (pattern.flags() & Pattern.CASE_INSENSITIVE) != 0
+            ? "" : literalPrefix(pattern.pattern());
     }
     /** Creates a macro that looks for the pattern represented by the
      * given regex. */
@@ -73,11 +79,50 @@ public abstract class Macro {
         this(Pattern.compile(regex));
     }
 
-    /** @return the pattern of this macro. Will be used for modify() */
+    /** @return the pattern of this macro. Will be used for expandAt() */
     public Pattern getPattern() {
         return pattern;
     }
 
+    /**
+     * @return literal text with which every match of the pattern starts,
+     * possibly empty; used to skip macros that cannot match at a given
+     * point without running the matcher
+     */
+    public String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * @return the letters, digits and underscores at the start of the
+     * regex, skipping opening parentheses of capturing groups, if every
+     * match of the regex has to start with them; to be safe, an empty
+     * string if the regex has an alternative or the prefix is followed by a
+     * quantifier that applies to a group
+     */
+    static String literalPrefix(String regex) {
+        if ( regex.indexOf('|') >= 0 ) return "";
+        int length = regex.length();
+        int start = 0;
+        while ( start < length - 1 && regex.charAt(start) == '('
+                && regex.charAt(start + 1) != '?' )
+            start++;
+        int end = start;
+        while ( end < length
+                && (Character.isLetterOrDigit(regex.charAt(end))
+                    || regex.charAt(end) == '_') )
+            end++;
+        int next = end;
+        while ( next < length && regex.charAt(next) == ')' )
+            next++;
+        if ( next < length && "?*+{".indexOf(regex.charAt(next)) >= 0 ) {
+            // the quantifier applies to the last character or a group
+            if ( next > end ) return "";
+            end = Math.max(start, end - 1);
+        }
+        return regex.substring(start, end);
+    }
+
     /** @return the name of the macro. Mainly used for macro syntax
      * highlighting. */
     public abstract String getName();
@@ -93,63 +138,40 @@ public abstract class Macro {
 
     /**
      * <p>
-     * Subclasses should implement this method and return a modified version
-     * of the current match. The returned string will
-     * be used as a replacement string for
-     * {@link Matcher#appendReplacement(StringBuffer, String)}, with the syntax
-     * described in the javadoc for that method. So backslashes and dollar
-     * signs may need to be escaped.
-     * </p>
-     * <p>
-     * If the match is not actually correct, <code>null</code> can be
-     * returned. (This can be used with the default <code>applyTo</code>
-     * without creating an infinite loop.)
+     * Expands an occurrence of this macro at the given index, if there is
+     * one, by appending the replacement of the occurrence to
+     * <code>expanded</code>.
      * </p>
      * <p>
      * Note: Macros may add new macros to the end of
      * {@linkplain #MACROS the macro list} (e.g., by creating new macros),
      * but other modifications to the list may not be supported.
      * </p>
-     * @param code the user code on which this macro is being applied.
-     * @param match a match of this macro's pattern.
-     * @return the replacement of the matched region, or <code>null</code> if
-     * the match is not actually valid.
-     * @throws MalformedMacroException if the match is not a valid invocation
-     * of this macro, but it should have been.
+     * @param expander the expander that found the index, for expanding
+     *        macros nested in this one.
+     * @param code the code being expanded.
+     * @param start the index of an identifier in the code.
+     * @param expanded receives the expansion, if there is one.
+     * @return the index in the code just past the occurrence, or -1 if
+     * there is none; in that case nothing is appended.
+     * @throws MalformedMacroException if the occurrence is not a valid
+     * invocation of this macro, but it should have been.
      */
-    protected abstract String modify(String code, MatchResult match)
+    protected abstract int expandAt(MacroExpander expander,
+                                    String code,
+                                    int start,
+                                    StringBuilder expanded)
         throws MalformedMacroException;
 
     /**
-     * Applies this macro to the given code. For each match found, replaces
-     * the match with the result of {@link #modify(String, MatchResult)} (if
-     * it's not <code>null</code>), then searches for the next match starting
-     * at the index immediately after the first character of the current
-     * match in the modified code. So if the result of <code>modify</code>
-     * produces a match, that match will be included.
+     * Applies this macro, and no other, to the given code.
      * @param code the code to apply this macro to.
      * @return the version of the code after this macro has been applied.
+     * @see MacroExpander
      */
     public String applyTo(String code) throws MalformedMacroException {
-        Matcher matcher;
-        int start = 0;
-        matcher = getPattern().matcher(code).region(start, code.length());
-        while ( matcher.find() ) {
-            StringBuffer newCode = new StringBuffer();
-            String modified = modify(code, matcher);
-            if ( modified != null ) {
-                matcher.appendReplacement(newCode, modified);
-            }
-            matcher.appendTail(newCode);
-            code = newCode.toString();
-            if ( matcher.start() < code.length() - 1 ) {
-                start = matcher.start() + 1;
-                matcher = getPattern().matcher(code)
-                    .region(start, code.length());
-            }
-        }
-        return code;
+        return new MacroExpander(Collections.singletonList(this)).expand(code);
     }
 }
 
-//  [Last modified: 2021 01 30 at 22:35:18 GMT]
+//  [Last modified: 2026 10 17 at 20:32:10 GMT]
@@ -0,0 +1,97 @@
+package edu.ncsu.csc.Galant.algorithm.code.macro;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Expands the macros in algorithm code in a single pass from left to right.
+ * The code is read as a sequence of tokens: identifiers, numbers, string
+ * and character literals, and single other characters. A macro can only
+ * begin at an identifier that is not preceded by a '.', i.e., that does not
+ * name a member of some object. At such an identifier, the macros are tried
+ * in the order of the list, but only those whose pattern starts with a
+ * literal that the code at that point starts with (see
+ * {@link Macro#getPrefix()}); the first macro that matches replaces its
+ * occurrence (see {@link Macro#expandAt}) and the scan resumes after it.
+ * </p>
+ * <p>
+ * Macros in the arguments and the code block of a
+ * {@link ParameterizedMacro} are expanded before the macro itself; the text
+ * that a macro produces is not scanned again.
+ * </p>
+ * <p>
+ * The patterns of the macros are compiled when the macros are created, so
+ * an expander holds no state of its own; it sees macros that are added to
+ * the list later on.
+ * </p>
+ */
+public class MacroExpander {
+    private final List<Macro> macros;
+
+    /** Creates an expander for the macros in the given list. */
+    public MacroExpander(List<Macro> macros) {
+        this.macros = macros;
+    }
+
+    /**
+     * @return the code with all occurrences of the macros expanded
+     * @throws MalformedMacroException if an occurrence of a macro is not a
+     * valid invocation of it
+     */
+    public String expand(String code) throws MalformedMacroException {
+        // created only when a macro might occur in the code
+        StringBuilder expanded = null;
+        // code before this index is already in expanded
+        int copied = 0;
+        int length = code.length();
+        int start = 0;
+        while ( start < length ) {
+            char c = code.charAt(start);
+            if ( c == '"' || c == '\'' ) {
+                start = MacroUtil.endOfLiteral(code, start) + 1;
+                continue;
+            }
+            if ( ! Character.isJavaIdentifierPart(c) ) {
+                start++;
+                continue;
+            }
+            // an identifier, or a number if it does not start like one
+            int end = start + 1;
+            while ( end < length
+                    && Character.isJavaIdentifierPart(code.charAt(end)) )
+                end++;
+            if ( Character.isJavaIdentifierStart(c)
+                 && ! isMemberName(code, start) ) {
+                for ( Macro macro : macros ) {
+                    if ( ! code.startsWith(macro.getPrefix(), start) )
+                        continue;
+                    if ( expanded == null )
+                        expanded = new StringBuilder(length + length / 4);
+                    expanded.append(code, copied, start);
+                    copied = start;
+                    int macroEnd = macro.expandAt(this, code, start, expanded);
+                    if ( macroEnd >= 0 ) {
+                        end = copied = macroEnd;
+                        break;
+                    }
+                }
+            }
+            start = end;
+        }
+        if ( expanded == null ) return code;
+        return expanded.append(code, copied, length).toString();
+    }
+
+    /**
+     * @return true if the identifier at the given index is preceded by a
+     * '.', possibly with whitespace in between
+     */
+    private static boolean isMemberName(String code, int start) {
+        int before = start - 1;
+        while ( before >= 0 && Character.isWhitespace(code.charAt(before)) )
+            before--;
+        return before >= 0 && code.charAt(before) == '.';
+    }
+}
+
+//  [Last modified: 2026 10 17 at 18:03:35 GMT]
@@ -144,15 +144,17 @@ public class MacroUtil {
         }
         replacement--;
 
+        List<Pattern> innerBlocks = new ArrayList<Pattern>(escapedDelimiters.size());
+        for ( Pair<String, String> escapedDelimPair : escapedDelimiters )
+            innerBlocks.add(Pattern.compile(escapedDelimPair.getElement1()
+                                            + noDelimitersRegex
+                                            + escapedDelimPair.getElement2()));
+
         StringBuilder topLevel = new StringBuilder(match);
         boolean foundNested;
         do {
             foundNested = false;
-            for ( Pair<String, String> escapedDelimPair : escapedDelimiters ) {
-                Pattern innerBlock =
-                    Pattern.compile(escapedDelimPair.getElement1()
-                                    + noDelimitersRegex
-                                    + escapedDelimPair.getElement2());
+            for ( Pattern innerBlock : innerBlocks ) {
                 // remove nested delimiters and anything from toFind inside them
                 Matcher matcher;
                 while ( (matcher = innerBlock.matcher(topLevel)).find() ) {
@@ -220,6 +222,142 @@ public class MacroUtil {
         return evaluateNestedRegexMatch(DEFAULT_BLOCK_DELIMITERS,
                                         openDelim, closeDelim, match, toFind);
     }
+
+    /**
+     * Finds the delimiter that closes the block opened at the given index,
+     * in a single pass over the code; blocks nested in it, enclosed in any
+     * of the {@link #DEFAULT_BLOCK_DELIMITERS}, and string and character
+     * literals are skipped.
+     * @param code the code containing the block.
+     * @param open the index of an opening delimiter.
+     * @param commas if not <code>null</code>, receives the indices of the
+     *        commas at the top level of the block, in order.
+     * @return the index of the closing delimiter.
+     * @throws MalformedMacroException if the block is not closed, or closed
+     * by a delimiter of the wrong kind.
+     */
+    public static int findClosingDelimiter(String code, int open,
+                                           List<Integer> commas)
+        throws MalformedMacroException
+    {
+        // closing delimiters of the blocks currently open, innermost last
+        StringBuilder expected = new StringBuilder();
+        expected.append(closingDelimiter(code.charAt(open)));
+        for ( int i = open + 1; i < code.length(); i++ ) {
+            char c = code.charAt(i);
+            if ( c == '"' || c == '\'' ) {
+                i = endOfLiteral(code, i);
+                continue;
+            }
+            char closing = closingDelimiter(c);
+            if ( closing != 0 ) {
+                expected.append(closing);
+            }
+            else if ( isClosingDelimiter(c) ) {
+                char innermost = expected.charAt(expected.length() - 1);
+                if ( c != innermost )
+                    throw missingDelimiter(innermost, code, open);
+                expected.setLength(expected.length() - 1);
+                if ( expected.length() == 0 ) return i;
+            }
+            else if ( c == ',' && commas != null && expected.length() == 1 ) {
+                commas.add(i);
+            }
+        }
+        throw missingDelimiter(expected.charAt(expected.length() - 1),
+                               code, open);
+    }
+
+    private static MalformedMacroException
+        missingDelimiter(char delimiter, String code, int open) {
+        return new MalformedMacroException("Missing " + delimiter + " in "
+                                           + code.substring(open + 1,
+                                                            Math.min(code.length(),
+                                                                     open + 1 + CONTEXT_LENGTH))
+                                           + " ...");
+    }
+
+    /**
+     * @return the closing delimiter that goes with the given opening one,
+     * 0 if the character is not an opening delimiter
+     */
+    private static char closingDelimiter(char ch) {
+        for ( Pair<Character, Character> delimiterPair : DEFAULT_BLOCK_DELIMITERS )
+            if ( delimiterPair.getElement1() == ch )
+                return delimiterPair.getElement2();
+        return 0;
+    }
+
+    private static boolean isClosingDelimiter(char ch) {
+        for ( Pair<Character, Character> delimiterPair : DEFAULT_BLOCK_DELIMITERS )
+            if ( delimiterPair.getElement2() == ch )
+                return true;
+        return false;
+    }
+
+    /**
+     * @return the index of the quote that ends the string or character
+     * literal (or text block) starting at the given index; the end of the
+     * line, or of the code, if the literal is not closed
+     */
+    static int endOfLiteral(String code, int start) {
+        if ( code.startsWith("\"\"\"", start) ) {
+            int end = code.indexOf("\"\"\"", start + 3);
+            return end < 0 ? code.length() - 1 : end + 2;
+        }
+        char quote = code.charAt(start);
+        int i = start + 1;
+        while ( i < code.length() ) {
+            char c = code.charAt(i);
+            if ( c == '\\' ) i++;
+            else if ( c == quote || c == '\n' ) return i;
+            i++;
+        }
+        return code.length() - 1;
+    }
+
+    /**
+     * Appends a replacement string to the given builder as
+     * {@link Matcher#appendReplacement(StringBuffer, String)} does: a
+     * backslash escapes the next character and $<i>g</i> stands for the
+     * text of group <i>g</i> of the match (see also
+     * {@link #replaceNames(String, String...)}).
+     * @throws IllegalArgumentException if the replacement string is
+     * malformed.
+     */
+    public static void appendReplacement(StringBuilder builder,
+                                         String replacement,
+                                         MatchResult match) {
+        int length = replacement.length();
+        for ( int i = 0; i < length; i++ ) {
+            char c = replacement.charAt(i);
+            if ( c == '\\' ) {
+                if ( ++i == length )
+                    throw new IllegalArgumentException("character to be escaped is missing: "
+                                                       + replacement);
+                builder.append(replacement.charAt(i));
+            }
+            else if ( c == '$' ) {
+                if ( i + 1 == length || ! Character.isDigit(replacement.charAt(i + 1)) )
+                    throw new IllegalArgumentException("illegal group reference: "
+                                                       + replacement);
+                int group = replacement.charAt(++i) - '0';
+                // as many further digits as still make a group number
+                while ( i + 1 < length && Character.isDigit(replacement.charAt(i + 1)) ) {
+                    int longer = group * 10 + replacement.charAt(i + 1) - '0';
+                    if ( longer > match.groupCount() ) break;
+                    group = longer;
+                    i++;
+                }
+                String text = match.group(group);
+                if ( text != null ) builder.append(text);
+            }
+            else {
+                builder.append(c);
+            }
+        }
+    }
+
     private static String escapeChar(char ch) {
         return (Character.isLetter(ch) ? "" : "\\") + ch;
     }
@@ -299,4 +437,4 @@ public class MacroUtil {
     }
 }
 
-//  [Last modified: 2016 12 30 at 23:25:57 GMT]
+//  [Last modified: 2026 10 17 at 18:03:35 GMT]
@@ -10,6 +10,9 @@ import java.util.regex.Pattern;
  * The macros used in preprocessing.
  */
 public class Macros {
+    /** separates the type of a function parameter from its name */
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
     /**
      * Defines macros and adds them to an array list: MACROS<br>
      * Current implementation includes:<br>
@@ -262,7 +265,7 @@ public class Macros {
                                 paramToString = stringBuilder.toString();
 
                                 String paramString = paramStrings[index];
-                                Matcher matcher = Pattern.compile("\\s+").matcher(paramString);
+                                Matcher matcher = SPACES.matcher(paramString);
                                 StringBuilder bracketBuilder = new StringBuilder();
                                 int start = 0;
                                 while(matcher.find())
@@ -332,4 +335,4 @@ public class Macros {
     }
 }
 
-//  [Last modified: 2021 01 30 at 22:30:37 GMT]
+//  [Last modified: 2026 10 17 at 18:03:35 GMT]
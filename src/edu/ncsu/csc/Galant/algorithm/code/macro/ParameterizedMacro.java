@@ -2,13 +2,9 @@ package edu.ncsu.csc.Galant.algorithm.code.macro;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.SortedSet;
 import java.util.regex.MatchResult;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import edu.ncsu.csc.Galant.algorithm.code.macro.MacroUtil.IdentifierPartLocation;
-import edu.ncsu.csc.Galant.algorithm.code.macro.MacroUtil.NestedRegexResult;
-import edu.ncsu.csc.Galant.logging.LogHelper;
 
 /**
  * <p>
@@ -20,15 +16,20 @@ import edu.ncsu.csc.Galant.logging.LogHelper;
  * "a_macro(&hellip;)" won't be counted as a match.
  * </p>
  * <p>
- * Subclasses of this class should override {@link #modifyMatch(String, MatchResult, String[], String, String)} rather than
- * {@link #modify(String, MatchResult)}, since this class needs to include some functionality in the latter.
+ * The pattern of the macro only matches the name and the opening
+ * parenthesis; the parameters, and the code block if there is one, are
+ * found by scanning for the matching delimiters (see
+ * {@link MacroUtil#findClosingDelimiter(String, int, List)}).
+ * </p>
+ * <p>
+ * Subclasses of this class implement {@link #modifyMatch(String, MatchResult, String[], String, String)}.
  * </p>
  */
 public abstract class ParameterizedMacro extends Macro {
     private static final int NAME_GROUP = 1;
-    /** Note that this comes after any groups in the name, so this should be
-     * added to the count of such groups. */
-    private static final int MATCH_GROUP = 2;
+
+    /** characters matched by \s in a regex */
+    private static final String WHITESPACE_CHARACTERS = " \t\n\u000B\f\r";
 
     private Pattern namePattern;
     private String name = null;
@@ -54,7 +55,7 @@ public abstract class ParameterizedMacro extends Macro {
                               int minParams,
                               int maxParams,
                               boolean includeCodeBlock) {
-        super(MacroUtil.nestedRegex(MacroUtil.replaceWhitespace("(" + name + ") \\("), (includeCodeBlock ? "\\}" : "\\)")));
+        super(MacroUtil.replaceWhitespace("(" + name + ") \\("));
         this.name = name;
         this.namePattern = Pattern.compile(name);
         this.minParams = minParams;
@@ -92,97 +93,83 @@ public abstract class ParameterizedMacro extends Macro {
     }
 
     @Override
-    protected final String modify(String code,
-                                  MatchResult match)
+    protected int expandAt(MacroExpander expander,
+                           String code,
+                           int start,
+                           StringBuilder expanded)
         throws MalformedMacroException
     {
-        LogHelper.disable();
-        LogHelper.enterMethod(getClass(), "modify, code = " + code);
-        if ( MacroUtil.isPartOfIdentifier(IdentifierPartLocation.BEFORE,
-                                          code, match) )
-            return null;
-        name = match.group(NAME_GROUP);
-        Matcher nameMatcher = namePattern.matcher(name);
-        nameMatcher.matches();
-        MatchResult nameMatch = nameMatcher.toMatchResult();
-        NestedRegexResult params =
-            MacroUtil
-            .evaluateNestedRegexMatch("(", ")",
-                                      match.group(nameMatch.groupCount()
-                                                  + MATCH_GROUP), ",");
-        NestedRegexResult block = null;
-        String whitespace = null;
-        if ( includeCodeBlock ) {
-            String afterParams = params.getExtra();
-            if ( afterParams.endsWith(")") )
-                afterParams
-                    = afterParams
-                    .substring(0, afterParams.length() - 1);
-            Matcher betweenParamsAndBlock =
-                Pattern.compile("(\\s*)\\{").matcher(afterParams);
-            if ( ! betweenParamsAndBlock.lookingAt() )
-                throw new MalformedMacroException(toString()
-                                                  + ": curly braces required.");
-            block =
-                MacroUtil
-                .evaluateNestedRegexMatch("{", "}",
-                                          afterParams
-                                          .substring(betweenParamsAndBlock.end()));
-            whitespace = betweenParamsAndBlock.group(1);
-        }
-
-        SortedSet<Integer> commaIndices
-            = params.getFoundIndices().get(",");
-
-        int numParams = commaIndices.size() + 1;
-        if ( numParams == 1 && params.getMatch().trim().equals("") )
+        Matcher match = getPattern().matcher(code);
+        match.region(start, code.length())
+            .useTransparentBounds(true)
+            .useAnchoringBounds(false);
+        if ( ! match.lookingAt() ) return -1;
+        String occurrence = match.group(NAME_GROUP);
+        Matcher nameMatch = namePattern.matcher(occurrence);
+        nameMatch.matches();
+
+        // the parameters are delimited by the parenthesis at the end of the
+        // match, the commas at the top level and the matching parenthesis
+        List<Integer> paramBounds = new ArrayList<Integer>();
+        paramBounds.add(match.end() - 1);
+        int close = MacroUtil.findClosingDelimiter(code, match.end() - 1,
+                                                   paramBounds);
+        paramBounds.add(close);
+
+        int numParams = paramBounds.size() - 1;
+        if ( numParams == 1
+             && code.substring(match.end(), close).trim().equals("") )
             numParams = 0;
 
         if ( maxParams >= 0 && minParams <= maxParams ) {
             // check number of parameters
             if ( numParams < minParams || numParams > maxParams )
                 throw new MalformedMacroException("Illegal number of parameters for macro "
-                                                  + toString()
+                                                  + occurrence
                                                   + ". Expected: "
                                                   + minParams
                                                   + (maxParams == minParams ? "" : " to " + maxParams)
                                                   + "; actual: " + numParams);
         }
 
-        List<Integer> paramBounds = new ArrayList<Integer>();
-        paramBounds.add(-1);
-        paramBounds.addAll(commaIndices);
-        paramBounds.add(params.getMatch().length());
-
-        // build arg array
+        // build arg array, expanding any macros in the arguments
         String[] args = new String[numParams];
         for ( int i = 0; i < numParams; i++ )
-            args[i] = params.getMatch()
-                .substring(paramBounds.get(i)
-                           + 1,
-                           paramBounds.get(i + 1)).trim();
-
-        String modifiedCode = "";
-        if ( block == null ) {
-            modifiedCode = modifyMatch(code, nameMatch, args, null, null)
-                + Matcher.quoteReplacement(params.getExtra());
-        }
-        else {
-            modifiedCode =
-                modifyMatch(code, nameMatch, args, whitespace,
-                            block.getMatch())
-                + Matcher.quoteReplacement(block.getExtra());
+            args[i] = expander.expand(code.substring(paramBounds.get(i) + 1,
+                                                     paramBounds.get(i + 1)))
+                .trim();
+
+        int end = close + 1;
+        String whitespace = null;
+        String block = null;
+        if ( includeCodeBlock ) {
+            int open = end;
+            while ( open < code.length()
+                    && WHITESPACE_CHARACTERS.indexOf(code.charAt(open)) >= 0 )
+                open++;
+            if ( open == code.length() || code.charAt(open) != '{' )
+                throw new MalformedMacroException(occurrence
+                                                  + ": curly braces required.");
+            int closeBlock = MacroUtil.findClosingDelimiter(code, open, null);
+            whitespace = code.substring(end, open);
+            block = expander.expand(code.substring(open + 1, closeBlock));
+            end = closeBlock + 1;
         }
-        LogHelper.exitMethod(getClass(), "modify, modifiedCode = "
-                             + modifiedCode);
-        LogHelper.restoreState();
-        return modifiedCode;
+
+        MacroUtil.appendReplacement(expanded,
+                                    modifyMatch(code, nameMatch, args,
+                                                whitespace, block),
+                                    match);
+        return end;
     }
 
     /**
-     * See {@link Macro#modify(String, MatchResult)}. The difference is that
-     * instead of being given a <code>MatchResult</code>, the implementation
-     * is given an array of arguments.
+     * Returns the replacement of an occurrence of this macro, which extends
+     * beyond the match of the pattern to the closing parenthesis or brace;
+     * see {@link SimpleReplacementMacro#modify(String, MatchResult)} for the
+     * syntax. The difference is that instead of being given a
+     * <code>MatchResult</code>, the implementation is given an array of
+     * arguments.
      * @param code the user code on which this macro is being applied.
      * @param nameMatch the result of matching the pattern passed in as the
      *        name to the part of the overall match that matched that
@@ -202,4 +189,4 @@ public abstract class ParameterizedMacro extends Macro {
                                           String block);
 }
 
-//  [Last modified: 2016 12 30 at 22:42:45 GMT]
+//  [Last modified: 2026 10 17 at 20:32:10 GMT]
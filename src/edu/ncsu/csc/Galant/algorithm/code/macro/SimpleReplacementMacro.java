@@ -28,11 +28,53 @@ public abstract class SimpleReplacementMacro extends Macro
 				this.replacement = replacement;
 			}
 
-		@Override
+		/**
+		 * <p>
+		 * Returns the replacement of the current match, here the replacement
+		 * string. The returned string will be used as a replacement string
+		 * for {@link Matcher#appendReplacement(StringBuffer, String)}, with the
+		 * syntax described in the javadoc for that method. So backslashes and
+		 * dollar signs may need to be escaped.
+		 * </p>
+		 * <p>
+		 * If the match is not actually correct, <code>null</code> can be
+		 * returned.
+		 * </p>
+		 * @param code the user code on which this macro is being applied.
+		 * @param match a match of this macro's pattern.
+		 * @return the replacement of the matched region, or <code>null</code>
+		 *         if the match is not actually valid.
+		 * @throws MalformedMacroException if the match is not a valid
+		 *         invocation of this macro, but it should have been.
+		 */
 		protected String modify(String code, MatchResult match)
+			throws MalformedMacroException
 			{
 				return replacement;
 			}
+
+		/**
+		 * If the pattern matches at the given index, the match is replaced by
+		 * the result of {@link #modify(String, MatchResult)} (unless that is
+		 * <code>null</code>).
+		 */
+		@Override
+		protected int expandAt(MacroExpander expander,
+		                       String code,
+		                       int start,
+		                       StringBuilder expanded)
+			throws MalformedMacroException
+			{
+				Matcher matcher = getPattern().matcher(code);
+				matcher.region(start, code.length())
+					.useTransparentBounds(true)
+					.useAnchoringBounds(false);
+				if ( ! matcher.lookingAt() || matcher.end() == start ) return -1;
+				String modified = modify(code, matcher);
+				if ( modified == null ) return -1;
+				MacroUtil.appendReplacement(expanded, modified, matcher);
+				return matcher.end();
+			}
 			
 		@Override
 		public String includeInAlgorithm() {
@@ -40,4 +82,4 @@ public abstract class SimpleReplacementMacro extends Macro
 		}	
 	}
 
-//  [Last modified: 2015 06 30 at 15:21:10 GMT]
+//  [Last modified: 2026 10 17 at 20:32:10 GMT]
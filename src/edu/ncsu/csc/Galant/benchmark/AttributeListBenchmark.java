@@ -0,0 +1,78 @@
+package edu.ncsu.csc.Galant.benchmark;
+
+import edu.ncsu.csc.Galant.graph.component.AttributeList;
+
+/**
+ * Measures lookups and replacements in AttributeList with the mix of keys
+ * used when drawing an element and when comparing elements:
+ *
+ *   java -cp Galant.jar edu.ncsu.csc.Galant.benchmark.AttributeListBenchmark
+ *        [LISTS [ROUNDS]]
+ *
+ * Each of LISTS lists (default 1000) holds the attributes of a typical
+ * node after parsing and a few steps of an algorithm, in the order GraphML
+ * would give them, plus two keys defined by an algorithm. A round reads
+ * each key of every list and replaces the weight; the first half of the
+ * ROUNDS rounds (default 2000) warm up the JIT, and the average time per
+ * list over the second half is printed, along with a checksum that keeps
+ * the lookups from being optimized away.
+ */
+public class AttributeListBenchmark {
+  public static final int DEFAULT_LISTS = 1000;
+  public static final int DEFAULT_ROUNDS = 2000;
+
+  public static void main(String[] args) {
+    int numberOfLists
+      = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_LISTS;
+    int rounds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ROUNDS;
+
+    AttributeList [] lists = new AttributeList[numberOfLists];
+    for ( int i = 0; i < numberOfLists; i++ ) {
+      AttributeList L = new AttributeList();
+      L.set("id", i);
+      L.set("x", i % 800);
+      L.set("y", i / 800);
+      L.set("label", "v" + i);
+      L.set("weight", (double) i);
+      L.set("color", "#0000ff");
+      L.set("highlighted", i % 2 == 0);
+      L.set("marked", i % 3 == 0);
+      L.set("hidden", false);
+      L.set("inTree", i % 5 == 0);
+      L.set("depth", i % 17);
+      lists[i] = L;
+    }
+
+    long checksum = 0;
+    long measured = 0;
+    for ( int round = 0; round < rounds; round++ ) {
+      long start = System.nanoTime();
+      for ( AttributeList L : lists ) {
+        checksum += visit(L);
+      }
+      if ( round >= rounds / 2 ) measured += System.nanoTime() - start;
+    }
+    int measuredRounds = rounds - rounds / 2;
+    System.out.printf("%.1f ns per list (%d lists, %d measured rounds)\n",
+                      (double) measured / measuredRounds / numberOfLists,
+                      numberOfLists, measuredRounds);
+    System.out.println("checksum " + checksum);
+  }
+
+  /**
+   * Reads what the display and a comparator need and records a new weight
+   */
+  private static long visit(AttributeList L) {
+    long sum = L.getInteger("x") + L.getInteger("y");
+    sum += L.getString("label").length() + L.getString("color").length();
+    if ( L.getBoolean("highlighted") ) sum++;
+    if ( L.getBoolean("marked") ) sum++;
+    if ( L.getBoolean("hidden") ) sum++;
+    if ( L.getBoolean("inTree") ) sum++;
+    sum += L.getInteger("depth");
+    double weight = L.getDouble("weight");
+    sum += (long) weight;
+    L.set("weight", weight + 1);
+    return sum;
+  }
+}
@@ -0,0 +1,80 @@
+package edu.ncsu.csc.Galant.benchmark;
+
+import edu.ncsu.csc.Galant.algorithm.AlgorithmSynchronizer;
+import edu.ncsu.csc.Galant.algorithm.Terminate;
+
+/**
+ * Measures the latency of handing a step from the executor to the
+ * algorithm thread and back, for steps that do no work:
+ *
+ *   java -cp Galant.jar edu.ncsu.csc.Galant.benchmark.HandoffBenchmark
+ *        [STEPS]
+ *
+ * An algorithm thread alternates startStep() and pauseExecution() on an
+ * AlgorithmSynchronizer, as compiled algorithms do. The main thread takes
+ * STEPS steps (default 20000) the way AlgorithmExecutor does, with
+ * requestStep() and awaitStepFinished(). It then takes POLLED_STEPS steps
+ * the way the executor used to: after requesting a step it sleeps
+ * WAIT_TIME milliseconds, and again until stepFinished(). The average time
+ * per step is printed for both.
+ */
+public class HandoffBenchmark {
+  public static final int DEFAULT_STEPS = 20000;
+  public static final int POLLED_STEPS = 200;
+  /** the sleep quantum of the polling executor */
+  public static final int WAIT_TIME = 10;
+  /** milliseconds after which a step counts as lost */
+  public static final long TIME_LIMIT = 10000;
+
+  public static void main(String[] args) throws InterruptedException {
+    int steps = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_STEPS;
+    final AlgorithmSynchronizer synchronizer = new AlgorithmSynchronizer();
+    Thread algorithm = new Thread(new Runnable() {
+        public void run() {
+          try {
+            while ( true ) {
+              synchronizer.startStep();
+              synchronizer.pauseExecution();
+            }
+          }
+          catch ( Terminate t ) {
+            // stopped by the main thread
+          }
+        }
+      });
+    algorithm.start();
+    // the algorithm's first pause, before any step is taken
+    step(synchronizer);
+
+    long start = System.nanoTime();
+    for ( int i = 0; i < steps; i++ ) {
+      step(synchronizer);
+    }
+    report("blocking handoff", steps, System.nanoTime() - start);
+
+    start = System.nanoTime();
+    for ( int i = 0; i < POLLED_STEPS; i++ ) {
+      synchronizer.requestStep();
+      do {
+        Thread.sleep(WAIT_TIME);
+      } while ( ! synchronizer.stepFinished() );
+    }
+    report("sleep-poll handoff", POLLED_STEPS, System.nanoTime() - start);
+
+    synchronizer.stop();
+    algorithm.join();
+  }
+
+  private static void step(AlgorithmSynchronizer synchronizer)
+    throws InterruptedException {
+    synchronizer.requestStep();
+    if ( ! synchronizer.awaitStepFinished(TIME_LIMIT) )
+      throw new IllegalStateException("step not finished after "
+                                      + TIME_LIMIT + " ms");
+  }
+
+  private static void report(String name, int steps, long nanoseconds) {
+    System.out.printf("%s: %.1f us per step over %d steps\n",
+                      name, nanoseconds / 1e3 / steps, steps);
+  }
+}
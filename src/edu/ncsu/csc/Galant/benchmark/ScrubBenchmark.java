@@ -0,0 +1,108 @@
+package edu.ncsu.csc.Galant.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.ncsu.csc.Galant.GraphDispatch;
+import edu.ncsu.csc.Galant.Timer;
+import edu.ncsu.csc.Galant.algorithm.Terminate;
+import edu.ncsu.csc.Galant.graph.component.Graph;
+import edu.ncsu.csc.Galant.graph.component.Node;
+
+/**
+ * Measures how long it takes to scrub through a long history, i.e., to
+ * look up the attributes of every node at each state as the display does
+ * when stepping back and forth:
+ *
+ *   java -Djava.awt.headless=true -cp Galant.jar
+ *        edu.ncsu.csc.Galant.benchmark.ScrubBenchmark [STEPS [NODES]]
+ *
+ * A graph with NODES nodes (default 100) gets STEPS changes (default
+ * 10000), one per edit state, each changing the color and weight of one
+ * node in turn; the heap in use at that point, mostly the histories of the
+ * nodes, is printed. Every state is then visited forward and backward, and
+ * the average time per visited state is printed.
+ */
+public class ScrubBenchmark {
+  public static final int DEFAULT_STEPS = 10000;
+  public static final int DEFAULT_NODES = 100;
+  public static final int ROUNDS = 5;
+  static final String [] COLORS = { "#ff0000", "#00ff00", "#0000ff" };
+
+  public static void main(String[] args) throws Terminate {
+    int steps = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_STEPS;
+    int numberOfNodes
+      = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_NODES;
+    Timer.parsingTime = new Timer("parsing");
+
+    GraphDispatch dispatch = GraphDispatch.enterRun();
+    Graph graph = new Graph();
+    dispatch.setWorkingGraph(graph, null);
+    List<Node> nodes = new ArrayList<Node>();
+    for ( int i = 0; i < numberOfNodes; i++ ) {
+      nodes.add(graph.addNode(i, i));
+    }
+    long start = System.nanoTime();
+    for ( int step = 0; step < steps; step++ ) {
+      Node node = nodes.get(step % numberOfNodes);
+      dispatch.setAtomic(true);
+      graph.incrementEffectiveEditState();
+      node.setColor(COLORS[step % COLORS.length]);
+      node.setWeight(step);
+      dispatch.setAtomic(false);
+    }
+    System.out.printf("recorded %d steps on %d nodes in %.1f ms\n",
+                      steps, numberOfNodes,
+                      (System.nanoTime() - start) / 1e6);
+    System.out.printf("heap in use with the history: %.1f MB\n",
+                      usedHeap() / 1e6);
+
+    int lastState = graph.getEditState();
+    long checksum = 0;
+    for ( int round = 0; round < ROUNDS; round++ ) {
+      start = System.nanoTime();
+      for ( int state = 1; state <= lastState; state++ ) {
+        checksum += visit(nodes, state);
+      }
+      for ( int state = lastState; state >= 1; state-- ) {
+        checksum += visit(nodes, state);
+      }
+      long elapsed = System.nanoTime() - start;
+      System.out.printf("round %d: %d states, %.2f us per state\n",
+                        round + 1, 2 * lastState,
+                        elapsed / 1e3 / (2 * lastState));
+    }
+    // keeps the lookups from being optimized away
+    System.out.println("checksum " + checksum);
+    GraphDispatch.exitRun();
+  }
+
+  /**
+   * @return the bytes of heap in use after collecting garbage, as far as
+   * System.gc() can be made to do that
+   */
+  static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    long used = Long.MAX_VALUE;
+    for ( int i = 0; i < 5; i++ ) {
+      System.gc();
+      used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+    }
+    return used;
+  }
+
+  /**
+   * Looks up what the display needs for each node in the given state
+   */
+  private static long visit(List<Node> nodes, int state) {
+    long sum = 0;
+    for ( Node node : nodes ) {
+      if ( node.getLatestValidState(state) == null ) continue;
+      String color = node.getColor(state);
+      Double weight = node.getWeight(state);
+      if ( color != null ) sum += color.length();
+      if ( weight != null ) sum += weight.longValue();
+    }
+    return sum;
+  }
+}
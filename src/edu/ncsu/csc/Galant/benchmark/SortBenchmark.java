@@ -0,0 +1,97 @@
+package edu.ncsu.csc.Galant.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import edu.ncsu.csc.Galant.GraphDispatch;
+import edu.ncsu.csc.Galant.Timer;
+import edu.ncsu.csc.Galant.algorithm.Terminate;
+import edu.ncsu.csc.Galant.graph.component.Edge;
+import edu.ncsu.csc.Galant.graph.component.Graph;
+import edu.ncsu.csc.Galant.graph.component.GraphElement;
+import edu.ncsu.csc.Galant.graph.component.Node;
+
+/**
+ * Measures sorting edges by a double attribute other than weight:
+ *
+ *   java -Djava.awt.headless=true -cp Galant.jar
+ *        edu.ncsu.csc.Galant.benchmark.SortBenchmark [EDGES]
+ *
+ * A random graph with EDGES edges (default 1000000) on EDGES / 4 nodes gets
+ * a random "cost" on each edge. The edges are then sorted with the
+ * comparator returned by GraphElement.getDoubleComparator(), and with one
+ * that looks up the attribute by name and boxes its value at each
+ * comparison, as the comparators did before they resolved the key once.
+ * Each sort starts from the same shuffled list; the best of ROUNDS times
+ * is printed for each.
+ */
+public class SortBenchmark {
+  public static final int DEFAULT_EDGES = 1000000;
+  public static final int ROUNDS = 5;
+  public static final String KEY = "cost";
+
+  public static void main(String[] args) throws Terminate {
+    int numberOfEdges
+      = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_EDGES;
+    int numberOfNodes = Math.max(numberOfEdges / 4, 2);
+    Timer.parsingTime = new Timer("parsing");
+
+    GraphDispatch dispatch = GraphDispatch.enterRun();
+    Graph graph = new Graph();
+    dispatch.setWorkingGraph(graph, null);
+    // all of the graph is built in a single edit state
+    dispatch.setAtomic(true);
+    Random random = new Random(1);
+    List<Node> nodes = new ArrayList<Node>();
+    for ( int i = 0; i < numberOfNodes; i++ ) {
+      nodes.add(graph.addNode(i, i));
+    }
+    List<Edge> edges = new ArrayList<Edge>();
+    for ( int i = 0; i < numberOfEdges; i++ ) {
+      Edge edge = graph.addEdge(nodes.get(random.nextInt(numberOfNodes)),
+                                nodes.get(random.nextInt(numberOfNodes)));
+      edge.set(KEY, random.nextDouble());
+      edges.add(edge);
+    }
+    dispatch.setAtomic(false);
+    Collections.shuffle(edges, random);
+
+    Comparator<GraphElement> byName = new Comparator<GraphElement>() {
+        public int compare(GraphElement ge_1, GraphElement ge_2) {
+          Double value_1 = ge_1.getDouble(KEY);
+          Double value_2 = ge_2.getDouble(KEY);
+          return value_1.compareTo(value_2);
+        }
+      };
+    Comparator<GraphElement> resolved = GraphElement.getDoubleComparator(KEY);
+
+    List<Edge> first = time("key looked up at each comparison",
+                            edges, byName);
+    List<Edge> second = time("key resolved once (getDoubleComparator)",
+                             edges, resolved);
+    System.out.println("same order: " + first.equals(second));
+    GraphDispatch.exitRun();
+  }
+
+  /**
+   * Sorts copies of the edges ROUNDS times and prints the best time
+   * @return the sorted list of the last round
+   */
+  private static List<Edge> time(String name, List<Edge> edges,
+                                 Comparator<GraphElement> comparator) {
+    long best = Long.MAX_VALUE;
+    List<Edge> sorted = null;
+    for ( int round = 0; round < ROUNDS; round++ ) {
+      sorted = new ArrayList<Edge>(edges);
+      long start = System.nanoTime();
+      Collections.sort(sorted, comparator);
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    System.out.printf("%s: %.0f ms for %d edges\n", name, best / 1e6,
+                      edges.size());
+    return sorted;
+  }
+}
@@ -0,0 +1,256 @@
+package edu.ncsu.csc.Galant.graph.component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import edu.ncsu.csc.Galant.graph.datastructure.EdgeList;
+import edu.ncsu.csc.Galant.graph.datastructure.NodeList;
+
+/**
+ * An immutable snapshot of the adjacency structure of a graph in
+ * compressed sparse row (CSR) form. The nodes in scope are numbered 0, ...,
+ * n-1 (their index, not to be confused with their id); the outgoing edges
+ * of the node with index i occupy positions outStart(i) through
+ * outEnd(i) - 1 of one array, and the index of the node at the other end of
+ * each edge is kept in a parallel int array. Incoming and incident edges are
+ * stored the same way. For an undirected graph all three coincide and
+ * share the same arrays.
+ *
+ * An algorithm can therefore traverse the graph without creating lists:
+ * <pre>
+ *   Adjacency adjacency = graph.adjacency();
+ *   int i = adjacency.indexOf(v);
+ *   for ( int p = adjacency.outStart(i); p < adjacency.outEnd(i); p++ ) {
+ *     int j = adjacency.outNeighbor(p);
+ *     ...
+ *   }
+ * </pre>
+ *
+ * Only edges in scope (not deleted) are included and they appear in the
+ * same order as in the incidence list of each node; a self-loop appears
+ * twice, as it does there. A snapshot is built by Graph.adjacency() the
+ * first time it is needed after the nodes or edges in scope change; it is
+ * never modified, so an outdated one can still be used safely but will not
+ * reflect the changes.
+ */
+public class Adjacency {
+
+    /**
+     * node ids are mapped to indices by an array unless the ids are too
+     * sparse, i.e., the largest is more than this factor times the number
+     * of nodes (plus a little slack)
+     */
+    private static final int MAX_ID_SPREAD = 4;
+
+    private final Node[] nodeAt;
+    private final int[] indexOfId;
+    private final HashMap<Integer, Integer> indexOfSparseId;
+
+    private final int[] outStart;
+    private final Edge[] outEdge;
+    private final int[] outNeighbor;
+
+    private final int[] inStart;
+    private final Edge[] inEdge;
+    private final int[] inNeighbor;
+
+    private final int[] incidentStart;
+    private final Edge[] incidentEdge;
+    private final int[] incidentNeighbor;
+
+    /**
+     * Builds the snapshot from the nodes and edges in scope
+     *
+     * @param nodes the nodes in scope
+     * @param maxNodeId the largest id of any node + 1
+     * @param directed whether outgoing and incoming edges differ
+     */
+    Adjacency(List<Node> nodes, int maxNodeId, boolean directed) {
+        int n = nodes.size();
+        nodeAt = nodes.toArray(new Node[n]);
+        if ( maxNodeId <= MAX_ID_SPREAD * n + 1024 ) {
+            indexOfId = new int[maxNodeId];
+            Arrays.fill(indexOfId, -1);
+            indexOfSparseId = null;
+            for ( int i = 0; i < n; i++ ) {
+                indexOfId[nodeAt[i].getId()] = i;
+            }
+        } else {
+            indexOfId = null;
+            indexOfSparseId = new HashMap<Integer, Integer>(2 * n);
+            for ( int i = 0; i < n; i++ ) {
+                indexOfSparseId.put(nodeAt[i].getId(), i);
+            }
+        }
+
+        // incidence lists include deleted edges, so this is an upper bound
+        int capacity = 0;
+        for ( Node node : nodeAt ) {
+            capacity += node.getEdges().size();
+        }
+        incidentStart = new int[n + 1];
+        incidentEdge = new Edge[capacity];
+        incidentNeighbor = new int[capacity];
+        if ( ! directed ) {
+            fill(incidentStart, incidentEdge, incidentNeighbor, true, true);
+            outStart = inStart = incidentStart;
+            outEdge = inEdge = incidentEdge;
+            outNeighbor = inNeighbor = incidentNeighbor;
+            return;
+        }
+        int incidentSize
+            = fill(incidentStart, incidentEdge, incidentNeighbor, true, true);
+        outStart = new int[n + 1];
+        outEdge = new Edge[incidentSize];
+        outNeighbor = new int[incidentSize];
+        fill(outStart, outEdge, outNeighbor, true, false);
+        inStart = new int[n + 1];
+        inEdge = new Edge[incidentSize];
+        inNeighbor = new int[incidentSize];
+        fill(inStart, inEdge, inNeighbor, false, true);
+    }
+
+    /**
+     * Fills in one of the three CSR structures by scanning the incidence
+     * list of each node
+     *
+     * @param outgoing true if edges whose source is the node are included
+     * @param incoming true if edges whose target is the node are included
+     * @return the number of positions filled
+     */
+    private int fill(int[] start, Edge[] edge, int[] neighbor,
+                     boolean outgoing, boolean incoming) {
+        int position = 0;
+        for ( int i = 0; i < nodeAt.length; i++ ) {
+            start[i] = position;
+            Node node = nodeAt[i];
+            for ( Edge e : node.getEdges() ) {
+                if ( ! e.inScope() ) continue;
+                Node source = e.getSourceNode();
+                Node target = e.getTargetNode();
+                if ( (outgoing && source == node)
+                     || (incoming && target == node) ) {
+                    Node other = (source == node) ? target : source;
+                    edge[position] = e;
+                    neighbor[position] = indexOf(other);
+                    position++;
+                }
+            }
+        }
+        start[nodeAt.length] = position;
+        return position;
+    }
+
+    /**
+     * @return the number of nodes in the snapshot
+     */
+    public int numberOfNodes() {
+        return nodeAt.length;
+    }
+
+    /**
+     * @return the node with the given index
+     */
+    public Node nodeAt(int index) {
+        return nodeAt[index];
+    }
+
+    /**
+     * @return the index of the node or -1 if the node is not part of the
+     * snapshot, e.g., because it has been deleted or belongs to a different
+     * graph
+     */
+    public int indexOf(Node node) {
+        int id = node.getId();
+        int index = -1;
+        if ( indexOfId != null ) {
+            if ( id >= 0 && id < indexOfId.length ) {
+                index = indexOfId[id];
+            }
+        } else {
+            Integer sparseIndex = indexOfSparseId.get(id);
+            if ( sparseIndex != null ) {
+                index = sparseIndex;
+            }
+        }
+        if ( index >= 0 && nodeAt[index] == node ) {
+            return index;
+        }
+        return -1;
+    }
+
+    /**
+     * Outgoing edges of the node with index i are at positions outStart(i)
+     * through outEnd(i) - 1
+     */
+    public int outStart(int i) { return outStart[i]; }
+    public int outEnd(int i) { return outStart[i + 1]; }
+    public int outDegree(int i) { return outStart[i + 1] - outStart[i]; }
+    public Edge outEdge(int position) { return outEdge[position]; }
+    /**
+     * @return the index of the node at the other end of the edge; -1 if
+     * that node is not in scope, which happens only if it was deleted
+     * without also deleting the edge
+     */
+    public int outNeighbor(int position) { return outNeighbor[position]; }
+
+    /**
+     * Incoming edges of the node with index i are at positions inStart(i)
+     * through inEnd(i) - 1
+     */
+    public int inStart(int i) { return inStart[i]; }
+    public int inEnd(int i) { return inStart[i + 1]; }
+    public int inDegree(int i) { return inStart[i + 1] - inStart[i]; }
+    public Edge inEdge(int position) { return inEdge[position]; }
+    public int inNeighbor(int position) { return inNeighbor[position]; }
+
+    /**
+     * Incident edges of the node with index i, regardless of direction, are
+     * at positions incidentStart(i) through incidentEnd(i) - 1
+     */
+    public int incidentStart(int i) { return incidentStart[i]; }
+    public int incidentEnd(int i) { return incidentStart[i + 1]; }
+    public int degree(int i) { return incidentStart[i + 1] - incidentStart[i]; }
+    public Edge incidentEdge(int position) { return incidentEdge[position]; }
+    public int incidentNeighbor(int position) {
+        return incidentNeighbor[position];
+    }
+
+    /**
+     * The following create lists for the methods of Node that return them;
+     * the lists are new and can be modified by the caller.
+     */
+    EdgeList outgoingEdges(int i) {
+        return edgeList(outEdge, outStart[i], outStart[i + 1]);
+    }
+
+    EdgeList incomingEdges(int i) {
+        return edgeList(inEdge, inStart[i], inStart[i + 1]);
+    }
+
+    EdgeList incidentEdges(int i) {
+        return edgeList(incidentEdge, incidentStart[i], incidentStart[i + 1]);
+    }
+
+    NodeList adjacentNodes(int i) {
+        NodeList nodes = new NodeList();
+        nodes.ensureCapacity(degree(i));
+        for ( int p = incidentStart[i]; p < incidentStart[i + 1]; p++ ) {
+            int j = incidentNeighbor[p];
+            nodes.add(j >= 0 ? nodeAt[j] : nodeAt[i].travel(incidentEdge[p]));
+        }
+        return nodes;
+    }
+
+    private static EdgeList edgeList(Edge[] edge, int start, int end) {
+        EdgeList edges = new EdgeList();
+        edges.ensureCapacity(end - start);
+        for ( int p = start; p < end; p++ ) {
+            edges.add(edge[p]);
+        }
+        return edges;
+    }
+}
+
+//  [Last modified: 2026 10 17 at 20:23:00 GMT]
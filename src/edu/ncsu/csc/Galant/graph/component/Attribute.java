@@ -1,20 +1,48 @@
 package edu.ncsu.csc.Galant.graph.component;
 
+import java.io.IOException;
+
 /**
  * A generic item in an AttributeList. Usually only one of the four
  * possible getters other than getKey() will return a non-null value.
  */
 public abstract class Attribute implements Cloneable {
     protected String key;
-    public Attribute(String key) { this.key = key; }
+    /**
+     * id of the key as given by AttributeKeys, used for indexing
+     */
+    protected final int keyId;
+    public Attribute(String key) {
+        this.key = key;
+        this.keyId = AttributeKeys.idOf(key);
+    }
     public String getKey() { return key; } 
+    public int getKeyId() { return keyId; }
     public Integer getIntegerValue() { return null; }
     public Double getDoubleValue() { return null; }
     public Boolean getBooleanValue() { return null; } 
     public String getStringValue() { return null; }
+    /**
+     * Primitive accessors, to avoid boxing in comparisons and arithmetic;
+     * the value returned by the accessor is meaningful only if the
+     * corresponding type test returns true
+     */
+    public boolean isInteger() { return false; }
+    public boolean isDouble() { return false; }
+    public boolean isBoolean() { return false; }
+    public int intValue() { return 0; }
+    public double doubleValue() { return Double.NaN; }
+    public boolean booleanValue() { return false; }
     public abstract Attribute clone();
     public abstract String toString();
     public abstract String xmlString();
+    /**
+     * Writes xmlString() to out; overridden where the value needs escaping,
+     * so that it is escaped as it is written
+     */
+    public void writeXml(Appendable out) throws IOException {
+        out.append(xmlString());
+    }
 }
 
-//  [Last modified: 2021 01 30 at 22:45:41 GMT]
+//  [Last modified: 2026 10 17 at 19:13:58 GMT]
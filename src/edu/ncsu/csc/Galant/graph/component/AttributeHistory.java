@@ -0,0 +1,341 @@
+package edu.ncsu.csc.Galant.graph.component;
+
+import java.util.Arrays;
+
+/**
+ * The complete history of the attributes of a GraphElement, stored by
+ * column: each attribute key has its own timeline of (state number, value)
+ * change records, so a change to one attribute costs one record rather
+ * than a copy of the whole AttributeList. A value of null in a timeline
+ * means that the attribute was removed in that state.
+ *
+ * In addition, the history keeps the list of state numbers in which
+ * anything at all changed for the element; the first of these is the state
+ * in which the element was created.
+ *
+ * All timelines are sorted by state number, so that the value at any state
+ * (time stamp) is found by binary search.
+ */
+public class AttributeHistory {
+
+    /**
+     * The changes to a single attribute; states[i] is the state number
+     * in which the attribute took on values[i].
+     */
+    private static class Timeline {
+        int[] states = new int[2];
+        Attribute[] values = new Attribute[2];
+        int size = 0;
+
+        /**
+         * Records a new value in the given state, overwriting the
+         * existing record if there is already one for the same state.
+         */
+        void set(int state, Attribute value) {
+            if ( size > 0 && states[size - 1] == state ) {
+                values[size - 1] = value;
+                return;
+            }
+            if ( size == states.length ) {
+                states = Arrays.copyOf(states, 2 * size);
+                values = Arrays.copyOf(values, 2 * size);
+            }
+            states[size] = state;
+            values[size] = value;
+            size++;
+        }
+
+        /**
+         * @return the value in effect at the given state, or null if the
+         * attribute had no value at that point
+         */
+        Attribute get(int state) {
+            int index = indexOfLatest(states, size, state);
+            return index < 0 ? null : values[index];
+        }
+
+        Attribute latest() {
+            return size == 0 ? null : values[size - 1];
+        }
+
+        /**
+         * Removes all records for states beyond the given one
+         */
+        void truncateAfter(int state) {
+            int newSize = indexOfLatest(states, size, state) + 1;
+            Arrays.fill(values, newSize, size, null);
+            size = newSize;
+        }
+    }
+
+    private static final Timeline[] NO_TIMELINES = new Timeline[0];
+    private static final int[] NO_KEYS = new int[0];
+
+    /**
+     * One timeline per key, indexed by the id of the key (see AttributeKeys)
+     */
+    private Timeline[] timelineOfKey = NO_TIMELINES;
+
+    /**
+     * Ids of the keys that have timelines, in order of first appearance
+     */
+    private int[] keyOrder = NO_KEYS;
+
+    /**
+     * State numbers in which anything changed, sorted
+     */
+    private int[] changeStates = new int[2];
+    private int numberOfChanges = 0;
+
+    /**
+     * Creates an empty history; the element does not exist until a change
+     * is recorded.
+     */
+    public AttributeHistory() {
+    }
+
+    /**
+     * Creates a history with a single state containing all the attributes
+     * of the given list
+     */
+    public AttributeHistory(int state, AttributeList L) {
+        recordChange(state);
+        for ( Attribute attribute : L.getAttributes() ) {
+            set(state, attribute);
+        }
+    }
+
+    /**
+     * Binary search on a sorted prefix of an array of state numbers.
+     *
+     * @return the index of the last entry among the first size ones that is
+     * <= state, or -1 if there is no such entry
+     */
+    private static int indexOfLatest(int[] states, int size, int state) {
+        int low = 0;
+        int high = size - 1;
+        int found = -1;
+        while ( low <= high ) {
+            int mid = (low + high) >>> 1;
+            if ( states[mid] <= state ) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @return the timeline for the key with the given id or null if there
+     * is none
+     */
+    private Timeline timelineOf(int keyId) {
+        if ( keyId < 0 || keyId >= timelineOfKey.length ) {
+            return null;
+        }
+        return timelineOfKey[keyId];
+    }
+
+    /**
+     * Notes that the element changed in the given state
+     *
+     * @return true if this is the first change in that state, i.e., the
+     * element had not already changed in the same (or a later) state
+     */
+    public boolean recordChange(int state) {
+        if ( numberOfChanges > 0
+             && changeStates[numberOfChanges - 1] >= state ) {
+            return false;
+        }
+        if ( numberOfChanges == changeStates.length ) {
+            changeStates = Arrays.copyOf(changeStates, 2 * numberOfChanges);
+        }
+        changeStates[numberOfChanges++] = state;
+        return true;
+    }
+
+    /**
+     * Records the given attribute as the value for its key in the given
+     * state; the caller is responsible for recordChange()
+     *
+     * @return true if the attribute had a value immediately before the call
+     */
+    public boolean set(int state, Attribute attribute) {
+        Timeline timeline = timelineFor(attribute.getKeyId());
+        boolean found = timeline.latest() != null;
+        timeline.set(state, attribute);
+        return found;
+    }
+
+    /**
+     * @return the timeline of the key, which is created, and the key added
+     * to keyOrder, if there is none
+     */
+    private Timeline timelineFor(int keyId) {
+        Timeline timeline = timelineOf(keyId);
+        if ( timeline == null ) {
+            timeline = new Timeline();
+            if ( keyId >= timelineOfKey.length ) {
+                timelineOfKey = Arrays.copyOf(timelineOfKey,
+                                              Math.max(keyId + 1,
+                                                       AttributeKeys.size()));
+            }
+            timelineOfKey[keyId] = timeline;
+            keyOrder = Arrays.copyOf(keyOrder, keyOrder.length + 1);
+            keyOrder[keyOrder.length - 1] = keyId;
+        }
+        return timeline;
+    }
+
+    /**
+     * Records the removal of the attribute with the given key in the given
+     * state; the caller is responsible for recordChange()
+     *
+     * @return true if the attribute had a value immediately before the call
+     */
+    public boolean remove(int state, String key) {
+        Timeline timeline = timelineOf(AttributeKeys.existingIdOf(key));
+        if ( timeline == null || timeline.latest() == null ) {
+            return false;
+        }
+        timeline.set(state, null);
+        return true;
+    }
+
+    /**
+     * Records a removal read from a trace (see TraceReader); unlike
+     * remove(), this creates the timeline of the key if there is none, as
+     * there is when the attribute was set and removed in the same state, so
+     * that keyOrder, and with it the order of attributes in GraphML, is the
+     * same as in the recorded run
+     */
+    void replayRemoval(int state, int keyId) {
+        timelineFor(keyId).set(state, null);
+    }
+
+    /**
+     * @return the most recent value of the attribute with the given key or
+     * null if there is none
+     */
+    public Attribute getLatest(String key) {
+        return getLatest(AttributeKeys.existingIdOf(key));
+    }
+
+    /**
+     * @return the most recent value of the attribute whose key has the
+     * given id or null if there is none
+     */
+    public Attribute getLatest(int keyId) {
+        Timeline timeline = timelineOf(keyId);
+        return timeline == null ? null : timeline.latest();
+    }
+
+    /**
+     * @return the value of the attribute with the given key as of the given
+     * state or null if it had none at that point
+     */
+    public Attribute get(int state, String key) {
+        Timeline timeline = timelineOf(AttributeKeys.existingIdOf(key));
+        return timeline == null ? null : timeline.get(state);
+    }
+
+    /**
+     * @return true if the element existed in the given state, i.e., if the
+     * first recorded change is no later than the state
+     */
+    public boolean isCreated(int state) {
+        return numberOfChanges > 0 && changeStates[0] <= state;
+    }
+
+    /**
+     * @return the number of the most recent state in which the element
+     * changed, or -1 if there are no changes
+     */
+    public int latestStateNumber() {
+        return numberOfChanges == 0 ? -1 : changeStates[numberOfChanges - 1];
+    }
+
+    /**
+     * @return the number of the latest state at or before the given one in
+     * which the element changed, or -1 if there is none
+     */
+    public int latestStateNumber(int state) {
+        int index = indexOfLatest(changeStates, numberOfChanges, state);
+        return index < 0 ? -1 : changeStates[index];
+    }
+
+    /**
+     * Receives the change records of a history (see forEachRecord())
+     */
+    interface RecordVisitor {
+        /**
+         * @param value the new value of the attribute whose key has the
+         * given id, or null if the attribute was removed in the state
+         */
+        void visit(int state, int keyId, Attribute value);
+    }
+
+    /**
+     * Hands every (state number, key, value) record of every timeline to
+     * the visitor, one timeline after the other; used to record a run in a
+     * trace (see TraceWriter)
+     */
+    void forEachRecord(RecordVisitor visitor) {
+        for ( int keyId : keyOrder ) {
+            Timeline timeline = timelineOfKey[keyId];
+            for ( int i = 0; i < timeline.size; i++ ) {
+                visitor.visit(timeline.states[i], keyId, timeline.values[i]);
+            }
+        }
+    }
+
+    /**
+     * @return the number of the state in which the element was created, or
+     * -1 if there are no changes
+     */
+    public int creationStateNumber() {
+        return numberOfChanges == 0 ? -1 : changeStates[0];
+    }
+
+    /**
+     * Removes all history beyond the given state
+     */
+    public void truncateAfter(int state) {
+        numberOfChanges = indexOfLatest(changeStates, numberOfChanges, state) + 1;
+        for ( int keyId : keyOrder ) {
+            timelineOfKey[keyId].truncateAfter(state);
+        }
+    }
+
+    /**
+     * @return a list of all attributes that had values as of the given
+     * state, in order of first appearance of their keys
+     */
+    public AttributeList attributesAt(int state) {
+        AttributeList L = new AttributeList();
+        for ( int keyId : keyOrder ) {
+            Attribute attribute = timelineOfKey[keyId].get(state);
+            if ( attribute != null ) {
+                L.set(attribute);
+            }
+        }
+        return L;
+    }
+
+    /**
+     * @return a materialized snapshot of the element as of the given state,
+     * tagged with the latest state number (at or before the given one) in
+     * which the element changed; null if the element did not exist yet
+     */
+    public GraphElementState stateAt(int state) {
+        int stateNumber = latestStateNumber(state);
+        if ( stateNumber < 0 ) {
+            return null;
+        }
+        return new GraphElementState(stateNumber, attributesAt(state));
+    }
+}
+
+//  [Last modified: 2026 10 17 at 20:50:31 GMT]
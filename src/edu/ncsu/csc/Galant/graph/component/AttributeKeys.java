@@ -0,0 +1,91 @@
+package edu.ncsu.csc.Galant.graph.component;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry that assigns a small integer id to every attribute key. Ids are
+ * dense, starting at 0, so that an AttributeList or AttributeHistory can
+ * find an attribute by indexing an array with the id of its key instead of
+ * comparing strings. The standard keys used by GraphElement, Node and Edge
+ * are registered up front and always have the same ids.
+ *
+ * Keys are never unregistered; the number of distinct keys used by Galant
+ * and its algorithms is small.
+ */
+public class AttributeKeys {
+
+    private static final ConcurrentHashMap<String, Integer> idOfKey
+        = new ConcurrentHashMap<String, Integer>();
+    private static final ArrayList<String> keyOfId = new ArrayList<String>();
+
+    public static final int ID = register(GraphElement.ID);
+    public static final int WEIGHT = register(GraphElement.WEIGHT);
+    public static final int LABEL = register(GraphElement.LABEL);
+    public static final int COLOR = register(GraphElement.COLOR);
+    public static final int DELETED = register(GraphElement.DELETED);
+    public static final int HIGHLIGHTED = register(GraphElement.HIGHLIGHTED);
+    public static final int HIDDEN = register(GraphElement.HIDDEN);
+    public static final int HIDDEN_LABEL = register(GraphElement.HIDDEN_LABEL);
+    public static final int HIDDEN_WEIGHT = register(GraphElement.HIDDEN_WEIGHT);
+    public static final int X = register("x");
+    public static final int Y = register("y");
+    public static final int MARKED = register("marked");
+    public static final int LAYER = register("layer");
+    public static final int POSITION_IN_LAYER = register("positionInLayer");
+    public static final int SOURCE = register("source");
+    public static final int TARGET = register("target");
+
+    /**
+     * Assigns the next available id to the key unless it already has one;
+     * synchronized because keys may be registered concurrently by the
+     * algorithm thread and the event dispatch thread.
+     */
+    private static synchronized int register(String key) {
+        Integer id = idOfKey.get(key);
+        if ( id == null ) {
+            id = keyOfId.size();
+            keyOfId.add(key);
+            idOfKey.put(key, id);
+        }
+        return id;
+    }
+
+    /**
+     * @return the id of the given key, registering the key if this is the
+     * first time it is used
+     */
+    public static int idOf(String key) {
+        Integer id = idOfKey.get(key);
+        if ( id != null ) {
+            return id;
+        }
+        return register(key);
+    }
+
+    /**
+     * @return the id of the given key or -1 if it has never been used; a
+     * lookup of a key that no attribute has does not register it
+     */
+    public static int existingIdOf(String key) {
+        Integer id = idOfKey.get(key);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @return the key with the given id
+     */
+    public static synchronized String keyOf(int id) {
+        return keyOfId.get(id);
+    }
+
+    /**
+     * @return the number of keys registered so far, an upper bound on any
+     * key id
+     */
+    public static synchronized int size() {
+        return keyOfId.size();
+    }
+}
+
+//  [Last modified: 2026 10 17 at 15:02:47 GMT]
@@ -1,17 +1,34 @@
 package edu.ncsu.csc.Galant.graph.component;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * An AttributeList plays the role of a Map. A list is used so that
  * attributes will appear in the order they were added rather than
  * alphabetically by key.
+ *
+ * Lookups do not traverse the list: each key has a small integer id (see
+ * AttributeKeys) and the list keeps an array, indexed by key id, that gives
+ * the position of the attribute with that key.
  */
 public class AttributeList implements Cloneable{
 
     protected ArrayList<Attribute> attributes;
 
-    public AttributeList() { attributes = new ArrayList<Attribute>(); }
+    /**
+     * positionOfKey[id] is 1 + the position in attributes of the attribute
+     * whose key has the given id, or 0 if there is no such attribute; the
+     * array only grows as large as the largest key id in the list
+     */
+    private int[] positionOfKey;
+
+    private static final int[] NO_POSITIONS = new int[0];
+
+    public AttributeList() {
+        attributes = new ArrayList<Attribute>();
+        positionOfKey = NO_POSITIONS;
+    }
 
     /**
      * The purpose of this method is to allow the outside world to retrieve
@@ -21,113 +38,122 @@ public class AttributeList implements Cloneable{
     public ArrayList<Attribute> getAttributes() { return attributes; }
 
     /**
-     * The getters traverse the list until they find a matching key or return
-     * null if they don't.
+     * @return the position of the attribute whose key has the given id or -1
+     * if there is none
+     */
+    private int positionOf(int keyId) {
+        if ( keyId < 0 || keyId >= positionOfKey.length ) {
+            return -1;
+        }
+        return positionOfKey[keyId] - 1;
+    }
+
+    /**
+     * @return the attribute with the given key or null if there is none
+     */
+    public Attribute get(String key) {
+        int position = positionOf(AttributeKeys.existingIdOf(key));
+        return position < 0 ? null : attributes.get(position);
+    }
+
+    /**
+     * The getters look up the attribute with a matching key or return
+     * null if there is none.
      * @note retrieving an attribute with the wrong type, e.g., if you
      * do a getInteger() when there is a DoubleAttribute with that key
      * will trigger an exception when this is done during algorithm
      * execution, but not at other times, when we simply return null
      */
     public Integer getInteger(String key) {
-        for ( Attribute attribute : attributes ) {
-            if ( attribute.getKey().equals(key) ) {
-                return attribute.getIntegerValue();
-            }
-        }
-        return null;
+        Attribute attribute = get(key);
+        return attribute == null ? null : attribute.getIntegerValue();
     }
 
     public Double getDouble(String key) {
-        for ( Attribute attribute : attributes ) {
-            if ( attribute.getKey().equals(key) ) {
-                return attribute.getDoubleValue();
-            }
-        }
-        return null;
+        Attribute attribute = get(key);
+        return attribute == null ? null : attribute.getDoubleValue();
     }
 
     public Boolean getBoolean(String key) {
-        for ( Attribute attribute : attributes ) {
-            if ( attribute.getKey().equals(key) ) {
-                return attribute.getBooleanValue();
-            }
-        }
+        Attribute attribute = get(key);
         // if missing, return a default, safe value
-        return false;
+        return attribute == null ? false : attribute.getBooleanValue();
     }
 
     public String getString(String key) {
-        for ( Attribute attribute : attributes ) {
-            if ( attribute.getKey().equals(key) ) {
-                return attribute.getStringValue();
-            }
+        Attribute attribute = get(key);
+        return attribute == null ? null : attribute.getStringValue();
+    }
+
+    /**
+     * Replaces the attribute with the same key if there is one (regardless
+     * of the class) and adds the attribute at the end otherwise.
+     * @return true if and only if an attribute with the key was in the list
+     * already.
+     */
+    public boolean set(Attribute attribute) {
+        int keyId = attribute.getKeyId();
+        int position = positionOf(keyId);
+        if ( position >= 0 ) {
+            attributes.set(position, attribute);
+            return true;
         }
-        return null;
+        if ( keyId >= positionOfKey.length ) {
+            positionOfKey = Arrays.copyOf(positionOfKey,
+                                          Math.max(keyId + 1,
+                                                   AttributeKeys.size()));
+        }
+        attributes.add(attribute);
+        positionOfKey[keyId] = attributes.size();
+        return false;
     }
 
     /**
      * The following setters replace an attribute in the list if one with the
      * same key already exists (regardless of the class) and add one if none
      * exists.  They return true if and only if the attribute was in the list
-     * already.
+     * already. The values of numeric and boolean attributes are stored
+     * unboxed, so a null value removes the attribute instead, as
+     * GraphElement.set() does.
      */
   public boolean set(String key, Integer value) {
-    for ( int i = 0; i < attributes.size(); i++ ) {
-      if ( attributes.get(i).getKey().equals(key) ) {
-        attributes.set(i, new IntegerAttribute(key, value));
-        return true;
-      }
-    }
-    attributes.add(new IntegerAttribute(key, value));
-    return false;
+    if ( value == null ) return remove(key);
+    return set(new IntegerAttribute(key, value));
   }
 
   public boolean set(String key, Double value) {
-    for ( int i = 0; i < attributes.size(); i++ ) {
-      if ( attributes.get(i).getKey().equals(key) ) {
-        attributes.set(i, new DoubleAttribute(key, value));
-        return true;
-      }
-    }
-    attributes.add(new DoubleAttribute(key, value));
-    return false;
+    if ( value == null ) return remove(key);
+    return set(new DoubleAttribute(key, value));
   }
 
   public boolean set(String key, Boolean value) {
-    for ( int i = 0; i < attributes.size(); i++ ) {
-      if ( attributes.get(i).getKey().equals(key) ) {
-        attributes.set(i, new BooleanAttribute(key, value));
-        return true;
-      }
-    }
-    attributes.add(new BooleanAttribute(key, value));
-    return false;
+    if ( value == null ) return remove(key);
+    return set(new BooleanAttribute(key, value));
   }
 
   public boolean set(String key, String value) {
-    for ( int i = 0; i < attributes.size(); i++ ) {
-      if ( attributes.get(i).getKey().equals(key) ) {
-        attributes.set(i, new StringAttribute(key, value));
-        return true;
-      }
-    }
-    attributes.add(new StringAttribute(key, value));
-    return false;
+    return set(new StringAttribute(key, value));
   }
 
     /**
      * The following method removes an item from the list. It does nothing if
-     * there was no item with the given key.
+     * there was no item with the given key. Positions of the attributes that
+     * follow the removed one shift down by one; removals are rare compared
+     * to lookups.
      * @return true if the attribute was present
      */
     public boolean remove(String key) {
-        for ( int i = 0; i < attributes.size(); i++ ) {
-            if ( attributes.get(i).getKey().equals(key) ) {
-                attributes.remove(i);
-                return true;
-            }
+        int keyId = AttributeKeys.existingIdOf(key);
+        int position = positionOf(keyId);
+        if ( position < 0 ) {
+            return false;
         }
-        return false;
+        attributes.remove(position);
+        positionOfKey[keyId] = 0;
+        for ( int i = position; i < attributes.size(); i++ ) {
+            positionOfKey[attributes.get(i).getKeyId()] = i + 1;
+        }
+        return true;
     }
 
     /**
@@ -138,9 +164,8 @@ public class AttributeList implements Cloneable{
      */
     public AttributeList duplicate() {
       AttributeList newList = new AttributeList();
-      for ( Attribute attribute : this.attributes ) {
-        newList.attributes.add(attribute);
-      }
+      newList.attributes.addAll(this.attributes);
+      newList.positionOfKey = this.positionOfKey.clone();
       return newList;
     }
 
@@ -152,7 +177,7 @@ public class AttributeList implements Cloneable{
         }
         return builder.toString();
     }
-    
+
 }
 
-//  [Last modified: 2021 01 30 at 23:26:20 GMT]
+//  [Last modified: 2026 10 17 at 20:20:03 GMT]
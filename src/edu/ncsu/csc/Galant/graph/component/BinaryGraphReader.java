@@ -0,0 +1,214 @@
+package edu.ncsu.csc.Galant.graph.component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+import edu.ncsu.csc.Galant.GalantException;
+import edu.ncsu.csc.Galant.GraphDispatch;
+import edu.ncsu.csc.Galant.Timer;
+
+/**
+ * Builds a graph from a file written by BinaryGraphWriter. The file is
+ * memory-mapped; the columns are read by position, and the attribute lists
+ * in order, so that each node and edge is created and added to the graph
+ * in a single pass.
+ */
+public class BinaryGraphReader {
+    /** shared by elements without attributes; AttributeHistory copies it */
+    private static final AttributeList NO_ATTRIBUTES = new AttributeList();
+
+    private final File file;
+    private final MappedByteBuffer buffer;
+    private final Graph graph = new Graph();
+    private String[] strings;
+    private int numberOfNodes;
+    private int numberOfEdges;
+    private boolean explicitEdgeIds;
+    private Node[] nodes;
+
+    /**
+     * @return true if the file has the extension of a binary graph
+     */
+    public static boolean handles(File file) {
+        return file.getName().endsWith(BinaryGraphWriter.EXTENSION);
+    }
+
+    /**
+     * @return the graph in the given file, with the same result as parsing
+     * the GraphML written for it by Graph.xmlString()
+     * @throws GalantException if the file cannot be read or is not a
+     * binary graph
+     */
+    public static Graph load(File file) throws GalantException {
+        Timer.parsingTime.start();
+        GraphDispatch dispatch = GraphDispatch.getInstance();
+        // as in GraphMLParser, no new states for changes while loading
+        dispatch.setEditMode(false);
+        try ( FileChannel channel
+              = FileChannel.open(file.toPath(), StandardOpenOption.READ) ) {
+            if ( channel.size() > Integer.MAX_VALUE )
+                throw new GalantException("Binary graph " + file
+                                          + " is too large");
+            BinaryGraphReader reader = new BinaryGraphReader(file, channel);
+            reader.readHeader();
+            reader.readElements();
+            reader.graph.initializeAfterParsing();
+            dispatch.setEditMode(true);
+            return reader.graph;
+        }
+        catch ( BufferUnderflowException | IndexOutOfBoundsException
+                 | NegativeArraySizeException e ) {
+            throw new GalantException("Binary graph " + file
+                                      + " is incomplete");
+        }
+        catch ( IOException e ) {
+            throw new GalantException(e.getMessage()
+                                      + "\n - in BinaryGraphReader.load",
+                                      e);
+        }
+        finally {
+            Timer.parsingTime.stop();
+        }
+    }
+
+    private BinaryGraphReader(File file, FileChannel channel)
+        throws IOException {
+        this.file = file;
+        this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                                  channel.size());
+    }
+
+    private void readHeader() throws GalantException {
+        if ( buffer.remaining() < BinaryGraphWriter.HEADER_SIZE
+             || buffer.getInt() != BinaryGraphWriter.MAGIC )
+            throw new GalantException(file + " is not a Galant binary graph");
+        short version = buffer.getShort();
+        if ( version != BinaryGraphWriter.VERSION )
+            throw new GalantException("Binary graph " + file
+                                      + " has version " + version
+                                      + ", expected "
+                                      + BinaryGraphWriter.VERSION);
+        int flags = buffer.get();
+        graph.setDirected((flags & BinaryGraphWriter.DIRECTED) != 0);
+        if ( (flags & BinaryGraphWriter.LAYERED) != 0 )
+            graph.setLayered(true);
+        explicitEdgeIds = (flags & BinaryGraphWriter.EXPLICIT_EDGE_IDS) != 0;
+        int nameIndex = buffer.getInt();
+        int commentIndex = buffer.getInt();
+        strings = new String[buffer.getInt()];
+        numberOfNodes = buffer.getInt();
+        numberOfEdges = buffer.getInt();
+        for ( int i = 0; i < strings.length; i++ ) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        if ( nameIndex >= 0 ) graph.setName(strings[nameIndex]);
+        if ( commentIndex >= 0 ) graph.setComment(strings[commentIndex]);
+    }
+
+    /**
+     * Creates the nodes and edges; the buffer is positioned at the start of
+     * the columns, which are read with absolute gets while the attribute
+     * lists after them are read in order
+     */
+    private void readElements() throws GalantException {
+        boolean layered = graph.isLayered();
+        int column = buffer.position();
+        int nodeColumns = layered ? 5 : 3;
+        int ids = column;
+        int xs = ids + 4 * numberOfNodes;
+        int ys = xs + 4 * numberOfNodes;
+        int layers = ys + 4 * numberOfNodes;
+        int positions = layers + 4 * numberOfNodes;
+        int sources = column + 4 * nodeColumns * numberOfNodes;
+        int targets = sources + 4 * numberOfEdges;
+        int edgeIds = targets + 4 * numberOfEdges;
+        long end = column + 4L * nodeColumns * numberOfNodes
+            + 4L * (explicitEdgeIds ? 3 : 2) * numberOfEdges;
+        if ( numberOfNodes < 0 || numberOfEdges < 0 || end > buffer.limit() )
+            throw new IndexOutOfBoundsException();
+        buffer.position((int) end);
+
+        nodes = new Node[numberOfNodes];
+        for ( int i = 0; i < numberOfNodes; i++ ) {
+            AttributeList L = readAttributes();
+            if ( layered ) {
+                if ( L == NO_ATTRIBUTES ) L = new AttributeList();
+                L.set(BinaryGraphWriter.LAYER, buffer.getInt(layers + 4 * i));
+                L.set(BinaryGraphWriter.POSITION_IN_LAYER,
+                      buffer.getInt(positions + 4 * i));
+            }
+            Node node = new Node(graph, buffer.getInt(ids + 4 * i),
+                                 buffer.getInt(xs + 4 * i),
+                                 buffer.getInt(ys + 4 * i), L);
+            graph.addParsedNode(node);
+            nodes[i] = node;
+        }
+        // the degrees are known from the endpoint columns, so that the
+        // lists of incident edges can be allocated at their final size
+        int[] degree = new int[numberOfNodes];
+        for ( int i = 0; i < numberOfEdges; i++ ) {
+            degree[nodeIndex(buffer.getInt(sources + 4 * i))]++;
+            degree[nodeIndex(buffer.getInt(targets + 4 * i))]++;
+        }
+        for ( int i = 0; i < numberOfNodes; i++ ) {
+            nodes[i].reserveIncidentEdges(degree[i]);
+        }
+        for ( int i = 0; i < numberOfEdges; i++ ) {
+            AttributeList L = readAttributes();
+            Edge edge = new Edge(graph, nodes[buffer.getInt(sources + 4 * i)],
+                                 nodes[buffer.getInt(targets + 4 * i)], L);
+            if ( explicitEdgeIds ) {
+                edge.setId(buffer.getInt(edgeIds + 4 * i));
+                edge.hasExplicitId = true;
+            }
+            graph.addParsedEdge(edge);
+        }
+    }
+
+    private int nodeIndex(int index) throws GalantException {
+        if ( index < 0 || index >= numberOfNodes )
+            throw new GalantException("Binary graph " + file
+                                      + ": bad node index " + index);
+        return index;
+    }
+
+    private AttributeList readAttributes() throws GalantException {
+        int count = buffer.getInt();
+        if ( count == 0 ) return NO_ATTRIBUTES;
+        AttributeList L = new AttributeList();
+        for ( int i = 0; i < count; i++ ) {
+            String key = strings[buffer.getInt()];
+            byte type = buffer.get();
+            switch ( type ) {
+            case BinaryGraphWriter.INTEGER:
+                L.set(new IntegerAttribute(key, buffer.getInt()));
+                break;
+            case BinaryGraphWriter.DOUBLE:
+                L.set(new DoubleAttribute(key, buffer.getDouble()));
+                break;
+            case BinaryGraphWriter.TRUE:
+                L.set(new BooleanAttribute(key, true));
+                break;
+            case BinaryGraphWriter.FALSE:
+                L.set(new BooleanAttribute(key, false));
+                break;
+            case BinaryGraphWriter.STRING:
+                L.set(new StringAttribute(key, strings[buffer.getInt()]));
+                break;
+            default:
+                throw new GalantException("Binary graph " + file
+                                          + ": unknown value type " + type);
+            }
+        }
+        return L;
+    }
+}
+
+//  [Last modified: 2026 10 17 at 18:59:16 GMT]
@@ -1,13 +1,27 @@
 package edu.ncsu.csc.Galant.graph.component;
 
+/**
+ * The value is stored as a primitive boolean; getBooleanValue() boxes it
+ * for clients that use the Boolean API.
+ */
 public class BooleanAttribute extends Attribute implements Cloneable {
-    private Boolean value;
-    public BooleanAttribute(String key, Boolean value) {
+    private boolean value;
+    public BooleanAttribute(String key, boolean value) {
         super(key);
         this.value = value;
     }
+    /**
+     * @param value must not be null, since the value is stored unboxed; the
+     * setters in AttributeList and GraphElement remove the attribute instead
+     * @throws NullPointerException if the value is null
+     */
+    public BooleanAttribute(String key, Boolean value) {
+        this(key, value.booleanValue());
+    }
     public Boolean getBooleanValue() { return value; }
-    public void set(Boolean value) { this.value = value; }
+    public boolean isBoolean() { return true; }
+    public boolean booleanValue() { return value; }
+    public void set(boolean value) { this.value = value; }
     public Attribute clone() { return new BooleanAttribute(key, value); }
     public String toString() {
         return key + "=" + value;
@@ -17,4 +31,4 @@ public class BooleanAttribute extends Attribute implements Cloneable {
     }
 }
 
-//  [Last modified: 2018 12 07 at 16:16:39 GMT]
+//  [Last modified: 2026 10 17 at 20:20:03 GMT]
@@ -1,13 +1,27 @@
 package edu.ncsu.csc.Galant.graph.component;
 
+/**
+ * The value is stored as a primitive double; getDoubleValue() boxes it for
+ * clients that use the Double API.
+ */
 public class DoubleAttribute extends Attribute implements Cloneable {
-    private Double value;
-    public DoubleAttribute(String key, Double value) {
+    private double value;
+    public DoubleAttribute(String key, double value) {
         super(key);
         this.value = value;
     }
+    /**
+     * @param value must not be null, since the value is stored unboxed; the
+     * setters in AttributeList and GraphElement remove the attribute instead
+     * @throws NullPointerException if the value is null
+     */
+    public DoubleAttribute(String key, Double value) {
+        this(key, value.doubleValue());
+    }
     public Double getDoubleValue() { return value; }
-    public void set(Double value) { this.value = value; }
+    public boolean isDouble() { return true; }
+    public double doubleValue() { return value; }
+    public void set(double value) { this.value = value; }
     public Attribute clone() { return new DoubleAttribute(key, value); }
     public String toString() {
         return key + "=" + value;
@@ -17,4 +31,4 @@ public class DoubleAttribute extends Attribute implements Cloneable {
     }
 }
 
-//  [Last modified: 2018 12 07 at 16:16:29 GMT]
+//  [Last modified: 2026 10 17 at 20:20:03 GMT]
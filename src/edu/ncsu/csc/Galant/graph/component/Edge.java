@@ -1,5 +1,6 @@
 package edu.ncsu.csc.Galant.graph.component;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -60,6 +61,21 @@ public class Edge extends GraphElement {
         this.target = target;
     }
 
+    /**
+     * Used when a recorded run is replayed (see TraceReader); the history
+     * is filled in from the trace.
+     */
+    Edge(Graph graph, int id, boolean hasExplicitId, Node source, Node target,
+         AttributeHistory history) {
+        this.dispatch = GraphDispatch.getInstance();
+        this.graph = graph;
+        this.id = id;
+        this.hasExplicitId = hasExplicitId;
+        this.source = source;
+        this.target = target;
+        this.history = history;
+    }
+
     /**
      * This is called during parsing.
      * @param L an AttributeList created by the GraphMLParser from attributes
@@ -68,8 +84,63 @@ public class Edge extends GraphElement {
      * source or target
      */
     public Edge(Graph graph, AttributeList L) throws GalantException {
+        this(graph, L, true);
+    }
+
+    /**
+     * Like Edge(Graph, AttributeList), except that the endpoints are not
+     * looked up; the caller gets their ids with endpointId() beforehand and
+     * passes them to Graph.addParsedEdge(). This does not depend on the
+     * nodes of the graph, so edges can be created concurrently by a parser
+     * (see GraphMLStreamParser).
+     */
+    public static Edge decode(Graph graph, AttributeList L)
+        throws GalantException {
+        return new Edge(graph, L, false);
+    }
+
+    /**
+     * For parsers that read the endpoints directly, e.g., TextGraphLoader
+     * @param L the remaining attributes, in final form (weight as a
+     * Double, etc.)
+     */
+    public Edge(Graph graph, Node source, Node target, AttributeList L) {
+        super(graph, L);
+        this.source = source;
+        this.target = target;
+    }
+
+    private Edge(Graph graph, AttributeList L, boolean attach)
+        throws GalantException {
         super(graph, L);
-        initializeAfterParsing(L);
+        if ( attach ) initializeAfterParsing(L);
+        else decodeAttributes(L);
+    }
+
+    /**
+     * @param endpoint "source" or "target"
+     * @return the id of the node given by that attribute in L
+     * @throw GalantException if the attribute is missing or not an integer
+     */
+    public static int endpointId(AttributeList L, String endpoint)
+        throws GalantException {
+        String idString = L.getString(endpoint);
+        if ( idString == null ) {
+            throw new GalantException("Missing " + endpoint + " for edge");
+        }
+        try {
+            return Integer.parseInt(idString);
+        } catch (NumberFormatException e) {
+            throw new GalantException("Bad " + endpoint + " id " + idString);
+        }
+    }
+
+    /**
+     * For Graph.addParsedEdge()
+     */
+    void setEndpoints(Node source, Node target) {
+        this.source = source;
+        this.target = target;
     }
 
     public Node getSourceNode() {
@@ -116,49 +187,9 @@ public class Edge extends GraphElement {
             throws GalantException {
         LogHelper.disable();
         LogHelper.logDebug("-> initializeAfterParsing " + this);
-        
-        String sourceString = null;
-        String targetString = null;
-        for (int i = 0; i < L.attributes.size(); i++) {
-            Attribute attributeOfNode = L.attributes.get(i);
-            if (attributeOfNode.key.equals("source")) {
-                String attributeValue = attributeOfNode.getStringValue();
-                sourceString = attributeValue;
-            }
-            else if (attributeOfNode.key.equals("target")) {
-                String attributeValue = attributeOfNode.getStringValue();
-                targetString = attributeValue;
-            }
-            else if ( attributeOfNode.key.equals("id") ) {
-                String attributeValue = attributeOfNode.getStringValue();
-                this.hasExplicitId = true;
-                try {
-                    this.id = Integer.parseInt(attributeValue);
-                } catch  (NumberFormatException e) {
-                    throw new GalantException("Bad edge id " + attributeValue);
-                }
-            }
-        }
-        
-        Integer sourceId = Integer.MIN_VALUE;
-        Integer targetId = Integer.MIN_VALUE;
-       
-        if (sourceString == null) {
-            throw new GalantException("Missing source for " + this);
-        }
-        if (targetString == null) {
-            throw new GalantException("Missing target for " + this);
-        }
-        try {
-            sourceId = Integer.parseInt(sourceString);
-        } catch (NumberFormatException e) {
-            throw new GalantException("Bad source id " + sourceString);
-        }
-        try {
-            targetId = Integer.parseInt(targetString);
-        } catch (NumberFormatException e) {
-            throw new GalantException("Bad target id " + targetString);
-        }
+        int sourceId = endpointId(L, "source");
+        int targetId = endpointId(L, "target");
+        decodeAttributes(L);
         this.source = super.graph.getNodeById(sourceId);
         if (this.source == null) {
             throw new GalantException("Source node missing when processing edge "
@@ -169,53 +200,96 @@ public class Edge extends GraphElement {
             throw new GalantException("Target node missing when processing edge "
                     + this);
         }
+        LogHelper.logDebug(" id = " + id + " explicit = " + hasExplicitId);
+        LogHelper.logDebug("<- initializeAfterParsing, edge = "
+                + this);
+        LogHelper.restoreState();
+    }
+
+    /**
+     * Does the work of initializeAfterParsing() other than finding the
+     * endpoints: the id, if any, and the attributes common to all graph
+     * elements.
+     */
+    private void decodeAttributes(AttributeList L) throws GalantException {
+        String idString = L.getString("id");
+        if ( idString != null ) {
+            this.hasExplicitId = true;
+            try {
+                this.id = Integer.parseInt(idString);
+            } catch  (NumberFormatException e) {
+                throw new GalantException("Bad edge id " + idString);
+            }
+        }
         // these attributes are fixed and stored as fields of the edge
         // object
         L.remove("source");
         L.remove("target");
         super.initializeAfterParsing(L);
-        LogHelper.logDebug(" id = " + id + " explicit = " + hasExplicitId);
-        LogHelper.logDebug("<- initializeAfterParsing, edge = "
-                + this);
-        LogHelper.restoreState();
     }
 
     public String xmlString() {
+        StringBuilder s = new StringBuilder();
+        try {
+            writeXml(s);
+        } catch (IOException e) { // not thrown by a StringBuilder
+            throw new AssertionError(e);
+        }
+        return s.toString();
+    }
+
+    /**
+     * This version is called when the current state of the animation is
+     * exported.
+     */
+    public String xmlString(int state) {
+        StringBuilder s = new StringBuilder();
+        try {
+            writeXml(s, state);
+        } catch (IOException e) { // not thrown by a StringBuilder
+            throw new AssertionError(e);
+        }
+        return s.toString();
+    }
+
+    /**
+     * Writes the text of xmlString() to out
+     */
+    @Override
+    public void writeXml(Appendable out) throws IOException {
+        out.append("<edge ");
         // id may not exist for an edge; not really essential;
         // inputHasEdgeIds() returns true if they appeared in the input, in
         // which case they should be rendered in the output as the first
         // attribute; edges with non-existent id's need to be given ones
-        String idComponent = "";
         if ( super.graph.hasExplicitEdgeIds() ) {
-            Integer edgeId = this.id;
-            idComponent = "id=\"" + edgeId + "\"";
+            out.append("id=\"").append(String.valueOf(this.id)).append('"');
         }
-        String s = "<edge " + idComponent;
         // need this to get past here when the edge is first created and this
         // function is used for debugging.
         if (this.source != null && this.target != null) {
-            s += " source=\"" + this.source.getId() + "\"";
-            s += " target=\"" + this.target.getId() + "\"";
+            out.append(" source=\"").append(String.valueOf(this.source.getId()));
+            out.append("\" target=\"").append(String.valueOf(this.target.getId()));
+            out.append('"');
         }
-        s += super.attributesWithoutId();
-        s += " />";
-        return s;
+        super.writeAttributesWithoutId(out);
+        out.append(" />");
     }
 
     /**
-     * This version is called when the current state of the animation is
-     * exported.
+     * Writes the text of xmlString(state) to out; nothing if the edge does
+     * not exist in the given state
      */
-    public String xmlString(int state) {
+    @Override
+    public void writeXml(Appendable out, int state) throws IOException {
         if (!inScope(state)) {
-            return "";
+            return;
         }
-        String s = "<edge "
-                + " source=\"" + this.source.getId() + "\""
-                + " target=\"" + this.target.getId() + "\"";
-        s += super.xmlString(state);
-        s += " />";
-        return s;
+        out.append("<edge  source=\"").append(String.valueOf(this.source.getId()));
+        out.append("\" target=\"").append(String.valueOf(this.target.getId()));
+        out.append('"');
+        super.writeXml(out, state);
+        out.append(" />");
     }
 
     /**
@@ -234,8 +308,7 @@ public class Edge extends GraphElement {
         copy.id = this.id;
         copy.dispatch = GraphDispatch.getInstance();
         copy.graph = currentGraph;
-        ArrayList<GraphElementState> statesCopy = super.copyCurrentState();
-        copy.states = statesCopy;
+        copy.history = super.copyCurrentState();
         sourceCopy.addEdge(copy);
         targetCopy.addEdge(copy);
         copy.source = sourceCopy;
@@ -259,4 +332,4 @@ public class Edge extends GraphElement {
     }
 }
 
-//  [Last modified: 2021 01 10 at 14:42:33 GMT]
+//  [Last modified: 2026 10 17 at 19:13:58 GMT]
@@ -6,10 +6,12 @@ package edu.ncsu.csc.Galant.graph.component;
 
 import java.awt.Point;
 import java.awt.geom.Point2D;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
 import java.util.Collection;
 
 import edu.ncsu.csc.Galant.GalantException;
@@ -22,6 +24,8 @@ import edu.ncsu.csc.Galant.graph.datastructure.NodeList;
 import edu.ncsu.csc.Galant.graph.datastructure.EdgeList;
 import edu.ncsu.csc.Galant.graph.datastructure.EdgeSet;
 import edu.ncsu.csc.Galant.graph.datastructure.NodeSet;
+import edu.ncsu.csc.Galant.graph.datastructure.LongHashMap;
+import edu.ncsu.csc.Galant.graph.datastructure.IdRegistry;
 import edu.ncsu.csc.Galant.logging.LogHelper;
 
 /**
@@ -42,10 +46,64 @@ public class Graph {
 
   private NodeList nodes;
 
-  private TreeMap<Integer, Node> nodeById = new TreeMap<Integer, Node>();
+  private IdRegistry<Node> nodeById = new IdRegistry<Node>();
 
   private EdgeList edges;
 
+  /**
+   * Caches of the nodes and edges that are in scope (not deleted) in the
+   * latest state, built on demand and discarded by invalidateLiveElements()
+   * whenever a node or edge is added, removed, deleted or undeleted. A
+   * cached list is never modified once built, so a reader (e.g., the
+   * drawing thread) can iterate over it while an algorithm makes changes.
+   * The lock guards the caches, not the graph itself.
+   */
+  private final Object liveElementLock = new Object();
+  private NodeList liveNodes;
+  private EdgeList liveEdges;
+  private List<Node> liveNodeView;
+  private List<Edge> liveEdgeView;
+  private int liveNodeIds;
+  private int liveEdgeIds;
+
+  /**
+   * Adjacency structure of the nodes and edges in scope, also rebuilt on
+   * demand after invalidateLiveElements(); adjacencyMisses counts requests
+   * from nodes that were answered without it since it was discarded
+   */
+  private Adjacency adjacency;
+  private int adjacencyMisses;
+
+  /**
+   * Edges indexed by the id's of their endpoints (see endpointKey()); the
+   * value for a key is an Edge or, if there are multiple edges between the
+   * same endpoints, an EdgeList in the order they were added. Deleted edges
+   * stay in the index and are skipped by findEdge(). Built the first time
+   * an edge is looked up and maintained as edges are added and removed.
+   */
+  private LongHashMap<Object> edgeByEndpoints;
+
+  /**
+   * Nodes and edges in scope at recently requested (display) states; these
+   * are what the graph panel draws, repeatedly, for each state
+   */
+  private static final int CACHED_STATES = 32;
+  private final StateCache<Node> nodesInState = new StateCache<Node>();
+  private final StateCache<Edge> edgesInState = new StateCache<Edge>();
+
+  /**
+   * A map from state number to a read-only list that evicts the least
+   * recently used state when full
+   */
+  private static class StateCache<T> extends LinkedHashMap<Integer, List<T>> {
+    private static final long serialVersionUID = 1L;
+    StateCache() { super(16, 0.75f, true); }
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+      return size() > CACHED_STATES;
+    }
+  }
+
   private MessageBanner banner;
 
     /**
@@ -171,6 +229,7 @@ public class Graph {
         for ( Edge edge : this.edges ) {
             edge.rollBackToState(currentState);
         }
+        invalidateLiveElements();
     }
     
     /**
@@ -197,7 +256,8 @@ public class Graph {
         else {
             message = "Max edit state " + maxEditState + " reached";
         }
-        this.graphWindow.updateStatusLabel(message);
+        if ( this.graphWindow != null )
+            this.graphWindow.updateStatusLabel(message);
     }
 
     /**
@@ -214,7 +274,8 @@ public class Graph {
             message = "Edit state is 0, no undo possible, max edit state is "
                 + maxEditState;
         }
-        this.graphWindow.updateStatusLabel(message);
+        if ( this.graphWindow != null )
+            this.graphWindow.updateStatusLabel(message);
     }
     
     /**
@@ -272,7 +333,7 @@ public class Graph {
         copyOfGraph.edges = new EdgeList();
         EdgeList edgeListCopy = new EdgeList();
         NodeList nodeListCopy = new NodeList();
-        TreeMap<Integer, Node> copyOfNodeById = new TreeMap<Integer, Node>();
+        IdRegistry<Node> copyOfNodeById = new IdRegistry<Node>();
 
         for( Node originalNode : this.getNodes(this.editState) ) {
             Node copiedNode = originalNode.copyNode(copyOfGraph);
@@ -303,7 +364,6 @@ public class Graph {
          * nontrivial process
          */
         copyOfGraph.layerInformation = this.layerInformation;
-        TreeMap<Integer, Node> nodeByIdCopy = new TreeMap<Integer, Node>(this.nodeById);
         copyOfGraph.banner = this.banner;
         // the following two statements are probably not needed
         copyOfGraph.nextEdgeId = this.nextEdgeId;
@@ -545,7 +605,8 @@ public class Graph {
   /**
    * Methods that cause labels and weights to be shown or hidden during
    * algorithm execution. Typically, an algorithm will declare its intent
-   * at the beginning.
+   * at the beginning. They have no effect when there is no graph window,
+   * e.g., in a batch run.
    */
 
   /**
@@ -553,28 +614,28 @@ public class Graph {
    * also toggles the button in the graph window if appropriate
    */
   public void showNodeLabels(boolean show) {
-    graphWindow.showNodeLabels(show);
+    if ( graphWindow != null ) graphWindow.showNodeLabels(show);
   }
   /**
    * displays node weights if show is true, hides them if show is false
    * also toggles the button in the graph window if appropriate
    */
   public void showNodeWeights(Boolean show) {
-    graphWindow.showNodeWeights(show);
+    if ( graphWindow != null ) graphWindow.showNodeWeights(show);
   }
   /**
    * displays edge labels if show is true, hides them if show is false
    * also toggles the button in the graph window if appropriate
    */
   public void showEdgeLabels(boolean show) {
-    graphWindow.showEdgeLabels(show);
+    if ( graphWindow != null ) graphWindow.showEdgeLabels(show);
   }
   /**
    * displays edge weights if show is true, hides them if show is false
    * also toggles the button in the graph window if appropriate
    */
   public void showEdgeWeights(Boolean show) {
-    graphWindow.showEdgeWeights(show);
+    if ( graphWindow != null ) graphWindow.showEdgeWeights(show);
   }
 
   /**
@@ -745,6 +806,14 @@ public class Graph {
     banner.set(message);
   }
 
+  /**
+   * @return the message banner, whose history holds all messages; used
+   * when a run is recorded or replayed (see TraceWriter, TraceReader)
+   */
+  MessageBanner getBanner() {
+    return banner;
+  }
+
   /**
    * @param state the algorithm state for the desired message
    * @return the current message banner
@@ -753,16 +822,73 @@ public class Graph {
     return banner.get(state);
   }
 
+  /**
+   * Discards the cached lists of nodes and edges that are in scope; called
+   * whenever a node or edge is added or removed or the deleted attribute of
+   * one of them changes.
+   */
+  void invalidateLiveElements() {
+    synchronized ( liveElementLock ) {
+      liveNodes = null;
+      liveEdges = null;
+      adjacency = null;
+      adjacencyMisses = 0;
+      nodesInState.clear();
+      edgesInState.clear();
+    }
+  }
+
+  /**
+   * @return the (cached) list of nodes that are currently in scope, i.e.,
+   * have not been deleted; must not be modified
+   */
+  private NodeList currentNodes() {
+    synchronized ( liveElementLock ) {
+      if ( liveNodes == null ) {
+        NodeList inScope = new NodeList();
+        int maxId = 0;
+        for ( Node v : this.nodes ) {
+          if ( v.inScope() ) {
+            inScope.add(v);
+            if ( v.getId() > maxId ) maxId = v.getId();
+          }
+        }
+        liveNodes = inScope;
+        liveNodeView = Collections.unmodifiableList(inScope);
+        liveNodeIds = maxId + 1;
+      }
+      return liveNodes;
+    }
+  }
+
+  /**
+   * @return the (cached) list of edges that are currently in scope; must
+   * not be modified
+   */
+  private EdgeList currentEdges() {
+    synchronized ( liveElementLock ) {
+      if ( liveEdges == null ) {
+        EdgeList inScope = new EdgeList();
+        int maxId = 0;
+        for ( Edge e : this.edges ) {
+          if ( e.inScope() ) {
+            inScope.add(e);
+            if ( e.getId() > maxId ) maxId = e.getId();
+          }
+        }
+        liveEdges = inScope;
+        liveEdgeView = Collections.unmodifiableList(inScope);
+        liveEdgeIds = maxId + 1;
+      }
+      return liveEdges;
+    }
+  }
+
   /**
    * @return the number of <code>Node</code>s in the current <code>Graph</code>
    */
   public int numberOfNodes() {
-    int count = 0;
-    for ( Node n : nodes ) {
-      if ( n.inScope() )
-        count++;
-    }
-    return count;
+    return currentNodes().size();
   }
 
   /**
@@ -771,24 +897,17 @@ public class Graph {
    * id's start at 0 and are contiguous.
    */
   public int nodeIds() {
-    int maxId = 0;
-    for ( Node currentNode : nodes ) {
-      if ( currentNode.inScope() && currentNode.getId() > maxId )
-        maxId = currentNode.getId();
+    synchronized ( liveElementLock ) {
+      currentNodes();
+      return liveNodeIds;
     }
-    return maxId + 1;
   }
 
   /**
    * @return the number of <code>Edge</code>s in the current <code>Graph</code>
    */
   public int numberOfEdges() {
-    int count = 0;
-    for ( Edge edge : edges ) {
-      if ( edge.inScope() )
-        count++;
-    }
-    return count;
+    return currentEdges().size();
   }
 
   /**
@@ -798,13 +917,10 @@ public class Graph {
    * to avoid confusion.
    */
   public int edgeIds() {
-    int maxId = 0;
-    for ( Edge currentEdge : edges ) {
-      if ( currentEdge.inScope()
-           && currentEdge.getId() > maxId )
-        maxId = currentEdge.getId();
+    synchronized ( liveElementLock ) {
+      currentEdges();
+      return liveEdgeIds;
     }
-    return maxId + 1;
   }
 
   /**
@@ -819,6 +935,42 @@ public class Graph {
    */
   public void setDirected(boolean directed) {
       this.directed = directed;
+      invalidateLiveElements();
+      discardEdgeIndex();
+  }
+
+  /**
+   * @return a snapshot of the adjacency structure of the nodes and edges
+   * currently in scope, for traversals that do not create lists; the
+   * snapshot is shared and rebuilt only after the graph changes
+   */
+  public Adjacency adjacency() {
+    synchronized ( liveElementLock ) {
+      if ( adjacency == null ) {
+        adjacency = new Adjacency(currentNodes(), nodeIds(), directed);
+      }
+      return adjacency;
+    }
+  }
+
+  /**
+   * Used by the methods of Node that return incident edges or neighbors.
+   * Rebuilding the snapshot takes time proportional to the size of the
+   * graph, so, when an algorithm alternates between changing the graph and
+   * looking at a few nodes, it is cheaper for each node to examine its own
+   * incidence list. The snapshot is therefore rebuilt only after as many
+   * requests as there are nodes.
+   *
+   * @return the adjacency snapshot or null if the node should do without
+   */
+  Adjacency adjacencyIfWorthwhile() {
+    synchronized ( liveElementLock ) {
+      if ( adjacency == null
+           && ++adjacencyMisses <= currentNodes().size() ) {
+        return null;
+      }
+      return adjacency();
+    }
   }
 
   /**
@@ -826,13 +978,19 @@ public class Graph {
    * only checks to see if a node has been deleted.
    */
   public NodeList getNodes() {
-    NodeList retNodes = new NodeList();
-    for ( Node v : this.nodes ) {
-      if ( v.inScope() ) {
-        retNodes.add(v);
-      }
+    return new NodeList(currentNodes());
+  }
+
+  /**
+   * @return a read-only view of the nodes currently in scope; unlike
+   * getNodes(), no copy is made. The view does not reflect later additions
+   * or deletions; call again to see them.
+   */
+  public List<Node> nodeView() {
+    synchronized ( liveElementLock ) {
+      currentNodes();
+      return liveNodeView;
     }
-    return retNodes;
   }
 
   /**
@@ -840,13 +998,28 @@ public class Graph {
    */
   public NodeList getNodes(int state)
   {
-    NodeList retNodes = new NodeList();
-    for ( Node n : this.nodes ) {
-      if ( n.inScope(state) ) {
-        retNodes.add(n);
+    return new NodeList(nodeView(state));
+  }
+
+  /**
+   * @return a read-only view of the nodes that exist in the given state,
+   * served from a cache of recently requested states
+   */
+  public List<Node> nodeView(int state) {
+    synchronized ( liveElementLock ) {
+      List<Node> view = nodesInState.get(state);
+      if ( view == null ) {
+        NodeList inScope = new NodeList();
+        for ( Node n : this.nodes ) {
+          if ( n.inScope(state) ) {
+            inScope.add(n);
+          }
+        }
+        view = Collections.unmodifiableList(inScope);
+        nodesInState.put(state, view);
       }
+      return view;
     }
-    return retNodes;
   }
 
     /**
@@ -866,6 +1039,7 @@ public class Graph {
    */
   public void setNodes(Collection<Node> nodes) {
     this.nodes = new NodeList(nodes);
+    invalidateLiveElements();
   }
 
   /**
@@ -873,13 +1047,19 @@ public class Graph {
    */
   public EdgeList getEdges()
   {
-    EdgeList retEdges = new EdgeList();
-    for ( Edge e : this.edges ) {
-      if ( e.inScope() ) {
-        retEdges.add(e);
-      }
+    return new EdgeList(currentEdges());
+  }
+
+  /**
+   * @return a read-only view of the edges currently in scope; unlike
+   * getEdges(), no copy is made. The view does not reflect later additions
+   * or deletions; call again to see them.
+   */
+  public List<Edge> edgeView() {
+    synchronized ( liveElementLock ) {
+      currentEdges();
+      return liveEdgeView;
     }
-    return retEdges;
   }
 
   /**
@@ -887,13 +1067,28 @@ public class Graph {
    */
   public EdgeList getEdges(int state)
   {
-    EdgeList retEdges = new EdgeList();
-    for ( Edge e : this.edges ) {
-      if ( e.inScope(state) ) {
-        retEdges.add(e);
+    return new EdgeList(edgeView(state));
+  }
+
+  /**
+   * @return a read-only view of the edges that exist in the given state,
+   * served from a cache of recently requested states
+   */
+  public List<Edge> edgeView(int state) {
+    synchronized ( liveElementLock ) {
+      List<Edge> view = edgesInState.get(state);
+      if ( view == null ) {
+        EdgeList inScope = new EdgeList();
+        for ( Edge e : this.edges ) {
+          if ( e.inScope(state) ) {
+            inScope.add(e);
+          }
+        }
+        view = Collections.unmodifiableList(inScope);
+        edgesInState.put(state, view);
       }
+      return view;
     }
-    return retEdges;
   }
 
     /**
@@ -912,52 +1107,28 @@ public class Graph {
    * @return the edges as a set
    */
   public EdgeSet getEdgeSet() {
-    EdgeSet retEdges = new EdgeSet();
-    for ( Edge e : this.edges ) {
-      if ( e.inScope() ) {
-        retEdges.add(e);
-      }
-    }
-    return retEdges;
+    return new EdgeSet(currentEdges());
   }
 
   /**
    * @return the nodes as a set
    */
   public NodeSet getNodeSet() {
-    NodeSet retNodes = new NodeSet();
-    for ( Node v : this.nodes ) {
-      if ( v.inScope() ) {
-        retNodes.add(v);
-      }
-    }
-    return retNodes;
+    return new NodeSet(currentNodes());
   }
 
   /**
    * @return all edges at the current algorithm state as a set
    */
   public EdgeSet getEdgeSet(int state) {
-    EdgeSet retEdges = new EdgeSet();
-    for ( Edge e : this.edges ) {
-      if ( e.inScope(state) ) {
-        retEdges.add(e);
-      }
-    }
-    return retEdges;
+    return new EdgeSet(edgeView(state));
   }
 
   /**
    * @return all nodes at the current algorithm state as a set
    */
   public NodeSet getNodeSet(int state) {
-    NodeSet retNodes = new NodeSet();
-    for ( Node v : this.nodes ) {
-      if ( v.inScope(state) ) {
-        retNodes.add(v);
-      }
-    }
-    return retNodes;
+    return new NodeSet(nodeView(state));
   }
 
   /**
@@ -966,6 +1137,8 @@ public class Graph {
    */
   public void setEdges(Collection<Edge> edges) {
     this.edges = new EdgeList(edges);
+    invalidateLiveElements();
+    discardEdgeIndex();
   }
 
   /**
@@ -975,21 +1148,131 @@ public class Graph {
     e.setDeleted(true);
   }
 
+  /**
+   * @return the key of an edge with the given endpoints in edgeByEndpoints;
+   * the order of the endpoints does not matter if the graph is undirected
+   */
+  private long endpointKey(int sourceId, int targetId) {
+    if ( ! directed && sourceId > targetId ) {
+      int temp = sourceId; sourceId = targetId; targetId = temp;
+    }
+    return ((long) sourceId << 32) | (targetId & 0xffffffffL);
+  }
+
+  /**
+   * Discards edgeByEndpoints, to be rebuilt when next needed; called when
+   * the edges are replaced or keys change because directedness does
+   */
+  private void discardEdgeIndex() {
+    synchronized ( liveElementLock ) {
+      edgeByEndpoints = null;
+    }
+  }
+
+  /**
+   * Adds the edge to edgeByEndpoints if the index exists
+   */
+  private void indexEdge(Edge e) {
+    synchronized ( liveElementLock ) {
+      if ( edgeByEndpoints == null ) return;
+      addToEdgeIndex(e);
+    }
+  }
+
+  private void addToEdgeIndex(Edge e) {
+    long key = endpointKey(e.getSourceNode().getId(),
+                           e.getTargetNode().getId());
+    Object existing = edgeByEndpoints.get(key);
+    if ( existing == null ) {
+      edgeByEndpoints.put(key, e);
+    }
+    else if ( existing instanceof Edge ) {
+      EdgeList parallelEdges = new EdgeList();
+      parallelEdges.add((Edge) existing);
+      parallelEdges.add(e);
+      edgeByEndpoints.put(key, parallelEdges);
+    }
+    else {
+      ((EdgeList) existing).add(e);
+    }
+  }
+
+  /**
+   * Removes the edge from edgeByEndpoints if the index exists
+   */
+  private void unindexEdge(Edge e) {
+    synchronized ( liveElementLock ) {
+      if ( edgeByEndpoints == null ) return;
+      long key = endpointKey(e.getSourceNode().getId(),
+                             e.getTargetNode().getId());
+      Object existing = edgeByEndpoints.get(key);
+      if ( existing == e ) {
+        edgeByEndpoints.remove(key);
+      }
+      else if ( existing instanceof EdgeList ) {
+        EdgeList parallelEdges = (EdgeList) existing;
+        parallelEdges.remove(e);
+        if ( parallelEdges.size() == 1 ) {
+          edgeByEndpoints.put(key, parallelEdges.get(0));
+        }
+      }
+    }
+  }
+
+  /**
+   * @return true if e goes from source to target or, if the graph is
+   * undirected, connects them
+   */
+  private boolean connects(Edge e, Node source, Node target) {
+    if ( ! e.inScope() ) return false;
+    if ( e.getSourceNode() == source && e.getTargetNode() == target )
+      return true;
+    return ! directed
+      && e.getSourceNode() == target && e.getTargetNode() == source;
+  }
+
+  /**
+   * @return the first edge (in order of addition) with the given source and
+   * target that has not been deleted, or null if there is none; if the
+   * graph is directed, source and target must match. Takes constant
+   * (expected) time, except for the first call, which builds the index.
+   */
+  public Edge findEdge(Node source, Node target) {
+    Object found;
+    synchronized ( liveElementLock ) {
+      if ( edgeByEndpoints == null ) {
+        edgeByEndpoints = new LongHashMap<Object>(edges.size());
+        for ( Edge e : edges ) {
+          addToEdgeIndex(e);
+        }
+      }
+      found = edgeByEndpoints.get(endpointKey(source.getId(),
+                                              target.getId()));
+      if ( found instanceof EdgeList ) {
+        for ( Edge e : (EdgeList) found ) {
+          if ( connects(e, source, target) ) return e;
+        }
+        return null;
+      }
+    }
+    if ( found != null && connects((Edge) found, source, target) ) {
+      return (Edge) found;
+    }
+    return null;
+  }
+
   /**
    * @return an edge with the given source and target if one exists; throws
    * an exception otherwise; if the graph is directed, source and target
    * must match.
    */
   public Edge getEdge(Node source, Node target) throws GalantException {
-    List<Edge> incidenceList
-      = source.getOutgoingEdges();
-    for ( Edge e : incidenceList ) {
-      if ( source.travel(e) == target ) {
-        return e;
-      }
+    Edge edge = findEdge(source, target);
+    if ( edge == null ) {
+      throw new GalantException("no edge with source " + source.getId()
+                                + " and target " + target.getId() + " exists");
     }
-    throw new GalantException("no edge with source " + source.getId()
-                              + " and target " + target.getId() + " exists");
+    return edge;
   }
 
   /**
@@ -1021,7 +1304,7 @@ public class Graph {
    * @returns true if a node with the given id exists
    */
   public boolean nodeIdExists(Integer id) {
-    return nodeById.containsKey(id);
+    return nodeById.contains(id);
   }
 
   /**
@@ -1038,15 +1321,15 @@ public class Graph {
                                 + "\n - in getNodeById");
     }
 
-    if ( ! nodeById.containsKey(id) ) {
+    Node n = nodeById.get(id);
+
+    if ( n == null ) {
       throw new GalantException("No node with id = "
                                 + id
                                 + " exists"
                                 + "\n - in getNodeById");
     }
 
-    Node n = nodeById.get(id);
-
     if ( n.isDeleted() ) {
       throw new GalantException("Node has been deleted, id = "
                                 + id
@@ -1091,6 +1374,7 @@ public class Graph {
     Node n = new Node(this, newId, x, y);
     nodes.add(n);
     nodeById.put(newId, n);
+    invalidateLiveElements();
 
     if ( this.startNode == null ) {
       this.startNode = n;
@@ -1120,6 +1404,7 @@ public class Graph {
     Node n = new Node(this, newId, x, y);
     nodes.add(n);
     nodeById.put(newId, n);
+    invalidateLiveElements();
 
     // probably not needed but couldn't hurt; maybe the algorithm
     // constructs a tree and then traverses it
@@ -1146,6 +1431,7 @@ public class Graph {
 
     nodes.add(n);
     nodeById.put(n.getId(), n);
+    invalidateLiveElements();
 
     if ( this.startNode == null ) {
       this.startNode = n;
@@ -1167,11 +1453,59 @@ public class Graph {
     edge.getSourceNode().addEdge(edge);
     edge.getTargetNode().addEdge(edge);
     edges.add(edge);
+    indexEdge(edge);
+    invalidateLiveElements();
     LogHelper.exitMethod(getClass(), "addEdge, hasExplicitEdgeIds = "
                          + hasExplicitEdgeIds);
     LogHelper.restoreState();
   }
 
+  /**
+   * Adds a node created by Node.decode() during parsing; unlike
+   * addNode(Node), nothing is logged, and cached lists of live elements
+   * are not discarded until initializeAfterParsing().
+   * @throw GalantException if the graph already has a node with the same id
+   */
+  public void addParsedNode(Node n) throws GalantException {
+    n.checkIdIsNew();
+    // the node may have been decoded in a thread that does not see the
+    // dispatch of a run (see GraphDispatch.enterRun())
+    n.dispatch = this.dispatch;
+    if ( layered ) {
+      layerInformation.addNode(n);
+    }
+    nodes.add(n);
+    nodeById.put(n.getId(), n);
+    if ( this.startNode == null ) {
+      this.startNode = n;
+    }
+  }
+
+  /**
+   * Adds an edge created by Edge.decode() during parsing, attaching it to
+   * the nodes with the given ids; as with addParsedNode(), nothing is
+   * logged.
+   * @throw GalantException if there is no node with one of the ids
+   */
+  public void addParsedEdge(Edge edge, int sourceId, int targetId)
+    throws GalantException {
+    edge.setEndpoints(getNodeById(sourceId), getNodeById(targetId));
+    addParsedEdge(edge);
+  }
+
+  /**
+   * Adds an edge whose endpoints, already in the graph, are known when it
+   * is created, as in TextGraphLoader; otherwise like
+   * addParsedEdge(Edge, int, int)
+   */
+  public void addParsedEdge(Edge edge) {
+    edge.dispatch = this.dispatch;
+    if ( edge.hasExplicitId() ) this.hasExplicitEdgeIds = true;
+    edge.getSourceNode().addEdge(edge);
+    edge.getTargetNode().addEdge(edge);
+    edges.add(edge);
+  }
+
   /**
    * Adds a new edge to the graph with the specified source and
    * target. Starts an algorithm step if appropriate.
@@ -1228,11 +1562,13 @@ public class Graph {
   public void removeEdge(Edge e) {
     LogHelper.enterMethod(getClass(), "removeEdge " + e);
     edges.remove(e);
+    unindexEdge(e);
 
     Node source = e.getSourceNode();
-    source.getIncidentEdges().remove(e);
+    source.getEdges().remove(e);
     Node target = e.getTargetNode();
-    target.getIncidentEdges().remove(e);
+    target.getEdges().remove(e);
+    invalidateLiveElements();
     LogHelper.exitMethod(getClass(), "removeEdge");
   }
 
@@ -1260,6 +1596,7 @@ public class Graph {
     }
 
     nodes.remove(n);
+    invalidateLiveElements();
     LogHelper.exitMethod(getClass(), "removeNode");
   }
 
@@ -1269,9 +1606,7 @@ public class Graph {
    */
   private int nextNodeId() {
     LogHelper.enterMethod(getClass(), "nextNodeId");
-    int id = 0;
-    if ( ! nodeById.isEmpty() )
-      id = nodeById.lastKey() + 1;
+    int id = nodeById.idBound();
     LogHelper.exitMethod(getClass(), "nextNodeId, id = " + id);
     return id;
   }
@@ -1362,7 +1697,17 @@ public class Graph {
           }
       }
       
-      if ( layered ) layerInformation.initializeAfterParsing();
+      initializeLayers();
+      invalidateLiveElements();
+      discardEdgeIndex();
+  }
+
+  /**
+   * Completes the layer information of a layered graph once all of its
+   * nodes have been added
+   */
+  void initializeLayers() {
+    if ( layered ) layerInformation.initializeAfterParsing();
   }
 
   /**
@@ -1370,85 +1715,114 @@ public class Graph {
    * algorithm is running
    */
   public String xmlString() {
-    LogHelper.disable();
-    LogHelper.enterMethod(getClass(), "xmlString");
-    String s = "";
-    s += "<?xml version=\"1.0\" encoding=\"UTF-8\"?> \n";
-    s += "<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\" \n";
-    s += "xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" \n";
-    s += "xsi:schemaLocation=\"http://graphml.graphdrawing.org/xmlns \n";
-    s += "http://graphml.graphdrawing.org/xmlns/1.0/graphml.xsd\">\n";
-    s += " <graph ";
-    if ( name != null )
-      s += " name=\"" + name + "\"";
-    if ( comment != null )
-      s += " comment=\"" + comment + "\"";
-    if ( this.isLayered() ) {
-      s += " type=\"layered\"";
+    StringBuilder s = new StringBuilder();
+    try {
+      writeXml(s);
+    }
+    catch ( IOException e ) { // not thrown by a StringBuilder
+      throw new AssertionError(e);
+    }
+    return s.toString();
+  }
+
+  /**
+   * Returns a valid graphml representation of the graph; for use when you
+   * want to export the current state of a running algorithm.
+   */
+  public String xmlString(int state) {
+    StringBuilder s = new StringBuilder();
+    try {
+      writeXml(s, state);
+    }
+    catch ( IOException e ) { // not thrown by a StringBuilder
+      throw new AssertionError(e);
     }
-    s += " edgedefault=\"" + (this.isDirected() ? "directed" : "undirected") + "\"";
-    s += ">\n";
+    return s.toString();
+  }
+
+  /**
+   * Writes the text of xmlString() to out, e.g., a buffered Writer for a
+   * file; the text is never held in memory as a whole
+   */
+  public void writeXml(Appendable out) throws IOException {
+    LogHelper.disable();
+    LogHelper.enterMethod(getClass(), "writeXml");
+    writeGraphElement(out);
     for ( Node n : this.nodes ) {
       if ( ! n.inScope() ) continue;
-      s += "  " + n.xmlString() + "\n";
+      out.append("  ");
+      n.writeXml(out);
+      out.append('\n');
     }
     for ( Edge e : this.edges ) {
       if ( ! e.inScope() ) continue;
-      s += "  " + e.xmlString() + "\n";
+      out.append("  ");
+      e.writeXml(out);
+      out.append('\n');
     }
-    s += " </graph>";
-    s += "</graphml>";
-    LogHelper.exitMethod(getClass(), "xmlString");
+    out.append(" </graph>");
+    out.append("</graphml>");
+    LogHelper.exitMethod(getClass(), "writeXml");
     LogHelper.restoreState();
-    return s;
   }
 
   /**
-   * Returns a valid graphml representation of the graph; for use when you
-   * want to export the current state of a running algorithm.
+   * Writes the text of xmlString(state) to out
    */
-  public String xmlString(int state) {
+  public void writeXml(Appendable out, int state) throws IOException {
     LogHelper.disable();
-    LogHelper.enterMethod(getClass(), "xmlString(" + state + ")");
-    String s = "";
-    s += "<?xml version=\"1.0\" encoding=\"UTF-8\"?> \n";
-    s += "<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\" \n";
-    s += "xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" \n";
-    s += "xsi:schemaLocation=\"http://graphml.graphdrawing.org/xmlns \n";
-    s += "http://graphml.graphdrawing.org/xmlns/1.0/graphml.xsd\">\n";
-    s += " <graph ";
-    if ( name != null )
-      s += " name=\"" + name + "\"";
-    if ( comment != null )
-      s += " comment=\"" + comment + "\"";
-    if ( this.isLayered() ) {
-      s += " type=\"layered\"";
-    }
-    s += " edgedefault=\"" + (this.isDirected() ? "directed" : "undirected") + "\"";             //
-                                                                                                 // directed/undirected
-    s += ">\n";
+    LogHelper.enterMethod(getClass(), "writeXml(" + state + ")");
+    writeGraphElement(out);
     for ( Node n : this.nodes ) {
       LogHelper.logDebug( "  writing xml string for node " + n);
       if ( ! n.inScope(state) ) continue;
       LogHelper.logDebug("     node with id " + n.getId() + " is in scope");
-      String sN = n.xmlString(state);
-      if ( ! sN.trim().isEmpty() )
-        s += "  " + sN + "\n";
+      out.append("  ");
+      n.writeXml(out, state);
+      out.append('\n');
     }
     for ( Edge e : this.edges ) {
       LogHelper.logDebug("writing xml string for edge " + e);
       if ( ! e.inScope(state) ) continue;
       LogHelper.logDebug("     edge " + e + " is in scope");
-      String sE = e.xmlString(state);
-      if ( ! sE.trim().isEmpty() )
-        s += "  " + sE + "\n";
+      out.append("  ");
+      e.writeXml(out, state);
+      out.append('\n');
     }
-    s += " </graph>";
-    s += "</graphml>";
-    LogHelper.exitMethod(getClass(), "xmlString(" + state + ")");
+    out.append(" </graph>");
+    out.append("</graphml>");
+    LogHelper.exitMethod(getClass(), "writeXml(" + state + ")");
     LogHelper.restoreState();
-    return s;
+  }
+
+  /**
+   * Writes the xml declaration and the start tags of the graphml and graph
+   * elements
+   */
+  private void writeGraphElement(Appendable out) throws IOException {
+    out.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?> \n");
+    out.append("<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\" \n");
+    out.append("xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" \n");
+    out.append("xsi:schemaLocation=\"http://graphml.graphdrawing.org/xmlns \n");
+    out.append("http://graphml.graphdrawing.org/xmlns/1.0/graphml.xsd\">\n");
+    out.append(" <graph ");
+    if ( name != null ) {
+      out.append(" name=\"");
+      XmlText.appendEscaped(out, name);
+      out.append('"');
+    }
+    if ( comment != null ) {
+      out.append(" comment=\"");
+      XmlText.appendEscaped(out, comment);
+      out.append('"');
+    }
+    if ( this.isLayered() ) {
+      out.append(" type=\"layered\"");
+    }
+    out.append(" edgedefault=\"")
+      .append(this.isDirected() ? "directed" : "undirected").append('"');
+    out.append(">\n");
   }
 }
 
-// [Last modified: 2021 02 01 at 14:46:24 GMT]
+//  [Last modified: 2026 10 17 at 20:50:31 GMT]
@@ -1,5 +1,6 @@
 package edu.ncsu.csc.Galant.graph.component;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Comparator;
@@ -43,10 +44,11 @@ public class GraphElement implements Comparable<GraphElement> {
     protected GraphDispatch dispatch;
 
     /**
-     * The list of states that this element has been in up to this point --
-     * essentially the list of all changes.
+     * All changes this element has undergone up to this point, stored as a
+     * separate timeline for each attribute; a change to one attribute
+     * records only that attribute rather than a copy of all of them.
      */
-    protected List<GraphElementState> states;
+    protected AttributeHistory history;
 
     /**
      * Create a clean copy, to be used at the start of algorithm execution
@@ -60,10 +62,10 @@ public class GraphElement implements Comparable<GraphElement> {
      */
     public GraphElement(Graph graph) {
         this.dispatch = GraphDispatch.getInstance();
-        this.states = new ArrayList<GraphElementState>();
+        this.history = new AttributeHistory();
         this.graph = graph;
         try {
-            this.addState(new GraphElementState());
+            this.recordChange(currentStateNumber());
         } catch (Terminate t) { // should not happen
             t.printStackTrace();
         }
@@ -71,13 +73,14 @@ public class GraphElement implements Comparable<GraphElement> {
 
     /**
      * This constructor is used during parsing. The element is initialized
-     * with a single state whose attributes come from the list L
+     * with a single state whose attributes come from the list L; the history
+     * is established again at the end of initializeAfterParsing(), after L
+     * has been postprocessed.
      */
     public GraphElement(Graph graph, AttributeList L) {
         this.dispatch = GraphDispatch.getInstance();
         this.graph = graph;
-        this.states = new ArrayList<GraphElementState>();
-        this.states.add(new GraphElementState(L));
+        this.history = new AttributeHistory(0, L);
     }
 
     /**
@@ -86,45 +89,44 @@ public class GraphElement implements Comparable<GraphElement> {
      * @param graphState the initial state of the graph containing this element
      */
     protected void reset() {
-        ArrayList<GraphElementState> initialStates
-                = new ArrayList<GraphElementState>();
-        for (GraphElementState state : this.states) {
-            if (state.getState() > 0) {
-                break;
-            }
-            initialStates.add(state);
+        history.truncateAfter(0);
+        graph.invalidateLiveElements();
+    }
+
+    /**
+     * @return the state number to be used for a change to this element: the
+     * current algorithm state if the algorithm is running, the edit state of
+     * the working graph otherwise
+     */
+    private int currentStateNumber() {
+        if ( dispatch.isAnimationMode() ) {
+            return dispatch.getAlgorithmState();
         }
-        this.states = initialStates;
+        return dispatch.getWorkingGraph().getEditState();
     }
 
     /**
-     * @return a new state for this element; the new state will be identical to
-     * the current (latest one) except that it will be tagged with the current
-     * algorithm state if the algorithm is running; subsequent changes to this
-     * GraphElement will take place in the new state.
+     * Starts a step, if necessary, prior to a change to this element.
+     *
+     * @return the state number in which the change is to be recorded
      */
-    private GraphElementState newState() throws Terminate {
+    private int newState() throws Terminate {
         dispatch.startStepIfAnimationOrIncrementEditState();
-        GraphElementState latest = latestState();
-        GraphElementState elementState
-            = new GraphElementState(latest);
-        return elementState;
+        return currentStateNumber();
     }
 
     /**
-     * @return The last state on the list of states. This is the default for
-     * retrieving information about any attribute. If no latest state exists a
-     * "blank" one with all attributes = null is returned.
+     * @return A snapshot of the latest state of this element. If the element
+     * has no state yet, a "blank" one with all attributes = null is returned.
      */
     public GraphElementState latestState() {
-        GraphElementState state = null;
-        if (states.size() != 0) {
-            state = states.get(states.size() - 1);
-        } else {
+        GraphElementState state = history.stateAt(Integer.MAX_VALUE);
+        if ( state == null ) {
             state = new GraphElementState();
         }
         return state;
     }
+
     /**
      * This method is vital for retrieving the most recent information about a
      * graph element (node or edge), where most recent is defined relative to a
@@ -134,129 +136,126 @@ public class GraphElement implements Comparable<GraphElement> {
      * @see edu.ncsu.csc.Galant.algorithm.AlgorithmExecutor
      * @param stateNumber the numerical indicator (timestamp) of a state,
      * usually the current display state
-     * @return the latest instance of GraphElementState that was created before
-     * the given time stamp, or null if the element did not exist before the
-     * time stamp.
+     * @return a snapshot of this element as of the given time stamp, or null
+     * if the element did not exist before the time stamp.
      */
     public GraphElementState getLatestValidState(int stateNumber) {
-        GraphElementState toReturn = null;
-        int stateIndex = states.size() - 1;
-        while (stateIndex >= 0) {
-            GraphElementState state = states.get(stateIndex);
-            if (state.getState() <= stateNumber) {
-                toReturn = state;
-                break;
-            }
-            stateIndex--;
-        }
-        return toReturn;
+        return history.stateAt(stateNumber);
     }
 
     /**
-     * Adds the given state to the list of states for this element. If there is
-     * already a state having the same algorithm state (time stamp), there is no
-     * need to add another one. Such a situation might arise if there are
-     * multiple state changes to this element between a beginStep()/endStep()
-     * pair or if no algorithm is running. If an algorithm is running, this
-     * method initiates synchronization with the master thread to indicate that
-     * the changes corresponding to the added state are completed
+     * Notes that this element changed in the given state. If this is the
+     * first change in that state and an algorithm is running, initiates
+     * synchronization with the master thread to indicate that the changes
+     * corresponding to the state are completed. There may be multiple
+     * changes to this element between a beginStep()/endStep() pair or if no
+     * algorithm is running.
      *
-     * @invariant states are always sorted by state number.
-     */
-    private void addState(GraphElementState stateToAdd) throws Terminate {
-        int stateNumber = stateToAdd.getState();
-        boolean found = false;
-        for (int i = states.size() - 1; i >= stateNumber; i--) {
-            GraphElementState state = states.get(i);
-            if (state.getState() == stateNumber) {
-                states.set(i, stateToAdd);
-                found = true;
-                break;
-            }
-        }
-        if (!found) {
-            states.add(stateToAdd);
+     * @invariant the history is always sorted by state number.
+     */
+    private void recordChange(int stateNumber) throws Terminate {
+        if ( history.recordChange(stateNumber) ) {
             dispatch.pauseExecutionIfRunning();
         }
     }
 
+    /**
+     * Sets an attribute in the latest existing state without creating a new
+     * state; used to establish initial values when an element is created.
+     */
+    protected void setInLatestState(String key, Integer value) {
+        if ( value == null ) {
+            history.remove(history.latestStateNumber(), key);
+        }
+        else {
+            history.set(history.latestStateNumber(),
+                        new IntegerAttribute(key, value));
+        }
+    }
+
+    /**
+     * Records a new value for an attribute or, if the value is null, the
+     * removal of the attribute.
+     *
+     * @return true if the attribute was present prior to the call
+     */
+    private boolean setAttribute(String key, Attribute attribute)
+        throws Terminate {
+        int stateNumber = newState();
+        boolean found = (attribute == null)
+            ? history.remove(stateNumber, key)
+            : history.set(stateNumber, attribute);
+        if ( DELETED.equals(key) && graph != null ) {
+            // the set of nodes/edges in scope has changed
+            graph.invalidateLiveElements();
+        }
+        recordChange(stateNumber);
+        return found;
+    }
+
     /**
      * Removes state history beyond the current state - used in edit
      * mode when an edit takes place after undo's
      */
     protected void rollBackToState(int currentState) {
-        List<GraphElementState> newStates = new ArrayList<GraphElementState>();
-        for ( int i = 0; i < this.states.size(); i++ ) {
-            GraphElementState theState = states.get(i);
-            if ( theState.getState() > currentState ) break;
-            newStates.add(theState);
-        }
-        this.states = newStates;
+        history.truncateAfter(currentState);
     }
     
     /**
      * Effectively removes all states except for a copy of the current
-     * one from the list of states.
+     * one from the history.
      * Invoked during the process of creating a copy of the graph
      * element - Node or Edge when switching from edit mode to
      * animation mode.
      */
-    public ArrayList<GraphElementState> copyCurrentState() {
-        GraphElementState currentState
-            = new GraphElementState(this.getLatestValidState(this.graph.getEditState()));
-        ArrayList<GraphElementState> statesCopy = new ArrayList<GraphElementState>();
-        statesCopy.add(currentState);
-        return statesCopy;
+    public AttributeHistory copyCurrentState() {
+        AttributeList currentAttributes
+            = history.attributesAt(this.graph.getEditState());
+        return new AttributeHistory(currentStateNumber(), currentAttributes);
     }
 
     /**
      * ************ Integer attributes **************
      */
     public boolean set(String key, Integer value) throws Terminate {
-        GraphElementState newState = newState();
-        boolean found = newState.set(key, value);
-        addState(newState);
-        return found;
+        return setAttribute(key,
+                            value == null ? null : new IntegerAttribute(key, value));
     }
 
     public Integer getInteger(String key) {
-        GraphElementState state = latestState();
-        return state.getAttributes().getInteger(key);
+        Attribute attribute = history.getLatest(key);
+        return attribute == null ? null : attribute.getIntegerValue();
     }
 
     public Integer getInteger(int state, String key) {
-        GraphElementState validState = getLatestValidState(state);
-        return validState == null ? null : validState.getAttributes().getInteger(key);
+        Attribute attribute = history.get(state, key);
+        return attribute == null ? null : attribute.getIntegerValue();
     }
 
     /**
      * ************ Double attributes **************
      */
     public boolean set(String key, Double value) throws Terminate {
-        GraphElementState newState = newState();
-        boolean found = newState.set(key, value);
-        addState(newState);
-        return found;
+        return setAttribute(key,
+                            value == null ? null : new DoubleAttribute(key, value));
     }
 
     public Double getDouble(String key) {
-        GraphElementState state = latestState();
-        return state.getAttributes().getDouble(key);
+        Attribute attribute = history.getLatest(key);
+        return attribute == null ? null : attribute.getDoubleValue();
     }
 
     public Double getDouble(int state, String key) {
-        GraphElementState validState = getLatestValidState(state);
-        return validState == null ? null : validState.getAttributes().getDouble(key);
+        Attribute attribute = history.get(state, key);
+        return attribute == null ? null : attribute.getDoubleValue();
     }
 
     /**
      * ************ Boolean attributes **************
      */
     public boolean set(String key, Boolean value) throws Terminate {
-        GraphElementState newState = newState();
-        boolean found = newState.set(key, value);
-        addState(newState);
-        return found;
+        return setAttribute(key,
+                            value == null ? null : new BooleanAttribute(key, value));
     }
 
     /**
@@ -275,19 +274,16 @@ public class GraphElement implements Comparable<GraphElement> {
      * that it's false.
      */
     public Boolean getBoolean(String key) {
-        GraphElementState state = latestState();
-        return state.getAttributes().getBoolean(key);
+        Attribute attribute = history.getLatest(key);
+        return attribute == null ? false : attribute.getBooleanValue();
     }
 
     public Boolean getBoolean(int state, String key) {
-        GraphElementState validState = getLatestValidState(state);
-        if (validState == null) {
-            return false;
-        }
-        if (validState.getAttributes() == null) {
+        if ( ! history.isCreated(state) ) {
             return false;
         }
-        return validState.getAttributes().getBoolean(key);
+        Attribute attribute = history.get(state, key);
+        return attribute == null ? false : attribute.getBooleanValue();
     }
 
     /**
@@ -305,20 +301,93 @@ public class GraphElement implements Comparable<GraphElement> {
      * ************ String attributes **************
      */
     public boolean set(String key, String value) throws Terminate {
-        GraphElementState newState = newState();
-        boolean found = newState.set(key, value);
-        addState(newState);
-        return found;
+        return setAttribute(key,
+                            value == null ? null : new StringAttribute(key, value));
     }
 
     public String getString(String key) {
-        GraphElementState state = latestState();
-        return state.getAttributes().getString(key);
+        Attribute attribute = history.getLatest(key);
+        return attribute == null ? null : attribute.getStringValue();
     }
 
     public String getString(int state, String key) {
-        GraphElementState validState = getLatestValidState(state);
-        return validState == null ? null : validState.getAttributes().getString(key);
+        Attribute attribute = history.get(state, key);
+        return attribute == null ? null : attribute.getStringValue();
+    }
+
+    /**
+     * ************ Primitive access **************
+     * The following avoid boxing; use the has... methods to distinguish a
+     * missing attribute (or one of another type) from a legitimate value.
+     */
+    public boolean hasInteger(String key) {
+        Attribute attribute = history.getLatest(key);
+        return attribute != null && attribute.isInteger();
+    }
+
+    public boolean hasDouble(String key) {
+        Attribute attribute = history.getLatest(key);
+        return attribute != null && attribute.isDouble();
+    }
+
+    /**
+     * @return the latest value of the attribute whose key has the given id
+     * (see AttributeKeys), or null; used by comparators, which resolve the
+     * key once rather than on every comparison
+     */
+    public Attribute getAttributeById(int keyId) {
+        return history.getLatest(keyId);
+    }
+
+    /**
+     * @return the value of an Integer attribute, 0 if there is none
+     */
+    public int getIntegerValue(String key) {
+        Attribute attribute = history.getLatest(key);
+        return attribute == null ? 0 : attribute.intValue();
+    }
+
+    public int getIntegerValue(int state, String key) {
+        Attribute attribute = history.get(state, key);
+        return attribute == null ? 0 : attribute.intValue();
+    }
+
+    /**
+     * @return the value of a Double attribute, NaN if there is none
+     */
+    public double getDoubleValue(String key) {
+        Attribute attribute = history.getLatest(key);
+        return attribute == null ? Double.NaN : attribute.doubleValue();
+    }
+
+    public double getDoubleValue(int state, String key) {
+        Attribute attribute = history.get(state, key);
+        return attribute == null ? Double.NaN : attribute.doubleValue();
+    }
+
+    /**
+     * @return the value of a Boolean attribute, false if there is none
+     */
+    public boolean getBooleanValue(String key) {
+        Attribute attribute = history.getLatest(key);
+        return attribute != null && attribute.booleanValue();
+    }
+
+    public boolean getBooleanValue(int state, String key) {
+        Attribute attribute = history.get(state, key);
+        return attribute != null && attribute.booleanValue();
+    }
+
+    public boolean set(String key, int value) throws Terminate {
+        return setAttribute(key, new IntegerAttribute(key, value));
+    }
+
+    public boolean set(String key, double value) throws Terminate {
+        return setAttribute(key, new DoubleAttribute(key, value));
+    }
+
+    public boolean set(String key, boolean value) throws Terminate {
+        return setAttribute(key, new BooleanAttribute(key, value));
     }
 
     /**
@@ -326,9 +395,7 @@ public class GraphElement implements Comparable<GraphElement> {
      * information appropriately.
      */
     public void remove(String key) throws Terminate {
-        GraphElementState newState = newState();
-        newState.remove(key);
-        addState(newState);
+        setAttribute(key, null);
     }
 
     public boolean isDeleted() {
@@ -355,8 +422,7 @@ public class GraphElement implements Comparable<GraphElement> {
      * given one.
      */
     public boolean isCreated(int state) {
-        GraphElementState creationState = getLatestValidState(state);
-        return creationState == null ? false : true;
+        return history.isCreated(state);
     }
 
     /**
@@ -628,6 +694,9 @@ public class GraphElement implements Comparable<GraphElement> {
                 L.set(HIDDEN, hidden);
             }
         }
+
+        // the attributes in L are now in final form
+        this.history = new AttributeHistory(0, L);
     }
 
     /**
@@ -697,10 +766,50 @@ public class GraphElement implements Comparable<GraphElement> {
         return elementState.attributesWithoutId();
     }
 
+    /**
+     * The following write the text of the corresponding methods above to
+     * out instead of returning it, so that a large graph can be written
+     * to a file without building the text in memory (see Graph.writeXml())
+     */
+    public void writeXml(Appendable out) throws IOException {
+        latestState().writeXml(out);
+    }
+
+    public void writeAttributesWithoutPosition(Appendable out)
+        throws IOException {
+        latestState().writeAttributesWithoutPosition(out);
+    }
+
+    public void writeAttributesWithoutId(Appendable out) throws IOException {
+        latestState().writeAttributesWithoutId(out);
+    }
+
+    public void writeXml(Appendable out, int state) throws IOException {
+        GraphElementState elementState = getLatestValidState(state);
+        if (elementState != null) {
+            elementState.writeXml(out);
+        }
+    }
+
+    public void writeAttributesWithoutPosition(Appendable out, int state)
+        throws IOException {
+        GraphElementState elementState = getLatestValidState(state);
+        if (elementState != null) {
+            elementState.writeAttributesWithoutPosition(out);
+        }
+    }
+
+    public void writeAttributesWithoutId(Appendable out, int state)
+        throws IOException {
+        GraphElementState elementState = getLatestValidState(state);
+        if (elementState != null) {
+            elementState.writeAttributesWithoutId(out);
+        }
+    }
+
     public int compareTo(GraphElement other) {
-        Double thisDouble = new Double(this.getWeight());
-        Double otherDouble = new Double(other.getWeight());
-        return thisDouble.compareTo(otherDouble);
+        return Double.compare(this.getDoubleValue(WEIGHT),
+                              other.getDoubleValue(WEIGHT));
     }
 
     /**
@@ -708,19 +817,7 @@ public class GraphElement implements Comparable<GraphElement> {
      * designated attribute; the attribute must have a Double value
      */
     public static GraphElementComparator getDoubleComparator(String attribute) {
-        return new GraphElementComparator(attribute, false) {
-            public int compare(GraphElement ge_1, GraphElement ge_2) {
-                Double value_1 = ge_1.getDouble(attribute);
-                Double value_2 = ge_2.getDouble(attribute);
-                if (value_1 > value_2) {
-                    return 1;
-                } else if (value_2 > value_1) {
-                    return -1;
-                } else {
-                    return 0;
-                }
-            }
-        };
+        return getDoubleComparator(attribute, false);
     }
 
     /**
@@ -728,35 +825,15 @@ public class GraphElement implements Comparable<GraphElement> {
      * designated attribute; the attribute must have an Integer value
      */
     public static GraphElementComparator getIntegerComparator(String attribute) {
-        return new GraphElementComparator(attribute, false) {
-            @Override
-            public int compare(GraphElement ge_1, GraphElement ge_2) {
-                Integer value_1 = ge_1.getInteger(attribute);
-                Integer value_2 = ge_2.getInteger(attribute);
-                if (value_1 > value_2) {
-                    return 1;
-                } else if (value_2 > value_1) {
-                    return -1;
-                } else {
-                    return 0;
-                }
-            }
-        };
+        return getIntegerComparator(attribute, false);
     }
 
     /**
      * @return a comparator that compares two graph elements based on the
-     * designated attribute; the attribute must have an Integer value
+     * designated attribute; the attribute must have a String value
      */
     public static GraphElementComparator getStringComparator(String attribute) {
-        return new GraphElementComparator(attribute, false) {
-            @Override
-            public int compare(GraphElement ge_1, GraphElement ge_2) {
-                String value_1 = ge_1.getString(attribute);
-                String value_2 = ge_2.getString(attribute);
-                return value_1.compareTo(value_2);
-            }
-        };
+        return getStringComparator(attribute, false);
     }
 
     /**
@@ -766,17 +843,7 @@ public class GraphElement implements Comparable<GraphElement> {
      */
     public static GraphElementComparator getDoubleComparator(String attribute,
             boolean reverse) {
-        return new GraphElementComparator(attribute, reverse) {
-            public int compare(GraphElement ge_1, GraphElement ge_2) {
-                Double value_1 = ge_1.getDouble(attribute);
-                Double value_2 = ge_2.getDouble(attribute);
-                if (reverse) {
-                    return value_2.compareTo(value_1);
-                } else {
-                    return value_1.compareTo(value_2);
-                }
-            }
-        };
+        return new GraphElementComparator(attribute, reverse);
     }
 
     /**
@@ -786,17 +853,7 @@ public class GraphElement implements Comparable<GraphElement> {
      */
     public static GraphElementComparator getIntegerComparator(String attribute,
             boolean reverse) {
-        return new GraphElementComparator(attribute, reverse) {
-            public int compare(GraphElement ge_1, GraphElement ge_2) {
-                Integer value_1 = ge_1.getInteger(attribute);
-                Integer value_2 = ge_2.getInteger(attribute);
-                if (reverse) {
-                    return value_2.compareTo(value_1);
-                } else {
-                    return value_1.compareTo(value_2);
-                }
-            }
-        };
+        return new GraphElementComparator.IntegerComparator(attribute, reverse);
     }
 
     /**
@@ -806,19 +863,9 @@ public class GraphElement implements Comparable<GraphElement> {
      */
     public static GraphElementComparator getStringComparator(String attribute,
             boolean reverse) {
-        return new GraphElementComparator(attribute, reverse) {
-            public int compare(GraphElement ge_1, GraphElement ge_2) {
-                String value_1 = ge_1.getString(attribute);
-                String value_2 = ge_2.getString(attribute);
-                if (reverse) {
-                    return value_2.compareTo(value_1);
-                } else {
-                    return value_1.compareTo(value_2);
-                }
-            }
-        };
+        return new GraphElementComparator.StringComparator(attribute, reverse);
     }
 
 }
 
-//  [Last modified: 2021 01 31 at 14:18:34 GMT]
+//  [Last modified: 2026 10 17 at 20:20:03 GMT]
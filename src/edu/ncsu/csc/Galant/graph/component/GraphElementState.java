@@ -1,5 +1,6 @@
 package edu.ncsu.csc.Galant.graph.component;
 import java.awt.Point;
+import java.io.IOException;
 import edu.ncsu.csc.Galant.GraphDispatch;
 import edu.ncsu.csc.Galant.logging.LogHelper;
 import java.util.ArrayList;
@@ -41,6 +42,16 @@ public class GraphElementState implements Cloneable{
         this.attributes = L;
     }
     
+    /**
+     * Constructor used when a snapshot is materialized from an
+     * AttributeHistory; the state number is given explicitly
+     */
+    public GraphElementState(int state, AttributeList L) {
+        this.dispatch = GraphDispatch.getInstance();
+        this.state = state;
+        this.attributes = L;
+    }
+
     /**
      * Constructor used during editing, when no attributes are
      * known yet.
@@ -143,11 +154,7 @@ public class GraphElementState implements Cloneable{
      * representation of this element.
      */
     public String xmlString() {
-        String s = " ";
-        for ( Attribute attribute : attributes.getAttributes() ) {
-            s += attribute.xmlString() + " ";
-        }
-        return s;
+        return attributesWithout(null, null);
     }
 
     /**
@@ -156,14 +163,7 @@ public class GraphElementState implements Cloneable{
      * corresponding fixed ones of a Node.
      */
     public String attributesWithoutPosition() {
-        String s = " ";
-        for ( Attribute attribute : attributes.getAttributes() ) {
-            if ( ! attribute.getKey().equals("x")
-                 && ! attribute.getKey().equals("y") ) {
-                s += attribute.xmlString() + " ";
-            }
-        }
-        return s;
+        return attributesWithout("x", "y");
     }
 
     /**
@@ -171,13 +171,57 @@ public class GraphElementState implements Cloneable{
      * in cases where the id is optional, as is the case with an Edge
      */
     public String attributesWithoutId() {
-        String s = " ";
+        return attributesWithout("id", null);
+    }
+
+    private String attributesWithout(String key, String otherKey) {
+        StringBuilder s = new StringBuilder();
+        try {
+            writeAttributesWithout(s, key, otherKey);
+        }
+        catch ( IOException e ) { // not thrown by a StringBuilder
+            throw new AssertionError(e);
+        }
+        return s.toString();
+    }
+
+    /**
+     * Writes the text of xmlString() to out
+     */
+    public void writeXml(Appendable out) throws IOException {
+        writeAttributesWithout(out, null, null);
+    }
+
+    /**
+     * Writes the text of attributesWithoutPosition() to out
+     */
+    public void writeAttributesWithoutPosition(Appendable out)
+        throws IOException {
+        writeAttributesWithout(out, "x", "y");
+    }
+
+    /**
+     * Writes the text of attributesWithoutId() to out
+     */
+    public void writeAttributesWithoutId(Appendable out) throws IOException {
+        writeAttributesWithout(out, "id", null);
+    }
+
+    /**
+     * Writes all attributes except the ones with the given keys (either of
+     * which may be null), each followed by a blank, after an initial blank
+     */
+    private void writeAttributesWithout(Appendable out,
+                                        String key, String otherKey)
+        throws IOException {
+        out.append(' ');
         for ( Attribute attribute : attributes.getAttributes() ) {
-            if ( ! attribute.getKey().equals("id") ) {
-                s += attribute.xmlString() + " ";
-            }
+            String attributeKey = attribute.getKey();
+            if ( attributeKey.equals(key) || attributeKey.equals(otherKey) )
+                continue;
+            attribute.writeXml(out);
+            out.append(' ');
         }
-        return s;
     }
 
     public String toString() {
@@ -189,4 +233,4 @@ public class GraphElementState implements Cloneable{
     }
 }
 
-//  [Last modified: 2021 01 31 at 14:21:38 GMT]
+//  [Last modified: 2026 10 17 at 19:13:58 GMT]
@@ -37,6 +37,16 @@ public class GraphState {
         this.attributes = new AttributeList();
     }
 
+    /**
+     * Creates a state with the given number and attributes; used when a
+     * recorded run is replayed (see TraceReader)
+     */
+    GraphState(int state, AttributeList attributes) {
+        this.dispatch = GraphDispatch.getInstance();
+        this.state = state;
+        this.attributes = attributes;
+    }
+
     /**
      * This serves essentially as a copy constructor: creates the new
      * object in a given algorithm or edit state and copies all
@@ -118,4 +128,4 @@ public class GraphState {
     }
 }
 
-//  [Last modified: 2021 01 31 at 14:24:05 GMT]
+//  [Last modified: 2026 10 17 at 18:10:48 GMT]
@@ -1,13 +1,27 @@
 package edu.ncsu.csc.Galant.graph.component;
 
+/**
+ * The value is stored as a primitive int; getIntegerValue() boxes it for
+ * clients that use the Integer API.
+ */
 public class IntegerAttribute extends Attribute implements Cloneable {
-    private Integer value;
-    public IntegerAttribute(String key, Integer value) {
+    private int value;
+    public IntegerAttribute(String key, int value) {
         super(key);
         this.value = value;
     }
+    /**
+     * @param value must not be null, since the value is stored unboxed; the
+     * setters in AttributeList and GraphElement remove the attribute instead
+     * @throws NullPointerException if the value is null
+     */
+    public IntegerAttribute(String key, Integer value) {
+        this(key, value.intValue());
+    }
     public Integer getIntegerValue() { return value; }
-    public void set(Integer value) { this.value = value; }
+    public boolean isInteger() { return true; }
+    public int intValue() { return value; }
+    public void set(int value) { this.value = value; }
     public Attribute clone() { return new IntegerAttribute(key, value); }
     public String toString() {
         return key + "=" + value;
@@ -17,4 +31,4 @@ public class IntegerAttribute extends Attribute implements Cloneable {
     }
 }
 
-//  [Last modified: 2018 12 07 at 16:16:14 GMT]
+//  [Last modified: 2026 10 17 at 20:20:03 GMT]
@@ -1,6 +1,7 @@
 package edu.ncsu.csc.Galant.graph.component;
 
 import java.awt.Point;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -83,9 +84,8 @@ public class Node extends GraphElement {
         this.yCoordinate = y;
         // set starting position based on the initial one
         if (GraphDispatch.getInstance().algorithmMovesNodes()) {
-            GraphElementState startingState = latestState();
-            startingState.set("x", x);
-            startingState.set("y", y);
+            setInLatestState("x", x);
+            setInLatestState("y", y);
         }
     }
 
@@ -97,11 +97,56 @@ public class Node extends GraphElement {
      * x/y-coordinate, or, in case of layered graphs, layer information
      */
     public Node(Graph graph, AttributeList L) throws GalantException {
+        this(graph, L, true);
+    }
+
+    /**
+     * Like Node(Graph, AttributeList), except that the id is not checked
+     * against the nodes of the graph; this is left to Graph.addParsedNode(),
+     * so that nodes can be created concurrently by a parser (see
+     * GraphMLStreamParser).
+     */
+    public static Node decode(Graph graph, AttributeList L)
+        throws GalantException {
+        return new Node(graph, L, false);
+    }
+
+    /**
+     * For parsers that read the id and position directly, e.g.,
+     * TextGraphLoader
+     * @param L the remaining attributes, in final form (layer as an
+     * Integer, etc.)
+     */
+    public Node(Graph graph, int id, int x, int y, AttributeList L) {
         super(graph, L);
-        this.initializeAfterParsing(L);
+        this.id = id;
+        this.xCoordinate = x;
+        this.yCoordinate = y;
+        incidentEdges = new EdgeList();
+    }
+
+    private Node(Graph graph, AttributeList L, boolean checkId)
+        throws GalantException {
+        super(graph, L);
+        decodeAttributes(L);
+        if ( checkId ) checkIdIsNew();
         incidentEdges = new EdgeList();
     }
 
+    /**
+     * Used when a recorded run is replayed (see TraceReader); the history
+     * is filled in from the trace.
+     */
+    Node(Graph graph, int id, int x, int y, AttributeHistory history) {
+        this.dispatch = GraphDispatch.getInstance();
+        this.graph = graph;
+        this.id = id;
+        this.xCoordinate = x;
+        this.yCoordinate = y;
+        this.incidentEdges = new EdgeList();
+        this.history = history;
+    }
+
     /**
      * This is called during the transition from edit mode to
      * animation mode, so that the animation modifies a copy of the
@@ -119,8 +164,7 @@ public class Node extends GraphElement {
         // edges are added to this list when they are copied into the
         // copied graph
         copy.incidentEdges = new EdgeList();
-        ArrayList<GraphElementState> statesCopy = super.copyCurrentState();
-        copy.states = statesCopy;
+        copy.history = super.copyCurrentState();
         return copy;
     }
 
@@ -133,6 +177,7 @@ public class Node extends GraphElement {
 
     public void setIncidentEdges(Collection<Edge> edges) {
         this.incidentEdges = new EdgeList(edges);
+        if ( graph != null ) graph.invalidateLiveElements();
     }
 
     /**
@@ -278,6 +323,26 @@ public class Node extends GraphElement {
      * handling integer attributes
      */
     public void initializeAfterParsing(AttributeList L) throws GalantException {
+        decodeAttributes(L);
+        checkIdIsNew();
+    }
+
+    /**
+     * @throw GalantException if the graph already has a node with the id
+     * of this one
+     */
+    void checkIdIsNew() throws GalantException {
+        if (super.graph.nodeIdExists(id)) {
+            throw new GalantException("Duplicate id: " + id
+                    + " when processing node " + this);
+        }
+    }
+
+    /**
+     * Does the work of initializeAfterParsing() that depends only on L and
+     * not on other elements of the graph.
+     */
+    private void decodeAttributes(AttributeList L) throws GalantException {
         Integer idAttribute = null;
         String xString = null;
         String yString = null;
@@ -298,9 +363,6 @@ public class Node extends GraphElement {
         
         if (idAttribute == null) {
             throw new GalantException("Missing id for node " + this);
-        } else if (super.graph.nodeIdExists(idAttribute)) {
-            throw new GalantException("Duplicate id: " + idAttribute
-                    + " when processing node " + this);
         }
         id = idAttribute;
         L.remove("id");
@@ -372,7 +434,7 @@ public class Node extends GraphElement {
             }
         }
         super.initializeAfterParsing(L);
-    } // end, intializeAfterParsing
+    } // end, decodeAttributes
 
     /**
      * ************** marking ******************
@@ -419,11 +481,38 @@ public class Node extends GraphElement {
         incidentEdges.add(edge);
     }
 
+    /**
+     * Makes room for the given number of incident edges before any are
+     * added, so that a loader that knows the degrees in advance (see
+     * BinaryGraphReader) does not grow the list one edge at a time
+     */
+    void reserveIncidentEdges(int degree) {
+        if ( incidentEdges.isEmpty() ) incidentEdges = new EdgeList(degree);
+    }
+
+    /**
+     * @return the index of this node in the adjacency snapshot of its graph
+     * (see Adjacency), or -1 if it is not there, e.g., if it has been
+     * deleted; in that case the incident edges are filtered directly
+     */
+    private int adjacencyIndex(Adjacency adjacency) {
+        return adjacency == null ? -1 : adjacency.indexOf(this);
+    }
+
+    private Adjacency adjacency() {
+        return graph == null ? null : graph.adjacencyIfWorthwhile();
+    }
+
     /**
      * @return the node's outgoing edges, based on source and target specs; if
      * the graph is undirected, all incident edges are returned
      */
     public EdgeList getOutgoingEdges() {
+        Adjacency adjacency = adjacency();
+        int index = adjacencyIndex(adjacency);
+        if ( index >= 0 ) {
+            return adjacency.outgoingEdges(index);
+        }
         EdgeList currentEdges = new EdgeList();
         for (Edge e : incidentEdges) {
             if (e.inScope()) {
@@ -441,6 +530,11 @@ public class Node extends GraphElement {
      * the graph is undirected, all edges are incoming
      */
     public EdgeList getIncomingEdges() {
+        Adjacency adjacency = adjacency();
+        int index = adjacencyIndex(adjacency);
+        if ( index >= 0 ) {
+            return adjacency.incomingEdges(index);
+        }
         EdgeList currentEdges = new EdgeList();
         for (Edge e : incidentEdges) {
             if (e.inScope()) {
@@ -458,6 +552,11 @@ public class Node extends GraphElement {
      * are incoming or outgoing.
      */
     public EdgeList getIncidentEdges() {
+        Adjacency adjacency = adjacency();
+        int index = adjacencyIndex(adjacency);
+        if ( index >= 0 ) {
+            return adjacency.incidentEdges(index);
+        }
         EdgeList currentEdges = new EdgeList();
 
         for (Edge e : incidentEdges) {
@@ -481,6 +580,11 @@ public class Node extends GraphElement {
      * @return the nodes adjacent to this node (as a templated list)
      */
     public NodeList getAdjacentNodes() {
+        Adjacency adjacency = adjacency();
+        int index = adjacencyIndex(adjacency);
+        if ( index >= 0 ) {
+            return adjacency.adjacentNodes(index);
+        }
         EdgeList edges = getIncidentEdges();
         NodeList nodes = new NodeList();
         for (Edge e : edges) {
@@ -554,14 +658,29 @@ public class Node extends GraphElement {
      * The following methods use the edge list getters to return degrees
      */
     public int getOutdegree() {
+        Adjacency adjacency = adjacency();
+        int index = adjacencyIndex(adjacency);
+        if ( index >= 0 ) {
+            return adjacency.outDegree(index);
+        }
         return getOutgoingEdges().size();
     }
 
     public int getIndegree() {
+        Adjacency adjacency = adjacency();
+        int index = adjacencyIndex(adjacency);
+        if ( index >= 0 ) {
+            return adjacency.inDegree(index);
+        }
         return getIncomingEdges().size();
     }
 
     public int getDegree() {
+        Adjacency adjacency = adjacency();
+        int index = adjacencyIndex(adjacency);
+        if ( index >= 0 ) {
+            return adjacency.degree(index);
+        }
         return getIncidentEdges().size();
     }
 
@@ -741,12 +860,13 @@ public class Node extends GraphElement {
      * refreshed during editing. Also when saved to a file.
      */
     public String xmlString() {
-        String s = "<node" + " id=\"" + this.getId() + "\"";
-        s += " x=\"" + this.getFixedX() + "\"";
-        s += " y=\"" + this.getFixedY() + "\" ";
-        s += super.attributesWithoutPosition();
-        s += " />";
-        return s;
+        StringBuilder s = new StringBuilder();
+        try {
+            writeXml(s);
+        } catch (IOException e) { // not thrown by a StringBuilder
+            throw new AssertionError(e);
+        }
+        return s.toString();
     }
 
     /**
@@ -754,16 +874,44 @@ public class Node extends GraphElement {
      * exported.
      */
     public String xmlString(int state) {
+        StringBuilder s = new StringBuilder();
+        try {
+            writeXml(s, state);
+        } catch (IOException e) { // not thrown by a StringBuilder
+            throw new AssertionError(e);
+        }
+        return s.toString();
+    }
+
+    /**
+     * Writes the text of xmlString() to out
+     */
+    @Override
+    public void writeXml(Appendable out) throws IOException {
+        out.append("<node id=\"").append(String.valueOf(this.getId()));
+        out.append("\" x=\"").append(String.valueOf(this.getFixedX()));
+        out.append("\" y=\"").append(String.valueOf(this.getFixedY()));
+        out.append("\" ");
+        super.writeAttributesWithoutPosition(out);
+        out.append(" />");
+    }
+
+    /**
+     * Writes the text of xmlString(state) to out; nothing if the node does
+     * not exist in the given state
+     */
+    @Override
+    public void writeXml(Appendable out, int state) throws IOException {
         if (!inScope(state)) {
-            return "";
+            return;
         }
-        String s = "<node" + " id=\"" + this.getId() + "\"";
+        out.append("<node id=\"").append(String.valueOf(this.getId()));
         // if algorithm doesn't move nodes, only the fixed position is set
-        s += " x=\"" + this.getX(state) + "\"";
-        s += " y=\"" + this.getY(state) + "\" ";
-        s += super.attributesWithoutPosition(state);
-        s += "/>";
-        return s;
+        out.append("\" x=\"").append(String.valueOf(this.getX(state)));
+        out.append("\" y=\"").append(String.valueOf(this.getY(state)));
+        out.append("\" ");
+        super.writeAttributesWithoutPosition(out, state);
+        out.append("/>");
     }
 
     /**
@@ -781,4 +929,4 @@ public class Node extends GraphElement {
 
 }
 
-//  [Last modified: 2021 01 31 at 14:33:33 GMT]
+//  [Last modified: 2026 10 17 at 19:13:58 GMT]
@@ -1,5 +1,7 @@
 package edu.ncsu.csc.Galant.graph.component;
 
+import java.io.IOException;
+
 public class StringAttribute extends Attribute implements Cloneable {
     private String value;
     public StringAttribute(String key, String value) {
@@ -13,8 +15,13 @@ public class StringAttribute extends Attribute implements Cloneable {
         return key + "=\"" + value + "\"";
     }
     public String xmlString() {
-        return key + "=\"" + value + "\"";
+        return key + "=\"" + XmlText.escape(String.valueOf(value)) + "\"";
+    }
+    public void writeXml(Appendable out) throws IOException {
+        out.append(key).append("=\"");
+        XmlText.appendEscaped(out, String.valueOf(value));
+        out.append('"');
     }
 }
 
-//  [Last modified: 2018 12 07 at 16:15:45 GMT]
+//  [Last modified: 2026 10 17 at 19:13:58 GMT]
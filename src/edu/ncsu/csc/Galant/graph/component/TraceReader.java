@@ -0,0 +1,234 @@
+package edu.ncsu.csc.Galant.graph.component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.ncsu.csc.Galant.GalantException;
+import edu.ncsu.csc.Galant.algorithm.QueryAnswer;
+
+/**
+ * Rebuilds a recorded run from a trace file written by TraceWriter: the
+ * file is memory-mapped and its records are applied in order, so that the
+ * graph ends up with the same history as the one the algorithm ran on.
+ * The graph can then be animated by stepping through its states (see
+ * GraphDispatch.startReplay()) without the algorithm.
+ */
+public class TraceReader {
+    private final File file;
+    private MappedByteBuffer buffer;
+    private String[] keys;
+
+    private final Graph graph;
+    private int numberOfStates;
+    private boolean algorithmMovesNodes;
+    private final List<Node> nodes = new ArrayList<Node>();
+    private final List<Edge> edges = new ArrayList<Edge>();
+    private final List<QueryAnswer> answers = new ArrayList<QueryAnswer>();
+
+    /**
+     * Reads the trace in the given file
+     * @throws GalantException if the file is not a trace or is damaged
+     */
+    public TraceReader(File file) throws IOException, GalantException {
+        this.file = file;
+        this.graph = new Graph();
+        try ( FileChannel channel
+              = FileChannel.open(file.toPath(), StandardOpenOption.READ) ) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                                 channel.size());
+        }
+        try {
+            readHeader();
+            while ( buffer.hasRemaining() ) {
+                readRecord();
+            }
+        }
+        catch ( BufferUnderflowException | IndexOutOfBoundsException e ) {
+            throw new GalantException("Trace " + file + " is incomplete");
+        }
+        // the layer of a node is known once its records have been applied
+        for ( Node node : nodes ) graph.addNode(node);
+        for ( Edge edge : edges ) graph.addEdge(edge);
+        graph.initializeLayers();
+        graph.invalidateLiveElements();
+        buffer = null;
+    }
+
+    /**
+     * @return the graph with the complete history of the run
+     */
+    public Graph getGraph() { return graph; }
+
+    /**
+     * @return the number of the last state of the run
+     */
+    public int getNumberOfStates() { return numberOfStates; }
+
+    /**
+     * @return true if node positions are part of the animation
+     */
+    public boolean algorithmMovesNodes() { return algorithmMovesNodes; }
+
+    /**
+     * @return the answers to queries, in the order they were given
+     */
+    public List<QueryAnswer> getQueryAnswers() { return answers; }
+
+    private void readHeader() throws GalantException {
+        if ( buffer.remaining() < 7 || buffer.getInt() != TraceWriter.MAGIC )
+            throw new GalantException(file + " is not a Galant trace");
+        short version = buffer.getShort();
+        if ( version != TraceWriter.VERSION )
+            throw new GalantException("Trace " + file + " has version "
+                                      + version + ", expected "
+                                      + TraceWriter.VERSION);
+        int flags = buffer.get();
+        graph.setDirected((flags & TraceWriter.DIRECTED) != 0);
+        graph.setLayered((flags & TraceWriter.LAYERED) != 0);
+        algorithmMovesNodes
+            = (flags & TraceWriter.ALGORITHM_MOVES_NODES) != 0;
+        numberOfStates = getVarint();
+        if ( (flags & TraceWriter.HAS_NAME) != 0 ) graph.setName(getString());
+        if ( (flags & TraceWriter.HAS_COMMENT) != 0 )
+            graph.setComment(getString());
+        keys = new String[getVarint()];
+        for ( int i = 0; i < keys.length; i++ ) keys[i] = getString();
+        graph.states = new ArrayList<GraphState>();
+        graph.states.add(new GraphState(0, new AttributeList()));
+    }
+
+    private void readRecord() throws GalantException {
+        byte tag = buffer.get();
+        int step = getVarint();
+        switch ( tag ) {
+        case TraceWriter.NODE:
+            expectIndex(getVarint(), nodes.size());
+            int id = unzigzag(getVarint());
+            int x = unzigzag(getVarint());
+            int y = unzigzag(getVarint());
+            nodes.add(new Node(graph, id, x, y, createdIn(step)));
+            break;
+        case TraceWriter.EDGE:
+            expectIndex(getVarint(), edges.size());
+            int edgeId = unzigzag(getVarint());
+            boolean hasExplicitId = buffer.get() != 0;
+            Node source = nodes.get(getVarint());
+            Node target = nodes.get(getVarint());
+            edges.add(new Edge(graph, edgeId, hasExplicitId, source, target,
+                               createdIn(step)));
+            break;
+        case TraceWriter.SET:
+            byte kind = buffer.get();
+            if ( kind == TraceWriter.OF_GRAPH ) {
+                readGraphChange(step);
+            }
+            else if ( kind == TraceWriter.OF_BANNER ) {
+                readChange(graph.getBanner().history, step);
+            }
+            else if ( kind == TraceWriter.OF_NODE ) {
+                readChange(nodes.get(getVarint()).history, step);
+            }
+            else if ( kind == TraceWriter.OF_EDGE ) {
+                readChange(edges.get(getVarint()).history, step);
+            }
+            else {
+                throw new GalantException("Trace " + file
+                                          + ": unknown element kind " + kind);
+            }
+            break;
+        case TraceWriter.QUERY:
+            String prompt = getString();
+            answers.add(new QueryAnswer(step, prompt, getString()));
+            break;
+        default:
+            throw new GalantException("Trace " + file
+                                      + ": unknown record " + tag);
+        }
+    }
+
+    private void expectIndex(int index, int expected) throws GalantException {
+        if ( index != expected )
+            throw new GalantException("Trace " + file + ": element " + index
+                                      + " out of order");
+    }
+
+    private static AttributeHistory createdIn(int step) {
+        AttributeHistory history = new AttributeHistory();
+        history.recordChange(step);
+        return history;
+    }
+
+    private void readChange(AttributeHistory history, int step)
+        throws GalantException {
+        String key = keys[getVarint()];
+        Attribute value = getValue(key);
+        history.recordChange(step);
+        if ( value == null )
+            history.replayRemoval(step, AttributeKeys.idOf(key));
+        else history.set(step, value);
+    }
+
+    /**
+     * The graph keeps a complete attribute list for each state, so a change
+     * in a new step starts with a copy of the latest list
+     */
+    private void readGraphChange(int step) throws GalantException {
+        String key = keys[getVarint()];
+        Attribute value = getValue(key);
+        GraphState latest = graph.latestState();
+        if ( latest.getState() != step ) {
+            latest = new GraphState(step, latest.getAttributes().duplicate());
+            graph.states.add(latest);
+        }
+        if ( value == null ) latest.remove(key);
+        else latest.getAttributes().set(value);
+    }
+
+    private Attribute getValue(String key) throws GalantException {
+        byte type = buffer.get();
+        switch ( type ) {
+        case TraceWriter.REMOVED: return null;
+        case TraceWriter.INTEGER:
+            return new IntegerAttribute(key, unzigzag(getVarint()));
+        case TraceWriter.DOUBLE:
+            return new DoubleAttribute(key, buffer.getDouble());
+        case TraceWriter.TRUE: return new BooleanAttribute(key, true);
+        case TraceWriter.FALSE: return new BooleanAttribute(key, false);
+        case TraceWriter.STRING: return new StringAttribute(key, getString());
+        default:
+            throw new GalantException("Trace " + file
+                                      + ": unknown value type " + type);
+        }
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private int getVarint() {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7f) << shift;
+            shift += 7;
+        } while ( (b & 0x80) != 0 );
+        return value;
+    }
+
+    private String getString() {
+        byte[] bytes = new byte[getVarint()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
+
+//  [Last modified: 2026 10 17 at 20:50:31 GMT]
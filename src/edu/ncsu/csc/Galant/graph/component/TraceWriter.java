@@ -0,0 +1,378 @@
+package edu.ncsu.csc.Galant.graph.component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.ncsu.csc.Galant.algorithm.QueryAnswer;
+
+/**
+ * Writes a recorded algorithm run to a compact binary trace file, from
+ * which TraceReader rebuilds the graph with all of its states, so that the
+ * animation can be replayed without compiling or running the algorithm.
+ *
+ * The changes come from the histories of the graph and its elements, which
+ * already hold every change as a (state, key, value) record; the trace
+ * lists them in order of state (step) number, along with the creation of
+ * each node and edge and the answers to queries. Elements are identified
+ * by their position in the list of nodes or edges of the graph.
+ *
+ * All numbers are big-endian; a "varint" is an unsigned integer in seven
+ * bit groups, least significant first, with the high bit set in all but
+ * the last byte, and a string is a varint length followed by UTF-8 bytes.
+ *
+ * header: MAGIC (int), VERSION (short), flags (byte, see below), number
+ *         of states (varint), name and comment (strings, if flagged),
+ *         number of attribute keys (varint) and the keys (strings)
+ * records, each a tag byte followed by
+ *   NODE   step, node index, id, x, y (varints, id/x/y zigzag encoded)
+ *   EDGE   step, edge index, id (zigzag), explicit id (byte),
+ *          source and target node index
+ *   SET    step, element kind (byte), element index (node or edge only),
+ *          key index, value type (byte), value (varint, double or string;
+ *          nothing for booleans and removals)
+ *   QUERY  step, prompt, answer
+ */
+public class TraceWriter {
+    public static final String EXTENSION = ".trace";
+
+    static final int MAGIC = 0x47545243; // "GTRC"
+    static final short VERSION = 1;
+
+    /** header flags */
+    static final int DIRECTED = 1;
+    static final int ALGORITHM_MOVES_NODES = 2;
+    static final int HAS_NAME = 4;
+    static final int HAS_COMMENT = 8;
+    static final int LAYERED = 16;
+
+    /** record tags */
+    static final byte NODE = 1;
+    static final byte EDGE = 2;
+    static final byte SET = 3;
+    static final byte QUERY = 4;
+
+    /** kinds of element changed by a SET record */
+    static final byte OF_GRAPH = 0;
+    static final byte OF_BANNER = 1;
+    static final byte OF_NODE = 2;
+    static final byte OF_EDGE = 3;
+
+    /** value types in a SET record */
+    static final byte REMOVED = 0;
+    static final byte INTEGER = 1;
+    static final byte DOUBLE = 2;
+    static final byte TRUE = 3;
+    static final byte FALSE = 4;
+    static final byte STRING = 5;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * A record waiting to be written; elements and keys are resolved to
+     * indexes only when it is written
+     */
+    private static class Record {
+        final byte tag;
+        final int step;
+        byte kind;
+        int index;
+        int keyIndex;
+        Attribute value;
+        Object subject;
+
+        Record(byte tag, int step) {
+            this.tag = tag;
+            this.step = step;
+        }
+    }
+
+    private final Graph graph;
+    private final int numberOfStates;
+    private final List<Record> records = new ArrayList<Record>();
+    private final Map<Node, Integer> indexOfNode
+        = new IdentityHashMap<Node, Integer>();
+    private final List<String> keys = new ArrayList<String>();
+    private final Map<Integer, Integer> indexOfKey
+        = new HashMap<Integer, Integer>();
+
+    private FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    private TraceWriter(Graph graph, int numberOfStates) {
+        this.graph = graph;
+        this.numberOfStates = numberOfStates;
+    }
+
+    /**
+     * Writes the trace of a run to the given file
+     * @param graph the graph the algorithm ran on
+     * @param numberOfStates the number of the last complete algorithm state;
+     * changes made after it, e.g., by a step in progress, are left out
+     * @param algorithmMovesNodes true if node positions are part of the
+     * animation (see GraphDispatch.setAlgorithmMovesNodes())
+     * @param answers the answers to queries during the run
+     */
+    public static void write(File file, Graph graph, int numberOfStates,
+                             boolean algorithmMovesNodes,
+                             List<QueryAnswer> answers) throws IOException {
+        TraceWriter writer = new TraceWriter(graph, numberOfStates);
+        writer.collectRecords(answers);
+        int flags = 0;
+        if ( graph.isDirected() ) flags |= DIRECTED;
+        if ( algorithmMovesNodes ) flags |= ALGORITHM_MOVES_NODES;
+        if ( graph.getName() != null ) flags |= HAS_NAME;
+        if ( graph.getComment() != null ) flags |= HAS_COMMENT;
+        if ( graph.isLayered() ) flags |= LAYERED;
+        try ( FileChannel channel
+              = FileChannel.open(file.toPath(),
+                                 StandardOpenOption.CREATE,
+                                 StandardOpenOption.TRUNCATE_EXISTING,
+                                 StandardOpenOption.WRITE) ) {
+            writer.channel = channel;
+            writer.writeHeader(flags);
+            for ( Record record : writer.records ) {
+                writer.writeRecord(record);
+            }
+            writer.flush();
+        }
+    }
+
+    /**
+     * Gathers the records of all elements and sorts them by step; the sort
+     * is stable, so the creation of an element comes before its changes in
+     * the same step, and nodes come before the edges incident on them
+     */
+    private void collectRecords(List<QueryAnswer> answers) {
+        collectGraphRecords();
+        collectElementRecords(OF_BANNER, 0, graph.getBanner().history);
+        int index = 0;
+        for ( Node node : graph.getAllNodes() ) {
+            indexOfNode.put(node, index);
+            Record record = newRecord(NODE, node.history.creationStateNumber());
+            record.index = index;
+            record.subject = node;
+            collectElementRecords(OF_NODE, index, node.history);
+            index++;
+        }
+        index = 0;
+        for ( Edge edge : graph.getAllEdges() ) {
+            Record record = newRecord(EDGE, edge.history.creationStateNumber());
+            record.index = index;
+            record.subject = edge;
+            collectElementRecords(OF_EDGE, index, edge.history);
+            index++;
+        }
+        for ( QueryAnswer answer : answers ) {
+            Record record = newRecord(QUERY, answer.getState());
+            record.subject = answer;
+        }
+        Collections.sort(records, new Comparator<Record>() {
+                public int compare(Record first, Record second) {
+                    return Integer.compare(first.step, second.step);
+                }
+            });
+    }
+
+    /**
+     * The graph keeps a complete attribute list for each of its states;
+     * the records are the differences between consecutive lists. The first
+     * state is the initial state of the run.
+     */
+    private void collectGraphRecords() {
+        AttributeList previous = new AttributeList();
+        boolean first = true;
+        for ( GraphState state : graph.states ) {
+            int step = first ? 0 : state.getState();
+            first = false;
+            AttributeList current = state.getAttributes();
+            for ( Attribute attribute : current.getAttributes() ) {
+                if ( ! sameValue(attribute, previous.get(attribute.getKey())) ) {
+                    newSetRecord(OF_GRAPH, 0, step, attribute.getKeyId(),
+                                 attribute);
+                }
+            }
+            for ( Attribute attribute : previous.getAttributes() ) {
+                if ( current.get(attribute.getKey()) == null ) {
+                    newSetRecord(OF_GRAPH, 0, step, attribute.getKeyId(),
+                                 null);
+                }
+            }
+            previous = current;
+        }
+    }
+
+    private void collectElementRecords(final byte kind, final int index,
+                                       AttributeHistory history) {
+        history.forEachRecord(new AttributeHistory.RecordVisitor() {
+                public void visit(int state, int keyId, Attribute value) {
+                    newSetRecord(kind, index, state, keyId, value);
+                }
+            });
+    }
+
+    /**
+     * Adds a record unless its step is beyond the last complete state
+     * @return the record, which is discarded in the latter case
+     */
+    private Record newRecord(byte tag, int step) {
+        Record record = new Record(tag, step);
+        if ( step <= numberOfStates ) records.add(record);
+        return record;
+    }
+
+    private void newSetRecord(byte kind, int index, int step, int keyId,
+                              Attribute value) {
+        Record record = newRecord(SET, step);
+        record.kind = kind;
+        record.index = index;
+        record.keyIndex = keyIndex(keyId);
+        record.value = value;
+    }
+
+    private int keyIndex(int keyId) {
+        Integer index = indexOfKey.get(keyId);
+        if ( index == null ) {
+            index = keys.size();
+            keys.add(AttributeKeys.keyOf(keyId));
+            indexOfKey.put(keyId, index);
+        }
+        return index;
+    }
+
+    private static boolean sameValue(Attribute first, Attribute second) {
+        if ( second == null || first.getClass() != second.getClass() )
+            return false;
+        if ( first.isInteger() ) return first.intValue() == second.intValue();
+        if ( first.isDouble() )
+            return Double.compare(first.doubleValue(), second.doubleValue()) == 0;
+        if ( first.isBoolean() )
+            return first.booleanValue() == second.booleanValue();
+        String value = first.getStringValue();
+        return value == null
+            ? second.getStringValue() == null
+            : value.equals(second.getStringValue());
+    }
+
+    private void writeHeader(int flags) throws IOException {
+        ensure(7);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.put((byte) flags);
+        putVarint(numberOfStates);
+        if ( (flags & HAS_NAME) != 0 ) putString(graph.getName());
+        if ( (flags & HAS_COMMENT) != 0 ) putString(graph.getComment());
+        putVarint(keys.size());
+        for ( String key : keys ) putString(key);
+    }
+
+    private void writeRecord(Record record) throws IOException {
+        ensure(1);
+        buffer.put(record.tag);
+        putVarint(record.step);
+        switch ( record.tag ) {
+        case NODE:
+            Node node = (Node) record.subject;
+            putVarint(record.index);
+            putVarint(zigzag(node.getId()));
+            putVarint(zigzag(node.getFixedX()));
+            putVarint(zigzag(node.getFixedY()));
+            break;
+        case EDGE:
+            Edge edge = (Edge) record.subject;
+            putVarint(record.index);
+            putVarint(zigzag(edge.getId()));
+            ensure(1);
+            buffer.put((byte) (edge.hasExplicitId() ? 1 : 0));
+            putVarint(indexOfNode.get(edge.getSourceNode()));
+            putVarint(indexOfNode.get(edge.getTargetNode()));
+            break;
+        case SET:
+            ensure(1);
+            buffer.put(record.kind);
+            if ( record.kind == OF_NODE || record.kind == OF_EDGE )
+                putVarint(record.index);
+            putVarint(record.keyIndex);
+            putValue(record.value);
+            break;
+        case QUERY:
+            QueryAnswer answer = (QueryAnswer) record.subject;
+            putString(answer.getPrompt());
+            putString(String.valueOf(answer.getAnswer()));
+            break;
+        }
+    }
+
+    private void putValue(Attribute value) throws IOException {
+        ensure(9);
+        if ( value == null ) {
+            buffer.put(REMOVED);
+        }
+        else if ( value.isInteger() ) {
+            buffer.put(INTEGER);
+            putVarint(zigzag(value.intValue()));
+        }
+        else if ( value.isDouble() ) {
+            buffer.put(DOUBLE);
+            buffer.putDouble(value.doubleValue());
+        }
+        else if ( value.isBoolean() ) {
+            buffer.put(value.booleanValue() ? TRUE : FALSE);
+        }
+        else {
+            buffer.put(STRING);
+            putString(String.valueOf(value.getStringValue()));
+        }
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private void putVarint(int value) throws IOException {
+        ensure(5);
+        while ( (value & ~0x7f) != 0 ) {
+            buffer.put((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private void putString(String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        putVarint(bytes.length);
+        int offset = 0;
+        while ( offset < bytes.length ) {
+            ensure(1);
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    /**
+     * Makes room for the given number of bytes in the buffer, writing its
+     * contents to the file if necessary
+     */
+    private void ensure(int bytes) throws IOException {
+        if ( buffer.remaining() < bytes ) flush();
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while ( buffer.hasRemaining() ) channel.write(buffer);
+        buffer.clear();
+    }
+}
+
+//  [Last modified: 2026 10 17 at 20:50:31 GMT]
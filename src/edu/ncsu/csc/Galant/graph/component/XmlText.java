@@ -0,0 +1,50 @@
+package edu.ncsu.csc.Galant.graph.component;
+
+import java.io.IOException;
+
+/**
+ * Helpers for writing GraphML directly to an Appendable, e.g., a Writer
+ * for a file (see Graph.writeXml())
+ */
+final class XmlText {
+    private XmlText() { }
+
+    /**
+     * Appends the text as the value of an attribute in double quotes, with
+     * the characters that cannot appear there replaced by entities; runs of
+     * other characters are appended directly from the text
+     */
+    static void appendEscaped(Appendable out, String text)
+        throws IOException {
+        int start = 0;
+        for ( int i = 0; i < text.length(); i++ ) {
+            String entity;
+            switch ( text.charAt(i) ) {
+            case '&': entity = "&amp;"; break;
+            case '<': entity = "&lt;"; break;
+            case '>': entity = "&gt;"; break;
+            case '"': entity = "&quot;"; break;
+            default: continue;
+            }
+            out.append(text, start, i).append(entity);
+            start = i + 1;
+        }
+        out.append(text, start, text.length());
+    }
+
+    /**
+     * @return the text escaped as by appendEscaped()
+     */
+    static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length() + 16);
+        try {
+            appendEscaped(escaped, text);
+        }
+        catch ( IOException e ) { // not thrown by a StringBuilder
+            throw new AssertionError(e);
+        }
+        return escaped.toString();
+    }
+}
+
+//  [Last modified: 2026 10 17 at 19:13:58 GMT]
@@ -12,6 +12,7 @@ import edu.ncsu.csc.Galant.graph.component.Edge;
 
 public class EdgeList extends ArrayList<Edge> {
   public EdgeList() { super(); }
+  public EdgeList(int initialCapacity) { super(initialCapacity); }
   public EdgeList(Collection<Edge> C) { super(C); }
 
   @Override
@@ -25,4 +26,4 @@ public class EdgeList extends ArrayList<Edge> {
   }
 }
 
-//  [Last modified: 2017 01 15 at 17:34:49 GMT]
+//  [Last modified: 2026 10 17 at 18:59:16 GMT]
@@ -7,7 +7,6 @@
 
 package edu.ncsu.csc.Galant.graph.datastructure;
 
-import java.util.PriorityQueue;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
@@ -17,7 +16,7 @@ import edu.ncsu.csc.Galant.graph.component.GraphElement;
 import edu.ncsu.csc.Galant.GalantException;
 import edu.ncsu.csc.Galant.algorithm.Terminate;
 
-public class EdgePriorityQueue extends PriorityQueue<Edge> {
+public class EdgePriorityQueue extends IndexedPriorityQueue<Edge> {
   // used only because a priority queue with a specific comparator needs this parameter
   static final int INITIAL_SIZE = 16;
 
@@ -35,7 +34,7 @@ public class EdgePriorityQueue extends PriorityQueue<Edge> {
    * creates a min-heap whose keys are based on edge weight 
    */
   public EdgePriorityQueue() {
-    super();
+    super(INITIAL_SIZE, null);
   }
 
   /**
@@ -51,7 +50,7 @@ public class EdgePriorityQueue extends PriorityQueue<Edge> {
    * @param isMax true if this will be a max-heap
    */
   public EdgePriorityQueue(boolean isMax) {
-    super(INITIAL_SIZE, Collections.reverseOrder());
+    super(INITIAL_SIZE, Collections.<Edge>reverseOrder());
     this.isMaxHeap = true;
   }
 
@@ -153,8 +152,8 @@ public class EdgePriorityQueue extends PriorityQueue<Edge> {
    * the attribute (the latter is done externally)
    */
   public void changeKey(Edge e) throws GalantException {
-    this.remove(e);
-    this.insert(e);
+    if ( ! this.update(e) )
+      this.insert(e);
   }
 
   /**
@@ -162,9 +161,9 @@ public class EdgePriorityQueue extends PriorityQueue<Edge> {
    * and the position of edge in the queue to reflect the change
    */
   public void changeKey(Edge edge, Double key) throws GalantException, Terminate {
-    this.remove(edge);
     edge.set(attribute, key);
-    this.insert(edge);
+    if ( ! this.update(edge) )
+      this.insert(edge);
   }
 
   /**
@@ -172,9 +171,9 @@ public class EdgePriorityQueue extends PriorityQueue<Edge> {
    * and the position of edge in the queue to reflect the change
    */
   public void changeDoubleKey(Edge edge, Double key) throws GalantException, Terminate {
-    this.remove(edge);
     edge.set(attribute, key);
-    this.insert(edge);
+    if ( ! this.update(edge) )
+      this.insert(edge);
   }
 
   /**
@@ -182,9 +181,9 @@ public class EdgePriorityQueue extends PriorityQueue<Edge> {
    * attributes) and the position of edge in the queue to reflect the change
    */
   public void changeStringKey(Edge edge, String key) throws GalantException, Terminate {
-    this.remove(edge);
     edge.set(attribute, key);
-    this.insert(edge);
+    if ( ! this.update(edge) )
+      this.insert(edge);
   }
 
   /**
@@ -192,9 +191,9 @@ public class EdgePriorityQueue extends PriorityQueue<Edge> {
    * attributes) and the position of edge in the queue to reflect the change
    */
   public void changeIntegerKey(Edge edge, Integer key) throws GalantException, Terminate {
-    this.remove(edge);
     edge.set(attribute, key);
-    this.insert(edge);
+    if ( ! this.update(edge) )
+      this.insert(edge);
   }
 
   public void decreaseKey(Edge e, double key) throws GalantException, Terminate {
@@ -212,4 +211,4 @@ public class EdgePriorityQueue extends PriorityQueue<Edge> {
   }
 }
 
-//  [Last modified: 2017 01 20 at 02:13:33 GMT]
+//  [Last modified: 2026 10 17 at 20:47:50 GMT]
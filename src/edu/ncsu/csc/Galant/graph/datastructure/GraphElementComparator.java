@@ -2,29 +2,114 @@
  * Makes it possible to define comparators with embedded information about
  * attributes and direction of comparison. Convenient for priority queues
  * that use attributes other than weight
+ *
+ * The attribute key is resolved to its id (see AttributeKeys) when the
+ * comparator is created, so that each comparison reads the latest value of
+ * the attribute directly, without looking up the key again and without
+ * boxing numeric values. The base class and the Integer subclass compare
+ * numeric values: an Integer attribute is converted to double when it is
+ * compared with a Double one, so the choice of comparator does not depend
+ * on how the graph file happened to spell the numbers. An attribute that is
+ * present but not numeric is an error, reported as a GalantException (an
+ * unchecked wrapper, since compare cannot throw checked exceptions) rather
+ * than silently treated as equal to all others. The String subclass
+ * compares String values. In all three, elements that lack the attribute
+ * come last, also when the order is reversed.
  */
 
 package edu.ncsu.csc.Galant.graph.datastructure;
 
 import java.util.Comparator;
 
+import edu.ncsu.csc.Galant.GalantException;
+import edu.ncsu.csc.Galant.graph.component.Attribute;
+import edu.ncsu.csc.Galant.graph.component.AttributeKeys;
 import edu.ncsu.csc.Galant.graph.component.GraphElement;
 
 public class GraphElementComparator implements Comparator<GraphElement> {
   public String attribute = "weight";
   // true if sorting is descending or heap is max-heap
   public boolean reverse = false;
+  // id of the attribute key, resolved once
+  protected final int keyId;
   public GraphElementComparator(String attribute, boolean reverse) {
     this.attribute = attribute;
     this.reverse = reverse;
+    this.keyId = AttributeKeys.idOf(attribute);
   }
+
+  /**
+   * Elements that lack the attribute come after all others, whether or
+   * not the order is reversed; reverse only applies to the values
+   */
   public int compare(GraphElement ge1, GraphElement ge2) {
-    Double value_1 = ge1.getWeight();
-    Double value_2 = ge2.getWeight();
-    if ( value_1 > value_2 ) return 1;
-    else if ( value_2 > value_1 ) return -1;
-    else return 0;
+    Attribute a1 = ge1.getAttributeById(keyId);
+    Attribute a2 = ge2.getAttributeById(keyId);
+    boolean missing_1 = ! hasValue(a1);
+    boolean missing_2 = ! hasValue(a2);
+    if ( missing_1 || missing_2 )
+      return (missing_1 ? 1 : 0) - (missing_2 ? 1 : 0);
+    return reverse ? compareValues(a2, a1) : compareValues(a1, a2);
+  }
+
+  /**
+   * @return true if the attribute is present and has a value that can be
+   * compared; an attribute that is present with a non-numeric value throws
+   * an exception
+   */
+  protected boolean hasValue(Attribute attribute) {
+    if ( attribute == null ) return false;
+    if ( attribute.isDouble() || attribute.isInteger() ) return true;
+    throw new RuntimeException(new GalantException("cannot compare by "
+                                                   + this.attribute + ", value is not numeric: "
+                                                   + attribute));
+  }
+
+  /**
+   * @return the value of a numeric attribute as a double
+   */
+  protected static double numericValue(Attribute attribute) {
+    return attribute.isInteger() ? attribute.intValue() : attribute.doubleValue();
+  }
+
+  /**
+   * Compares the values of two attributes that are present, in ascending
+   * order; here as double values
+   */
+  protected int compareValues(Attribute a1, Attribute a2) {
+    return Double.compare(numericValue(a1), numericValue(a2));
+  }
+
+  /**
+   * Compares Integer attributes; falls back on the numeric comparison of
+   * the base class if either value is a Double
+   */
+  public static class IntegerComparator extends GraphElementComparator {
+    public IntegerComparator(String attribute, boolean reverse) {
+      super(attribute, reverse);
+    }
+    protected int compareValues(Attribute a1, Attribute a2) {
+      if ( a1.isInteger() && a2.isInteger() )
+        return Integer.compare(a1.intValue(), a2.intValue());
+      return super.compareValues(a1, a2);
+    }
+  }
+
+  /**
+   * Compares String attributes lexicographically; an attribute whose value
+   * is null counts as missing
+   */
+  public static class StringComparator extends GraphElementComparator {
+    public StringComparator(String attribute, boolean reverse) {
+      super(attribute, reverse);
+    }
+    protected boolean hasValue(Attribute attribute) {
+      return attribute != null && attribute.getStringValue() != null;
+    }
+    protected int compareValues(Attribute a1, Attribute a2) {
+      return a1.getStringValue().compareTo(a2.getStringValue());
+    }
   }
 }
 
-//  [Last modified: 2017 01 14 at 22:38:18 GMT]
+//  [Last modified: 2026 10 17 at 20:52:11 GMT]
@@ -0,0 +1,147 @@
+/**
+ * Maps the integer id's of graph elements to the elements themselves. Id's
+ * are usually small and nearly contiguous, so the elements are kept in an
+ * array indexed by id, which grows as needed. The array only grows to
+ * hold an id that is not too far beyond the number of elements (see
+ * MAX_ID_SPREAD, as in Adjacency); an id that is negative or would spread
+ * the array too thin goes into a hash map instead, so that a few large
+ * id's, e.g., those of a SNAP graph, do not allocate a huge, nearly empty
+ * array. Lookups of dense id's are therefore plain array accesses, without
+ * the boxing and O(log n) search of a TreeMap.
+ *
+ * Algorithms can allocate id-indexed arrays of size idBound() (see also
+ * Graph.nodeIds(), used by LayeredGraph).
+ */
+
+package edu.ncsu.csc.Galant.graph.datastructure;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+public class IdRegistry<T> {
+
+  /**
+   * the array grows to hold an id only if the id is at most this factor
+   * times the number of elements (plus a little slack, ID_SLACK); larger
+   * id's are kept in the map
+   */
+  public static final int MAX_ID_SPREAD = 4;
+  private static final int ID_SLACK = 1024;
+
+  private static final Object[] NO_ELEMENTS = new Object[0];
+
+  private Object[] elementOfId = NO_ELEMENTS;
+  private HashMap<Integer, T> elementOfSparseId;
+  private int size = 0;
+  private int maxId = -1;
+
+  public IdRegistry() {
+  }
+
+  /**
+   * @return a registry with the same contents as the given one
+   */
+  public IdRegistry(IdRegistry<T> other) {
+    this.elementOfId = other.elementOfId.clone();
+    if ( other.elementOfSparseId != null )
+      this.elementOfSparseId = new HashMap<Integer, T>(other.elementOfSparseId);
+    this.size = other.size;
+    this.maxId = other.maxId;
+  }
+
+  /**
+   * @return true if the id is stored in the array; id's in the map are
+   * always negative or at least the length of the array
+   */
+  private boolean isDense(int id) {
+    return id >= 0 && id < elementOfId.length;
+  }
+
+  /**
+   * @return true if the array may grow to hold the given id, i.e., the id
+   * is not too large relative to the number of elements
+   */
+  private boolean canGrowTo(int id) {
+    return id >= 0 && id <= MAX_ID_SPREAD * (long) (size + 1) + ID_SLACK;
+  }
+
+  /**
+   * Grows the array to hold the given id and moves any element whose id
+   * now fits from the map into the array
+   */
+  private void growTo(int id) {
+    int oldLength = elementOfId.length;
+    int newLength = (int) Math.min(Math.max(id + 1L, 2L * oldLength),
+                                   MAX_ID_SPREAD * (long) (size + 1) + ID_SLACK + 1);
+    elementOfId = Arrays.copyOf(elementOfId, newLength);
+    if ( elementOfSparseId == null ) return;
+    Iterator<Map.Entry<Integer, T>> entries
+      = elementOfSparseId.entrySet().iterator();
+    while ( entries.hasNext() ) {
+      Map.Entry<Integer, T> entry = entries.next();
+      int sparseId = entry.getKey();
+      if ( sparseId >= oldLength && sparseId < newLength ) {
+        elementOfId[sparseId] = entry.getValue();
+        entries.remove();
+      }
+    }
+  }
+
+  /**
+   * Records the element as the one with the given id, replacing any
+   * element that had the same id
+   */
+  public void put(int id, T element) {
+    if ( get(id) == null ) size++;
+    if ( ! isDense(id) && canGrowTo(id) ) growTo(id);
+    if ( isDense(id) ) {
+      elementOfId[id] = element;
+    }
+    else {
+      if ( elementOfSparseId == null )
+        elementOfSparseId = new HashMap<Integer, T>();
+      elementOfSparseId.put(id, element);
+    }
+    if ( id > maxId ) maxId = id;
+  }
+
+  /**
+   * @return the element with the given id or null if there is none
+   */
+  @SuppressWarnings("unchecked")
+  public T get(int id) {
+    if ( isDense(id) ) return (T) elementOfId[id];
+    return elementOfSparseId == null ? null : elementOfSparseId.get(id);
+  }
+
+  public boolean contains(int id) {
+    return get(id) != null;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * @return the largest id of any registered element, -1 if there are none
+   */
+  public int maxId() {
+    return maxId;
+  }
+
+  /**
+   * @return the largest id + 1, i.e., the size of an array that can be
+   * indexed by the id of any registered element (if the id is dense)
+   */
+  public int idBound() {
+    return maxId + 1;
+  }
+}
+
+//  [Last modified: 2026 10 17 at 20:53:38 GMT]
@@ -0,0 +1,251 @@
+/**
+ * A binary heap of graph elements that knows where each element is. The
+ * position of every element in the heap array is recorded by identity of
+ * the element, not by its id, since edge ids need not be unique (edges
+ * added while editing or by an algorithm all have id 0), so that contains(), remove() and repositioning an element after
+ * its key has changed take O(log n) time instead of the linear scan done by
+ * java.util.PriorityQueue. This is what makes decreaseKey()/changeKey() in
+ * NodePriorityQueue and EdgePriorityQueue efficient, e.g., in Dijkstra's
+ * and Prim's algorithms.
+ *
+ * An element appears at most once in the queue: adding an element that is
+ * already present simply repositions it.
+ */
+
+package edu.ncsu.csc.Galant.graph.datastructure;
+
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import edu.ncsu.csc.Galant.graph.component.GraphElement;
+
+public abstract class IndexedPriorityQueue<T extends GraphElement>
+  extends AbstractQueue<T> {
+
+  /**
+   * the comparator, or null if the natural order of graph elements (by
+   * weight) is used
+   */
+  private final Comparator<? super T> comparator;
+
+  private GraphElement[] heap;
+  private int size = 0;
+
+  /** the position in the heap of each element in the queue */
+  private final Map<GraphElement, Integer> positions
+    = new IdentityHashMap<GraphElement, Integer>();
+
+  protected IndexedPriorityQueue(int initialCapacity,
+                                 Comparator<? super T> comparator) {
+    this.heap = new GraphElement[Math.max(1, initialCapacity)];
+    this.comparator = comparator;
+  }
+
+  protected IndexedPriorityQueue(Collection<? extends T> C) {
+    this(C.size(), null);
+    addAll(C);
+  }
+
+  public Comparator<? super T> comparator() {
+    return comparator;
+  }
+
+  @SuppressWarnings("unchecked")
+  private T elementAt(int position) {
+    return (T) heap[position];
+  }
+
+  private int compare(T a, T b) {
+    if ( comparator != null )
+      return comparator.compare(a, b);
+    return a.compareTo(b);
+  }
+
+  private void setPosition(T element, int position) {
+    positions.put(element, position);
+  }
+
+  private void clearPosition(T element) {
+    positions.remove(element);
+  }
+
+  /**
+   * @return the position of the element in the heap or -1 if it is not
+   * there
+   */
+  private int positionOf(Object o) {
+    Integer position = positions.get(o);
+    return position == null ? -1 : position;
+  }
+
+  private void place(T element, int position) {
+    heap[position] = element;
+    setPosition(element, position);
+  }
+
+  private void siftUp(int position) {
+    T element = elementAt(position);
+    while ( position > 0 ) {
+      int parent = (position - 1) >>> 1;
+      T parentElement = elementAt(parent);
+      if ( compare(element, parentElement) >= 0 )
+        break;
+      place(parentElement, position);
+      position = parent;
+    }
+    place(element, position);
+  }
+
+  private void siftDown(int position) {
+    T element = elementAt(position);
+    int half = size >>> 1;
+    while ( position < half ) {
+      int child = 2 * position + 1;
+      int right = child + 1;
+      if ( right < size && compare(elementAt(right), elementAt(child)) < 0 )
+        child = right;
+      if ( compare(element, elementAt(child)) <= 0 )
+        break;
+      place(elementAt(child), position);
+      position = child;
+    }
+    place(element, position);
+  }
+
+  /**
+   * Restores the heap order at the given position after the key of the
+   * element there has changed in either direction
+   */
+  private void reposition(int position) {
+    T element = elementAt(position);
+    siftUp(position);
+    if ( heap[position] == element )
+      siftDown(position);
+  }
+
+  /**
+   * Removes the element at the given position
+   */
+  private T removeAt(int position) {
+    T removed = elementAt(position);
+    clearPosition(removed);
+    size--;
+    if ( position == size ) {
+      heap[size] = null;
+    }
+    else {
+      T last = elementAt(size);
+      heap[size] = null;
+      place(last, position);
+      reposition(position);
+    }
+    return removed;
+  }
+
+  /**
+   * Moves the element to the correct position after a change in the value
+   * of its key (the latter is done externally); O(log n)
+   * @return true if the element is in the queue
+   */
+  public boolean update(T element) {
+    int position = positionOf(element);
+    if ( position < 0 )
+      return false;
+    reposition(position);
+    return true;
+  }
+
+  /**
+   * Adds the element to the queue or, if it is already there, moves it to
+   * reflect the current value of its key
+   * @return true if the element was not already in the queue
+   */
+  public boolean offer(T element) {
+    if ( element == null )
+      throw new NullPointerException();
+    if ( update(element) )
+      return false;
+    if ( size == heap.length )
+      heap = Arrays.copyOf(heap, 2 * size);
+    place(element, size);
+    size++;
+    siftUp(size - 1);
+    return true;
+  }
+
+  /**
+   * Same as offer(); overridden because AbstractQueue.add() treats false
+   * as a failure
+   */
+  public boolean add(T element) {
+    return offer(element);
+  }
+
+  public T poll() {
+    if ( size == 0 )
+      return null;
+    return removeAt(0);
+  }
+
+  public T peek() {
+    if ( size == 0 )
+      return null;
+    return elementAt(0);
+  }
+
+  public boolean contains(Object o) {
+    return positionOf(o) >= 0;
+  }
+
+  public boolean remove(Object o) {
+    int position = positionOf(o);
+    if ( position < 0 )
+      return false;
+    removeAt(position);
+    return true;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public void clear() {
+    Arrays.fill(heap, 0, size, null);
+    size = 0;
+    positions.clear();
+  }
+
+  /**
+   * Iterates over a snapshot of the heap, in heap order (not sorted);
+   * removal through the iterator removes the element from the queue
+   */
+  public Iterator<T> iterator() {
+    final GraphElement[] snapshot = Arrays.copyOf(heap, size);
+    return new Iterator<T>() {
+      int next = 0;
+      int last = -1;
+      public boolean hasNext() { return next < snapshot.length; }
+      @SuppressWarnings("unchecked")
+      public T next() {
+        if ( next >= snapshot.length )
+          throw new NoSuchElementException();
+        last = next++;
+        return (T) snapshot[last];
+      }
+      public void remove() {
+        if ( last < 0 )
+          throw new IllegalStateException();
+        IndexedPriorityQueue.this.remove(snapshot[last]);
+        last = -1;
+      }
+    };
+  }
+}
+
+//  [Last modified: 2026 10 17 at 20:47:50 GMT]
@@ -0,0 +1,153 @@
+/**
+ * A hash map whose keys are primitive longs, so that no Long objects are
+ * created for keys and lookups do not chase pointers. Uses open addressing
+ * with linear probing; null values are not allowed (get() returns null for
+ * a missing key). Used, e.g., to look up edges by the pair of id's of
+ * their endpoints, packed into one long.
+ */
+
+package edu.ncsu.csc.Galant.graph.datastructure;
+
+import java.util.Arrays;
+
+public class LongHashMap<V> {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private long[] keys;
+  /** values[i] == null means that slot i is empty */
+  private Object[] values;
+  private int size = 0;
+  /** the table is resized when size exceeds this */
+  private int threshold;
+
+  public LongHashMap() {
+    this(INITIAL_CAPACITY);
+  }
+
+  /**
+   * @param expectedSize the number of entries that can be added without
+   * resizing
+   */
+  public LongHashMap(int expectedSize) {
+    int capacity = INITIAL_CAPACITY;
+    while ( capacity * 3 / 4 < expectedSize ) capacity *= 2;
+    allocate(capacity);
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    values = new Object[capacity];
+    threshold = capacity * 3 / 4;
+  }
+
+  /**
+   * @return the slot where a search for the key begins; the capacity is a
+   * power of 2
+   */
+  private int slotOf(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h >>> 32) & (keys.length - 1);
+  }
+
+  /**
+   * @return the slot that holds the key or, if it is not there, the empty
+   * slot where it would go
+   */
+  private int find(long key) {
+    int mask = keys.length - 1;
+    int slot = slotOf(key);
+    while ( values[slot] != null && keys[slot] != key ) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  @SuppressWarnings("unchecked")
+  public V get(long key) {
+    return (V) values[find(key)];
+  }
+
+  public boolean containsKey(long key) {
+    return values[find(key)] != null;
+  }
+
+  /**
+   * Associates the value with the key, replacing any previous value
+   * @return the previous value or null if there was none
+   */
+  @SuppressWarnings("unchecked")
+  public V put(long key, V value) {
+    if ( value == null )
+      throw new NullPointerException("null values are not allowed");
+    int slot = find(key);
+    V previous = (V) values[slot];
+    keys[slot] = key;
+    values[slot] = value;
+    if ( previous == null && ++size > threshold ) {
+      resize();
+    }
+    return previous;
+  }
+
+  /**
+   * Removes the entry for the key, if any; entries that follow it in the
+   * same run of occupied slots are moved back so that searches never need
+   * to skip deleted slots
+   * @return the value that was removed or null if there was none
+   */
+  @SuppressWarnings("unchecked")
+  public V remove(long key) {
+    int mask = keys.length - 1;
+    int slot = find(key);
+    V removed = (V) values[slot];
+    if ( removed == null ) return null;
+    int hole = slot;
+    int next = (hole + 1) & mask;
+    while ( values[next] != null ) {
+      int home = slotOf(keys[next]);
+      // move the entry into the hole unless its home slot lies
+      // (cyclically) in the interval (hole, next]
+      boolean homeBetween = (hole <= next)
+        ? (hole < home && home <= next)
+        : (hole < home || home <= next);
+      if ( ! homeBetween ) {
+        keys[hole] = keys[next];
+        values[hole] = values[next];
+        hole = next;
+      }
+      next = (next + 1) & mask;
+    }
+    values[hole] = null;
+    size--;
+    return removed;
+  }
+
+  private void resize() {
+    long[] oldKeys = keys;
+    Object[] oldValues = values;
+    allocate(2 * oldKeys.length);
+    for ( int i = 0; i < oldKeys.length; i++ ) {
+      if ( oldValues[i] != null ) {
+        int slot = find(oldKeys[i]);
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public void clear() {
+    Arrays.fill(values, null);
+    size = 0;
+  }
+}
+
+//  [Last modified: 2026 10 17 at 17:42:28 GMT]
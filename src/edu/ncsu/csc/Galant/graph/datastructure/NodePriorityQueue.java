@@ -7,18 +7,16 @@
 
 package edu.ncsu.csc.Galant.graph.datastructure;
 
-import java.util.PriorityQueue;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
-import java.util.Comparator;
 
 import edu.ncsu.csc.Galant.graph.component.Node;
 import edu.ncsu.csc.Galant.graph.component.GraphElement;
 import edu.ncsu.csc.Galant.GalantException;
 import edu.ncsu.csc.Galant.algorithm.Terminate;
 
-public class NodePriorityQueue extends PriorityQueue<Node> {
+public class NodePriorityQueue extends IndexedPriorityQueue<Node> {
   // used only because a priority queue with a specific comparator needs this parameter
   static final int INITIAL_SIZE = 16;
 
@@ -36,7 +34,7 @@ public class NodePriorityQueue extends PriorityQueue<Node> {
    * creates a min-heap whose keys are based on node weight
    */
   public NodePriorityQueue() {
-    super();
+    super(INITIAL_SIZE, null);
   }
 
   /**
@@ -52,7 +50,7 @@ public class NodePriorityQueue extends PriorityQueue<Node> {
    * @param isMax true if this will be a max-heap
    */
   public NodePriorityQueue(boolean isMax) {
-    super(INITIAL_SIZE, Collections.reverseOrder());
+    super(INITIAL_SIZE, Collections.<Node>reverseOrder());
     this.isMaxHeap = true;
   }
 
@@ -156,8 +154,8 @@ public class NodePriorityQueue extends PriorityQueue<Node> {
    * the attribute (the latter is done externally)
    */
   public void changeKey(Node v) throws GalantException {
-    this.remove(v);
-    this.insert(v);
+    if ( ! this.update(v) )
+      this.insert(v);
   }
 
   /**
@@ -165,9 +163,9 @@ public class NodePriorityQueue extends PriorityQueue<Node> {
    * and the position of v in the queue to reflect the change
    */
   public void changeKey(Node v, Double key) throws GalantException, Terminate {
-    this.remove(v);
     v.set(attribute, key);
-    this.insert(v);
+    if ( ! this.update(v) )
+      this.insert(v);
   }
 
   /**
@@ -175,9 +173,9 @@ public class NodePriorityQueue extends PriorityQueue<Node> {
    * and the position of v in the queue to reflect the change
    */
   public void changeDoubleKey(Node v, Double key) throws GalantException, Terminate {
-    this.remove(v);
     v.set(attribute, key);
-    this.insert(v);
+    if ( ! this.update(v) )
+      this.insert(v);
   }
 
   /**
@@ -185,9 +183,9 @@ public class NodePriorityQueue extends PriorityQueue<Node> {
    * and the position of e in the queue to reflect the change
    */
   public void changeStringKey(Node v, String key) throws GalantException, Terminate {
-    this.remove(v);
     v.set(attribute, key);
-    this.insert(v);
+    if ( ! this.update(v) )
+      this.insert(v);
   }
 
   /**
@@ -195,9 +193,9 @@ public class NodePriorityQueue extends PriorityQueue<Node> {
    * and the position of e in the queue to reflect the change
    */
   public void changeIntegerKey(Node v, Integer key) throws GalantException, Terminate {
-    this.remove(v);
     v.set(attribute, key);
-    this.insert(v);
+    if ( ! this.update(v) )
+      this.insert(v);
   }
 
   public void decreaseKey(Node v, double key) throws GalantException, Terminate {
@@ -214,4 +212,4 @@ public class NodePriorityQueue extends PriorityQueue<Node> {
   }
 }
 
-//  [Last modified: 2017 01 20 at 02:11:10 GMT]
+//  [Last modified: 2026 10 17 at 20:47:50 GMT]
@@ -36,6 +36,9 @@ import edu.ncsu.csc.Galant.Timer;
  * Parses a text file and creates a <code>Graph</code> from it. Allows for
  * graph-to-editor and editor-to-graph manipulation.
  *
+ * The constructors use GraphMLStreamParser, which does not build a
+ * document tree; the DOM-based methods below give the same graph.
+ *
  * @author Ty Devries
  */
 public class GraphMLParser {
@@ -46,7 +49,7 @@ public class GraphMLParser {
 
     public GraphMLParser(File graphMLFile) throws GalantException {
         Timer.parsingTime.start();
-        this.graph = generateGraph(graphMLFile);
+        this.graph = GraphMLStreamParser.parse(graphMLFile);
         Timer.parsingTime.stop();
     }
 
@@ -55,7 +58,7 @@ public class GraphMLParser {
             throw new GalantException("No text when invoking GraphMLParser");
         }
         Timer.parsingTime.start();
-        this.graph = generateGraph(xml);
+        this.graph = GraphMLStreamParser.parse(xml);
         Timer.parsingTime.stop();
     }
 
@@ -272,4 +275,4 @@ public class GraphMLParser {
 
 }
 
-//  [Last modified: 2021 01 31 at 14:37:03 GMT]
+//  [Last modified: 2026 10 17 at 18:26:10 GMT]
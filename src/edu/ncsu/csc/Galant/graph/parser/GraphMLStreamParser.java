@@ -0,0 +1,410 @@
+package edu.ncsu.csc.Galant.graph.parser;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import edu.ncsu.csc.Galant.GalantException;
+import edu.ncsu.csc.Galant.GraphDispatch;
+import edu.ncsu.csc.Galant.graph.component.AttributeList;
+import edu.ncsu.csc.Galant.graph.component.Edge;
+import edu.ncsu.csc.Galant.graph.component.Graph;
+import edu.ncsu.csc.Galant.graph.component.Node;
+import edu.ncsu.csc.Galant.logging.LogHelper;
+
+/**
+ * Creates a <code>Graph</code> from GraphML text with a streaming (StAX)
+ * reader, so memory is needed only for the graph itself and not for a
+ * document tree of the whole file. As with the DOM-based methods in
+ * GraphMLParser, the attributes of the first graph element and of every
+ * node and edge element are used; anything else in the file is skipped.
+ *
+ * Loading is pipelined in three stages:
+ * <ol>
+ * <li>a reader thread collects the attributes of node and edge elements,
+ * as strings, in chunks of CHUNK_SIZE elements;</li>
+ * <li>each chunk is decoded into nodes and edges, with Node.decode() and
+ * Edge.decode(), by a task in the common ForkJoinPool, so that chunks are
+ * decoded in parallel while later ones are being read;</li>
+ * <li>the calling thread adds all nodes and then all edges to the graph,
+ * in the order of the input, with Graph.addParsedNode() and
+ * Graph.addParsedEdge(); this is where node ids are checked for
+ * duplicates, edges are attached to their endpoints and the node index is
+ * built.</li>
+ * </ol>
+ */
+public class GraphMLStreamParser {
+
+    /** number of elements passed from the reader thread at a time */
+    private static final int CHUNK_SIZE = 4096;
+
+    /**
+     * number of chunks that may be read ahead of the decoding; bounds the
+     * memory taken by attributes that are still strings
+     */
+    private static final int CHUNKS_AHEAD
+        = 2 * ForkJoinPool.getCommonPoolParallelism() + 2;
+
+    private static final XMLInputFactory FACTORY = newFactory();
+
+    private static XMLInputFactory newFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // as with the DocumentBuilder in GraphMLParser, names are taken
+        // as they appear in the text, prefix included
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES,
+                            false);
+        return factory;
+    }
+
+    /**
+     * Attributes of consecutive node and edge elements; names and values
+     * alternate in each array
+     */
+    private static class Chunk {
+        final List<String[]> nodes = new ArrayList<String[]>();
+        final List<String[]> edges = new ArrayList<String[]>();
+
+        int size() { return nodes.size() + edges.size(); }
+    }
+
+    /** marks the end of the input in the queue of chunks */
+    private static final Chunk END = new Chunk();
+
+    /**
+     * Nodes and edges decoded from a chunk; endpoints holds the ids of the
+     * source and target of each edge
+     */
+    private static class DecodedChunk {
+        final List<Node> nodes;
+        final List<Edge> edges;
+        final int[] endpoints;
+
+        DecodedChunk(int numberOfNodes, int numberOfEdges) {
+            nodes = new ArrayList<Node>(numberOfNodes);
+            edges = new ArrayList<Edge>(numberOfEdges);
+            endpoints = new int[2 * numberOfEdges];
+        }
+    }
+
+    private final Graph graph;
+    private final XMLStreamReader reader;
+    private final BlockingQueue<Chunk> chunks
+        = new ArrayBlockingQueue<Chunk>(CHUNKS_AHEAD);
+    /** set by the reader thread if the text is not well-formed */
+    private volatile XMLStreamException readError;
+    /**
+     * set by the reader thread if it fails otherwise, e.g., with a
+     * RuntimeException from the XMLStreamReader or an OutOfMemoryError
+     */
+    private volatile Throwable readFailure;
+
+    private GraphMLStreamParser(Graph graph, XMLStreamReader reader) {
+        this.graph = graph;
+        this.reader = reader;
+    }
+
+    /**
+     * @return the graph described by the GraphML file
+     */
+    public static Graph parse(File file) throws GalantException {
+        try ( InputStream in
+              = new BufferedInputStream(new FileInputStream(file)) ) {
+            XMLStreamReader reader;
+            synchronized ( FACTORY ) {
+                reader = FACTORY.createXMLStreamReader(in);
+            }
+            return parse(reader);
+        }
+        catch ( XMLStreamException | IOException e ) {
+            throw new GalantException(e.getMessage()
+                                      + "\n - in GraphMLStreamParser.parse(File)",
+                                      e);
+        }
+    }
+
+    /**
+     * @return the graph described by the GraphML text
+     */
+    public static Graph parse(String xml) throws GalantException {
+        try {
+            XMLStreamReader reader;
+            synchronized ( FACTORY ) {
+                reader = FACTORY.createXMLStreamReader(new StringReader(xml));
+            }
+            return parse(reader);
+        }
+        catch ( XMLStreamException e ) {
+            throw new GalantException(e.getMessage()
+                                      + "\n - in GraphMLStreamParser.parse(String)",
+                                      e);
+        }
+    }
+
+    private static Graph parse(XMLStreamReader reader)
+        throws XMLStreamException, GalantException {
+        LogHelper.disable();
+        LogHelper.enterMethod(GraphMLStreamParser.class, "parse");
+        GraphDispatch dispatch = GraphDispatch.getInstance();
+        // we don't want to create new states for changes during parsing
+        dispatch.setEditMode(false);
+
+        Graph graphUnderConstruction = new Graph();
+        try {
+            if ( ! skipToGraphElement(reader) )
+                throw new GalantException("No graph element in GraphML text");
+            // graph attributes, layered in particular, have to be known
+            // before any node is decoded
+            setGraphAttributes(graphUnderConstruction, reader);
+            new GraphMLStreamParser(graphUnderConstruction, reader).load();
+        }
+        finally {
+            reader.close();
+        }
+        graphUnderConstruction.initializeAfterParsing();
+        LogHelper.exitMethod(GraphMLStreamParser.class, "parse");
+        LogHelper.restoreState();
+        dispatch.setEditMode(true);
+        return graphUnderConstruction;
+    }
+
+    /**
+     * @return true if the reader is at the start of a graph element, false
+     * if there is none
+     */
+    private static boolean skipToGraphElement(XMLStreamReader reader)
+        throws XMLStreamException {
+        while ( reader.hasNext() ) {
+            if ( reader.next() == XMLStreamConstants.START_ELEMENT
+                 && reader.getLocalName().equals("graph") )
+                return true;
+        }
+        return false;
+    }
+
+    private static void setGraphAttributes(Graph graph,
+                                           XMLStreamReader reader) {
+        String directed = reader.getAttributeValue(null, "edgedefault");
+        graph.setDirected(directed != null
+                          && directed.equalsIgnoreCase("directed"));
+        graph.setName(reader.getAttributeValue(null, "name"));
+        graph.setComment(reader.getAttributeValue(null, "comment"));
+        String type = reader.getAttributeValue(null, "type");
+        graph.setLayered(type != null && type.equalsIgnoreCase("layered"));
+    }
+
+    /**
+     * Runs the three stages of loading for the rest of the input
+     */
+    private void load() throws XMLStreamException, GalantException {
+        Thread readerThread = new Thread(new Runnable() {
+                public void run() {
+                    readChunks();
+                }
+            }, "GraphML reader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        ArrayDeque<Future<DecodedChunk>> decoding
+            = new ArrayDeque<Future<DecodedChunk>>();
+        List<DecodedChunk> decoded = new ArrayList<DecodedChunk>();
+        try {
+            Chunk chunk;
+            while ( (chunk = chunks.take()) != END ) {
+                decoding.add(pool.submit(decoder(chunk)));
+                if ( decoding.size() > CHUNKS_AHEAD )
+                    decoded.add(result(decoding.poll()));
+            }
+            if ( readError != null ) throw readError;
+            if ( readFailure instanceof RuntimeException )
+                throw (RuntimeException) readFailure;
+            if ( readFailure != null ) throw (Error) readFailure;
+            while ( ! decoding.isEmpty() ) {
+                decoded.add(result(decoding.poll()));
+            }
+        }
+        catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GalantException("Interrupted while reading GraphML", e);
+        }
+        finally {
+            for ( Future<DecodedChunk> f : decoding ) f.cancel(false);
+            stop(readerThread);
+        }
+
+        for ( DecodedChunk chunk : decoded ) {
+            for ( Node node : chunk.nodes ) graph.addParsedNode(node);
+        }
+        for ( DecodedChunk chunk : decoded ) {
+            for ( int i = 0; i < chunk.edges.size(); i++ ) {
+                graph.addParsedEdge(chunk.edges.get(i),
+                                    chunk.endpoints[2 * i],
+                                    chunk.endpoints[2 * i + 1]);
+            }
+        }
+    }
+
+    /**
+     * Makes sure that the reader thread is done with the XMLStreamReader
+     * before it is closed; after an error, the interrupt makes it stop at
+     * the next chunk
+     */
+    private static void stop(Thread readerThread) {
+        readerThread.interrupt();
+        boolean interrupted = false;
+        while ( readerThread.isAlive() ) {
+            try {
+                readerThread.join();
+            }
+            catch ( InterruptedException e ) {
+                interrupted = true;
+            }
+        }
+        if ( interrupted ) Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Stage 1, in the reader thread: passes the attributes of node and edge
+     * elements to the calling thread; stops early if interrupted, i.e., if
+     * the calling thread has given up because of an error. Otherwise END is
+     * always queued last, also after a failure, which the calling thread
+     * then rethrows.
+     */
+    private void readChunks() {
+        boolean interrupted = false;
+        try {
+            Chunk chunk = new Chunk();
+            while ( reader.hasNext() ) {
+                if ( reader.next() != XMLStreamConstants.START_ELEMENT )
+                    continue;
+                String element = reader.getLocalName();
+                if ( element.equals("node") ) {
+                    chunk.nodes.add(attributesOf(reader));
+                }
+                else if ( element.equals("edge") ) {
+                    chunk.edges.add(attributesOf(reader));
+                }
+                else {
+                    continue;
+                }
+                if ( chunk.size() == CHUNK_SIZE ) {
+                    chunks.put(chunk);
+                    chunk = new Chunk();
+                }
+            }
+            if ( chunk.size() > 0 ) chunks.put(chunk);
+        }
+        catch ( XMLStreamException e ) {
+            readError = e;
+        }
+        catch ( InterruptedException e ) {
+            interrupted = true;
+        }
+        catch ( RuntimeException | Error e ) {
+            readFailure = e;
+        }
+        finally {
+            // once interrupted, the calling thread takes no more chunks
+            if ( ! interrupted ) {
+                try {
+                    chunks.put(END);
+                }
+                catch ( InterruptedException e ) {
+                    // the calling thread has given up
+                }
+            }
+        }
+    }
+
+    private static String[] attributesOf(XMLStreamReader reader) {
+        int count = reader.getAttributeCount();
+        String[] attributes = new String[2 * count];
+        for ( int i = 0; i < count; i++ ) {
+            attributes[2 * i] = reader.getAttributeLocalName(i);
+            attributes[2 * i + 1] = reader.getAttributeValue(i);
+        }
+        return attributes;
+    }
+
+    /**
+     * @return a task for stage 2: decoding a chunk, independently of other
+     * chunks and of the graph, apart from its type
+     */
+    private Callable<DecodedChunk> decoder(final Chunk chunk) {
+        return new Callable<DecodedChunk>() {
+            public DecodedChunk call() throws GalantException {
+                DecodedChunk result
+                    = new DecodedChunk(chunk.nodes.size(), chunk.edges.size());
+                for ( String[] attributes : chunk.nodes ) {
+                    result.nodes.add(Node.decode(graph,
+                                                 attributeList(attributes)));
+                }
+                int i = 0;
+                for ( String[] attributes : chunk.edges ) {
+                    AttributeList L = attributeList(attributes);
+                    result.endpoints[i++] = Edge.endpointId(L, "source");
+                    result.endpoints[i++] = Edge.endpointId(L, "target");
+                    result.edges.add(Edge.decode(graph, L));
+                }
+                return result;
+            }
+        };
+    }
+
+    /**
+     * @return the attributes as an AttributeList, with values as strings;
+     * they are converted when the element is decoded
+     */
+    private static AttributeList attributeList(String[] attributes) {
+        AttributeList L = new AttributeList();
+        for ( int i = 0; i < attributes.length; i += 2 ) {
+            L.set(attributes[i], attributes[i + 1]);
+        }
+        return L;
+    }
+
+    /**
+     * @return the decoded chunk, once the task is done
+     * @throw GalantException if an element in the chunk could not be decoded
+     */
+    private static DecodedChunk result(Future<DecodedChunk> task)
+        throws GalantException, InterruptedException {
+        try {
+            return task.get();
+        }
+        catch ( ExecutionException e ) {
+            Throwable cause = e.getCause();
+            // the pool wraps checked exceptions in RuntimeExceptions
+            while ( cause.getClass() == RuntimeException.class
+                    && cause.getCause() != null ) {
+                cause = cause.getCause();
+            }
+            if ( cause instanceof GalantException )
+                throw (GalantException) cause;
+            if ( cause instanceof RuntimeException )
+                throw (RuntimeException) cause;
+            // decoding throws no other checked exceptions
+            throw (Error) cause;
+        }
+    }
+}
+
+//  [Last modified: 2026 10 17 at 20:33:31 GMT]
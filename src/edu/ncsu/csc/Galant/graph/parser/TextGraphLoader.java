@@ -0,0 +1,518 @@
+package edu.ncsu.csc.Galant.graph.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import edu.ncsu.csc.Galant.GalantException;
+import edu.ncsu.csc.Galant.GraphDispatch;
+import edu.ncsu.csc.Galant.Timer;
+import edu.ncsu.csc.Galant.graph.component.AttributeList;
+import edu.ncsu.csc.Galant.graph.component.DoubleAttribute;
+import edu.ncsu.csc.Galant.graph.component.Edge;
+import edu.ncsu.csc.Galant.graph.component.GraphElement;
+import edu.ncsu.csc.Galant.graph.component.Graph;
+import edu.ncsu.csc.Galant.graph.component.Node;
+import edu.ncsu.csc.Galant.graph.datastructure.IdRegistry;
+
+/**
+ * Creates a <code>Graph</code> directly from one of the plain text formats
+ * handled by the scripts in Conversion-Scripts, with the same result as
+ * converting to GraphML and parsing that:
+ * <ul>
+ * <li>edge lists, e.g., SNAP datasets (snap2graphml.py): lines beginning
+ * with '#' are comments, every other line is "source target", separated
+ * by white space, with any further columns ignored; the graph is
+ * undirected and each node is placed at random when it first appears;</li>
+ * <li>gph (gph2graphml.py): "c" comment lines, "g nodes edges", then
+ * "n v x y" (or "n v") and "e source target weight" lines; positions and
+ * weights are scaled to the window, and nodes without a position are
+ * placed at random;</li>
+ * <li>sgf (sgf2layered_graphml.py): "c" comment lines, "t name", then
+ * "n v layer position" and "e source target" lines; the graph is directed
+ * and layered.</li>
+ * </ul>
+ * The window is WINDOW_SIZE square with PADDING at each border, the
+ * defaults of gph2graphml.py; comments are dropped, as they are when the
+ * GraphML version is parsed.
+ *
+ * Large files, e.g., edge lists with tens of millions of edges, are the
+ * point of bypassing GraphML: the file is memory-mapped a region at a time
+ * and numbers are parsed from its bytes, so reading allocates nothing but
+ * the graph itself.
+ */
+public class TextGraphLoader {
+    public static final String GPH_EXTENSION = ".gph";
+    public static final String SGF_EXTENSION = ".sgf";
+    public static final String[] EDGE_LIST_EXTENSIONS = { ".edges", ".snap" };
+
+    public static final int WINDOW_SIZE = 750;
+    public static final int PADDING = 50;
+
+    /** as in gph2graphml.py, to keep scaled values inside the window */
+    private static final double EPSILON = 0.0001;
+
+    /** number of bytes of the file mapped at a time */
+    private static final int REGION_SIZE = 1 << 26;
+
+    private static final int EOF = -1;
+
+    /**
+     * attributes of nodes and edges in edge lists; elements copy the
+     * attributes into their histories, so the list can be shared
+     */
+    private static final AttributeList NO_ATTRIBUTES = new AttributeList();
+
+    /** powers of 10 that are exact as doubles, for readDouble() */
+    private static final double[] POWERS_OF_TEN = new double[23];
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for ( int i = 1; i < POWERS_OF_TEN.length; i++ )
+            POWERS_OF_TEN[i] = 10 * POWERS_OF_TEN[i - 1];
+    }
+
+    private final File file;
+    private final FileChannel channel;
+    private final long fileSize;
+    /** the mapped part of the file and its offset in the file */
+    private MappedByteBuffer region;
+    private long regionStart;
+    private int lineNumber = 1;
+    /** text of the number being read by readDouble() */
+    private final StringBuilder token = new StringBuilder();
+
+    private final Graph graph = new Graph();
+    private final Random random = new Random();
+
+    /**
+     * @return true if the name of the file indicates one of the formats
+     */
+    public static boolean handles(File file) {
+        String name = file.getName();
+        if ( name.endsWith(GPH_EXTENSION) || name.endsWith(SGF_EXTENSION) )
+            return true;
+        for ( String extension : EDGE_LIST_EXTENSIONS ) {
+            if ( name.endsWith(extension) ) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the graph in the file, whose format is determined by its
+     * extension; anything other than gph or sgf is read as an edge list
+     */
+    public static Graph load(File file) throws GalantException {
+        Timer.parsingTime.start();
+        GraphDispatch dispatch = GraphDispatch.getInstance();
+        // as in GraphMLParser, no new states for changes while loading
+        dispatch.setEditMode(false);
+        try ( FileChannel channel
+              = FileChannel.open(file.toPath(), StandardOpenOption.READ) ) {
+            TextGraphLoader loader = new TextGraphLoader(file, channel);
+            String name = file.getName();
+            if ( name.endsWith(GPH_EXTENSION) ) loader.readGph();
+            else if ( name.endsWith(SGF_EXTENSION) ) loader.readSgf();
+            else loader.readEdgeList();
+            loader.graph.initializeAfterParsing();
+            dispatch.setEditMode(true);
+            return loader.graph;
+        }
+        catch ( IOException e ) {
+            throw new GalantException(e.getMessage()
+                                      + "\n - in TextGraphLoader.load",
+                                      e);
+        }
+        finally {
+            Timer.parsingTime.stop();
+        }
+    }
+
+    private TextGraphLoader(File file, FileChannel channel)
+        throws IOException {
+        this.file = file;
+        this.channel = channel;
+        this.fileSize = channel.size();
+        mapRegion(0);
+    }
+
+    private void mapRegion(long start) throws IOException {
+        regionStart = start;
+        region = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                             Math.min(REGION_SIZE, fileSize - start));
+    }
+
+    // ************** edge lists **************
+
+    private void readEdgeList() throws IOException, GalantException {
+        graph.setDirected(false);
+        IdRegistry<Node> nodeOfId = new IdRegistry<Node>();
+        int canvasSize = WINDOW_SIZE - 2 * PADDING;
+        while ( skipBlankLines() != EOF ) {
+            if ( peek() == '#' ) {
+                skipLine();
+                continue;
+            }
+            int sourceId = readInt();
+            int targetId = readInt();
+            skipLine();
+            Node source = nodeOfId.get(sourceId);
+            if ( source == null ) {
+                source = randomNode(sourceId, canvasSize);
+                nodeOfId.put(sourceId, source);
+            }
+            Node target = nodeOfId.get(targetId);
+            if ( target == null ) {
+                target = randomNode(targetId, canvasSize);
+                nodeOfId.put(targetId, target);
+            }
+            graph.addParsedEdge(new Edge(graph, source, target,
+                                         NO_ATTRIBUTES));
+        }
+    }
+
+    /**
+     * @return a new node of the graph, placed at random in the window, as
+     * in snap2graphml.py
+     */
+    private Node randomNode(int id, int canvasSize) throws GalantException {
+        int x = random.nextInt(canvasSize + 1) + PADDING;
+        int y = random.nextInt(canvasSize + 1) + PADDING;
+        Node node = new Node(graph, id, x, y, NO_ATTRIBUTES);
+        graph.addParsedNode(node);
+        return node;
+    }
+
+    // ************** gph **************
+
+    private void readGph() throws IOException, GalantException {
+        graph.setDirected(false);
+        skipComments();
+        expectKeyword('g');
+        int expectedNodes = Math.max(readInt(), 0);
+        int expectedEdges = Math.max(readInt(), 0);
+        skipLine();
+
+        // nodes in the order of their n lines; x and y are NaN if the
+        // position is not given
+        int numberOfNodes = 0;
+        int[] nodeIds = new int[Math.min(expectedNodes, 1 << 20) + 1];
+        double[] xs = new double[nodeIds.length];
+        double[] ys = new double[nodeIds.length];
+        IdRegistry<Boolean> listed = new IdRegistry<Boolean>();
+        int numberOfEdges = 0;
+        int[] endpoints = new int[2 * (Math.min(expectedEdges, 1 << 20) + 1)];
+        double[] weights = new double[endpoints.length / 2];
+
+        while ( skipBlankLines() != EOF ) {
+            int keyword = readKeyword();
+            if ( keyword == 'n' ) {
+                if ( numberOfNodes == nodeIds.length ) {
+                    nodeIds = Arrays.copyOf(nodeIds, 2 * numberOfNodes);
+                    xs = Arrays.copyOf(xs, 2 * numberOfNodes);
+                    ys = Arrays.copyOf(ys, 2 * numberOfNodes);
+                }
+                int id = readInt();
+                nodeIds[numberOfNodes] = id;
+                if ( atEndOfLine() ) {
+                    xs[numberOfNodes] = Double.NaN;
+                    ys[numberOfNodes] = Double.NaN;
+                }
+                else {
+                    xs[numberOfNodes] = readDouble();
+                    ys[numberOfNodes] = readDouble();
+                }
+                listed.put(id, Boolean.TRUE);
+                numberOfNodes++;
+            }
+            else if ( keyword == 'e' ) {
+                if ( 2 * numberOfEdges == endpoints.length ) {
+                    endpoints = Arrays.copyOf(endpoints, 4 * numberOfEdges);
+                    weights = Arrays.copyOf(weights, 2 * numberOfEdges);
+                }
+                endpoints[2 * numberOfEdges] = readInt();
+                endpoints[2 * numberOfEdges + 1] = readInt();
+                weights[numberOfEdges] = readDouble();
+                numberOfEdges++;
+            }
+            else {
+                throw error("bad input line");
+            }
+            skipLine();
+        }
+
+        // endpoints of edges that have no n line become nodes without
+        // positions, in order of appearance
+        for ( int i = 0; i < 2 * numberOfEdges; i++ ) {
+            int id = endpoints[i];
+            if ( listed.get(id) != null ) continue;
+            listed.put(id, Boolean.TRUE);
+            if ( numberOfNodes == nodeIds.length ) {
+                nodeIds = Arrays.copyOf(nodeIds, 2 * numberOfNodes);
+                xs = Arrays.copyOf(xs, 2 * numberOfNodes);
+                ys = Arrays.copyOf(ys, 2 * numberOfNodes);
+            }
+            nodeIds[numberOfNodes] = id;
+            xs[numberOfNodes] = Double.NaN;
+            ys[numberOfNodes] = Double.NaN;
+            numberOfNodes++;
+        }
+
+        // scaling as in modified_graph() of gph2graphml.py, for a square
+        // window; note that the maximum x starts at 1, the maximum y at 0
+        double maxX = 1;
+        double maxY = 0;
+        for ( int i = 0; i < numberOfNodes; i++ ) {
+            if ( Double.isNaN(xs[i]) ) continue;
+            if ( xs[i] > maxX ) maxX = xs[i];
+            if ( ys[i] > maxY ) maxY = ys[i];
+        }
+        if ( maxY == 0 ) maxY = maxX;
+        for ( int i = 0; i < numberOfNodes; i++ ) {
+            if ( ! Double.isNaN(xs[i]) ) continue;
+            xs[i] = 1 + random.nextInt(Math.max((int) maxX, 1));
+            ys[i] = 1 + random.nextInt(Math.max((int) maxY, 1));
+        }
+        double scaleFactor
+            = (WINDOW_SIZE - 2 * PADDING) / Math.max(maxX, maxY);
+        for ( int i = 0; i < numberOfNodes; i++ ) {
+            Node node = new Node(graph, nodeIds[i],
+                                 PADDING + scale(xs[i], scaleFactor),
+                                 PADDING + scale(ys[i], scaleFactor),
+                                 NO_ATTRIBUTES);
+            graph.addParsedNode(node);
+        }
+        for ( int i = 0; i < numberOfEdges; i++ ) {
+            AttributeList L = new AttributeList();
+            L.set(new DoubleAttribute(GraphElement.WEIGHT,
+                                      1 + scale(weights[i], scaleFactor)));
+            Edge edge = new Edge(graph, null, null, L);
+            graph.addParsedEdge(edge, endpoints[2 * i],
+                                endpoints[2 * i + 1]);
+        }
+    }
+
+    private static int scale(double value, double scaleFactor) {
+        return (int) (value * scaleFactor - EPSILON);
+    }
+
+    // ************** sgf **************
+
+    private void readSgf() throws IOException, GalantException {
+        graph.setDirected(true);
+        graph.setLayered(true);
+        skipComments();
+        expectKeyword('t');
+        graph.setName(readWord());
+        skipLine();
+
+        int numberOfEdges = 0;
+        int[] endpoints = new int[64];
+        while ( skipBlankLines() != EOF ) {
+            int keyword = readKeyword();
+            if ( keyword == 'n' ) {
+                int id = readInt();
+                AttributeList L = new AttributeList();
+                L.set("layer", readInt());
+                L.set("positionInLayer", readInt());
+                graph.addParsedNode(new Node(graph, id, 0, 0, L));
+            }
+            else if ( keyword == 'e' ) {
+                if ( 2 * numberOfEdges == endpoints.length ) {
+                    endpoints = Arrays.copyOf(endpoints, 4 * numberOfEdges);
+                }
+                endpoints[2 * numberOfEdges] = readInt();
+                endpoints[2 * numberOfEdges + 1] = readInt();
+                numberOfEdges++;
+            }
+            // other lines are ignored, as in the script
+            skipLine();
+        }
+        // edges may refer to nodes that come later in the file
+        for ( int i = 0; i < numberOfEdges; i++ ) {
+            graph.addParsedEdge(new Edge(graph, null, null, NO_ATTRIBUTES),
+                                endpoints[2 * i], endpoints[2 * i + 1]);
+        }
+    }
+
+    // ************** reading the file **************
+
+    /**
+     * @return the next byte of the file, without consuming it, or EOF
+     */
+    private int peek() throws IOException {
+        if ( ! region.hasRemaining() ) {
+            long next = regionStart + region.limit();
+            if ( next >= fileSize ) return EOF;
+            mapRegion(next);
+        }
+        return region.get(region.position()) & 0xff;
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        if ( c == EOF ) return EOF;
+        region.position(region.position() + 1);
+        if ( c == '\n' ) lineNumber++;
+        return c;
+    }
+
+    private static boolean isBlank(int c) {
+        return c == ' ' || c == '\t' || c == '\r';
+    }
+
+    private void skipBlanks() throws IOException {
+        while ( isBlank(peek()) ) read();
+    }
+
+    /**
+     * Skips the rest of the current line, including the line break
+     */
+    private void skipLine() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while ( c != '\n' && c != EOF );
+    }
+
+    /**
+     * @return the first character of the next line that is not blank, or
+     * EOF; nothing is consumed on that line other than leading blanks
+     */
+    private int skipBlankLines() throws IOException {
+        while ( true ) {
+            skipBlanks();
+            if ( peek() != '\n' ) return peek();
+            read();
+        }
+    }
+
+    private boolean atEndOfLine() throws IOException {
+        skipBlanks();
+        int c = peek();
+        return c == '\n' || c == EOF;
+    }
+
+    /**
+     * Skips lines whose first word is "c"
+     */
+    private void skipComments() throws IOException, GalantException {
+        while ( skipBlankLines() == 'c' ) {
+            readKeyword();
+            skipLine();
+        }
+    }
+
+    /**
+     * @return the single-character word at the start of a line
+     */
+    private int readKeyword() throws IOException, GalantException {
+        int keyword = read();
+        int c = peek();
+        if ( ! isBlank(c) && c != '\n' && c != EOF )
+            throw error("bad input line");
+        return keyword;
+    }
+
+    private void expectKeyword(int keyword)
+        throws IOException, GalantException {
+        if ( skipBlankLines() == EOF || readKeyword() != keyword )
+            throw error("expected a line beginning with "
+                        + (char) keyword);
+    }
+
+    private String readWord() throws IOException {
+        skipBlanks();
+        StringBuilder word = new StringBuilder();
+        int c;
+        while ( (c = peek()) != EOF && c != '\n' && ! isBlank(c) ) {
+            word.append((char) read());
+        }
+        return word.toString();
+    }
+
+    private int readInt() throws IOException, GalantException {
+        skipBlanks();
+        boolean negative = false;
+        if ( peek() == '-' ) {
+            negative = true;
+            read();
+        }
+        else if ( peek() == '+' ) {
+            read();
+        }
+        long value = 0;
+        int digits = 0;
+        int c;
+        while ( (c = peek()) >= '0' && c <= '9' ) {
+            read();
+            value = 10 * value + (c - '0');
+            if ( value > (long) Integer.MAX_VALUE + 1 )
+                throw error("number too large");
+            digits++;
+        }
+        if ( digits == 0 ) throw error("expected an integer");
+        if ( negative ) value = -value;
+        if ( value > Integer.MAX_VALUE ) throw error("number too large");
+        return (int) value;
+    }
+
+    /**
+     * Reads a decimal number, with optional fraction and exponent; the
+     * usual case, up to 15 significant digits and a small exponent, is
+     * computed exactly without going through a String
+     */
+    private double readDouble() throws IOException, GalantException {
+        skipBlanks();
+        token.setLength(0);
+        boolean negative = false;
+        int c = peek();
+        if ( c == '-' || c == '+' ) {
+            negative = c == '-';
+            token.append((char) read());
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean fraction = false;
+        while ( true ) {
+            c = peek();
+            if ( c >= '0' && c <= '9' ) {
+                token.append((char) read());
+                if ( digits < 18 ) mantissa = 10 * mantissa + (c - '0');
+                digits++;
+                if ( fraction ) exponent--;
+            }
+            else if ( c == '.' && ! fraction ) {
+                token.append((char) read());
+                fraction = true;
+            }
+            else break;
+        }
+        if ( digits == 0 ) throw error("expected a number");
+        if ( c == 'e' || c == 'E' ) {
+            token.append((char) read());
+            c = peek();
+            if ( c == '-' || c == '+' ) token.append((char) read());
+            while ( (c = peek()) >= '0' && c <= '9' ) {
+                token.append((char) read());
+            }
+            return Double.parseDouble(token.toString());
+        }
+        if ( digits > 15 || -exponent >= POWERS_OF_TEN.length )
+            return Double.parseDouble(token.toString());
+        double value = exponent == 0
+            ? mantissa : mantissa / POWERS_OF_TEN[-exponent];
+        return negative ? -value : value;
+    }
+
+    private GalantException error(String message) {
+        return new GalantException(file + ", line " + lineNumber + ": "
+                                   + message);
+    }
+}
+
+//  [Last modified: 2026 10 17 at 18:50:53 GMT]
@@ -1,20 +1,34 @@
 package edu.ncsu.csc.Galant.gui.editor;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.awt.BorderLayout;
+import java.awt.Color;
 import java.awt.GridLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.beans.PropertyChangeEvent;
 
 import javax.swing.JButton;
+import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.DefaultHighlighter;
+import javax.swing.text.Element;
+import javax.swing.text.Highlighter;
 import javax.tools.Diagnostic;
 import edu.ncsu.csc.Galant.GraphDispatch;
 import edu.ncsu.csc.Galant.algorithm.Algorithm;
 import edu.ncsu.csc.Galant.algorithm.code.CodeIntegrator;
 import edu.ncsu.csc.Galant.algorithm.code.CompilationException;
+import edu.ncsu.csc.Galant.algorithm.code.CompilerAndLoader;
 import edu.ncsu.csc.Galant.algorithm.code.macro.MalformedMacroException;
 import edu.ncsu.csc.Galant.logging.LogHelper;
 import edu.ncsu.csc.Galant.GalantException;
@@ -30,6 +44,11 @@ import edu.ncsu.csc.Galant.algorithm.AlgorithmSynchronizer;
  * The panel displays in the GTabbedPane and provides all the graphical interface
  * for the algorithm edit session, including the Compile and Run buttons.
  *
+ * The algorithm is also compiled in the background whenever the user stops
+ * typing for a moment (see precompile()), so that it is usually ready to
+ * run without pressing Compile; problems found this way appear below the
+ * text and the lines in question are highlighted, without a popup.
+ *
  * Compare to GGraphEditorPanel.
  *
  * @author Jason Cockrell
@@ -44,10 +63,47 @@ public class GAlgorithmEditorPanel extends GEditorPanel {
    */
   private static final int MAX_LINES_IN_ERROR_DISPLAY = 1;
 
+  /**
+   * time, in milliseconds, after the last edit at which the algorithm is
+   * compiled in the background
+   */
+  private static final int PRECOMPILE_DELAY = 750;
+
+  /** background color of lines with compilation errors */
+  private static final Color ERROR_LINE_COLOR = new Color(255, 220, 220);
+
+  /**
+   * runs the background compilations of all edit sessions, one at a time
+   */
+  private static final ExecutorService precompiler
+    = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        public Thread newThread(Runnable task) {
+          Thread thread = new Thread(task);
+          thread.setName("Algorithm precompiler");
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+
   /** Should always be accessed through getter/setter */
   private Algorithm compiledAlgorithm;
   private RunButton runButton;
 
+  /** restarted with every edit; compiles the algorithm when it fires */
+  private Timer precompileTimer;
+
+  /**
+   * the text most recently handed to the precompiler; compilations of
+   * older text are skipped
+   */
+  private volatile String precompileText;
+
+  /** shows the outcome of the latest compilation */
+  private JLabel diagnosticsLabel;
+
+  /** highlights of the lines with errors in the latest compilation */
+  private final List<Object> errorHighlights = new ArrayList<Object>();
+
   /**
    * Create a new edit session of an algorithm.
    * @param gTabbedPane The parent tabbed pane, of which there is only ever one.
@@ -58,13 +114,144 @@ public class GAlgorithmEditorPanel extends GEditorPanel {
    */
   public GAlgorithmEditorPanel(GTabbedPane gTabbedPane, String filename, String content) {
     super(gTabbedPane, filename, content);
-    add(new ButtonsPanel(), BorderLayout.SOUTH);
+    JPanel southPanel = new JPanel( new BorderLayout() );
+    diagnosticsLabel = new JLabel(" ");
+    southPanel.add(diagnosticsLabel, BorderLayout.NORTH);
+    southPanel.add(new ButtonsPanel(), BorderLayout.CENTER);
+    add(southPanel, BorderLayout.SOUTH);
+    precompileTimer = new Timer(PRECOMPILE_DELAY, new ActionListener() {
+        public void actionPerformed(ActionEvent e) { precompile(); }
+      });
+    precompileTimer.setRepeats(false);
     syntaxHighlighter = new GAlgorithmSyntaxHighlighting(textPane);
     documentUpdated();
     setCompiledAlgorithm(null);
     GraphDispatch.getInstance().addChangeListener(this);
   }
 
+  @Override
+  protected void documentUpdated() {
+    super.documentUpdated();
+    // null while the superclass is being constructed
+    if ( precompileTimer != null ) precompileTimer.restart();
+  }
+
+  /**
+   * Compiles the current text in the background; when done, the result is
+   * shown as for the Compile button, unless the text has changed in the
+   * meantime. The compiled class is cached (see CompiledAlgorithmCache),
+   * so a later Compile or Compile and Run of the same text is immediate.
+   */
+  private void precompile() {
+    // the text cannot change during an animation
+    if ( ! textPane.isEnabled() ) return;
+    final String name = fileName;
+    final String text = textPane.getText();
+    precompileText = text;
+    precompiler.execute(new Runnable() {
+        public void run() {
+          if ( text != precompileText ) return;
+          Class<? extends Algorithm> algorithmClass = null;
+          Exception problem = null;
+          try {
+            algorithmClass = CodeIntegrator.compileAlgorithm(name, text);
+          }
+          catch ( CompilationException | MalformedMacroException
+                  | GalantException e ) {
+            problem = e;
+          }
+          final Class<? extends Algorithm> compiledClass = algorithmClass;
+          final Exception compileProblem = problem;
+          SwingUtilities.invokeLater(new Runnable() {
+              public void run() {
+                precompiled(name, text, compiledClass, compileProblem);
+              }
+            });
+        }
+      });
+  }
+
+  /**
+   * Called on the event dispatch thread when a background compilation is
+   * done; exactly one of algorithmClass and problem is null
+   */
+  private void precompiled(String name, String text,
+                           Class<? extends Algorithm> algorithmClass,
+                           Exception problem) {
+    if ( ! name.equals(fileName) || ! text.equals(textPane.getText()) )
+      return;
+    if ( problem == null ) {
+      Algorithm current = getCompiledAlgorithm();
+      if ( current == null || current.getClass() != algorithmClass ) {
+        try {
+          setCompiledAlgorithm(CompilerAndLoader.instantiate(algorithmClass));
+        }
+        catch ( GalantException e ) {
+          problem = e;
+        }
+      }
+    }
+    if ( problem != null ) setCompiledAlgorithm(null);
+    showCompilationResult(problem);
+  }
+
+  /**
+   * Shows the outcome of a compilation below the text: the first error, if
+   * any, with all errors in the tooltip, and highlights the lines with
+   * errors; the line numbers of the generated Java code are those of the
+   * algorithm (see CodeIntegrator.toJavaClass()).
+   * @param problem the exception thrown by the compilation, null if there
+   * was none
+   */
+  private void showCompilationResult(Exception problem) {
+    Highlighter highlighter = textPane.getHighlighter();
+    for ( Object highlight : errorHighlights ) {
+      highlighter.removeHighlight(highlight);
+    }
+    errorHighlights.clear();
+    diagnosticsLabel.setToolTipText(null);
+    if ( problem == null ) {
+      diagnosticsLabel.setText("Compiled");
+      return;
+    }
+    if ( ! (problem instanceof CompilationException) ) {
+      diagnosticsLabel.setText("Error: " + problem.getMessage());
+      return;
+    }
+    Highlighter.HighlightPainter painter
+      = new DefaultHighlighter.DefaultHighlightPainter(ERROR_LINE_COLOR);
+    Element lines = textPane.getDocument().getDefaultRootElement();
+    String first = null;
+    String all = "<html>";
+    int errors = 0;
+    for ( Diagnostic<?> diagnostic :
+          ((CompilationException) problem).getDiagnostics().getDiagnostics() ) {
+      if ( diagnostic.getKind() != Diagnostic.Kind.ERROR ) continue;
+      long line = diagnostic.getLineNumber();
+      // only the first line of a message, the rest shows the code
+      String message = diagnostic.getMessage(null).split("\n")[0];
+      String text = "line " + line + ": " + message;
+      if ( first == null ) first = text;
+      all += text + "<br>";
+      errors++;
+      if ( line >= 1 && line <= lines.getElementCount() ) {
+        Element element = lines.getElement((int) line - 1);
+        try {
+          errorHighlights.add(highlighter.addHighlight(element.getStartOffset(),
+                                                       element.getEndOffset(),
+                                                       painter));
+        }
+        catch ( BadLocationException e ) {
+          // the line is gone; nothing to highlight
+        }
+      }
+    }
+    if ( first == null ) first = "compilation failed";
+    else if ( errors > 1 ) first += " (and " + (errors - 1) + " more)";
+    diagnosticsLabel.setText("Error, " + first);
+    diagnosticsLabel.setToolTipText(all + "</html>");
+  }
+
   /**
    * @return compiledAlgorithm.
    */
@@ -91,12 +278,14 @@ public class GAlgorithmEditorPanel extends GEditorPanel {
     try {
       setCompiledAlgorithm( CodeIntegrator.integrateCode( fileName,
                                                           textPane.getText() ) );
+      showCompilationResult(null);
       LogHelper.exitMethod(getClass(), "compile");
       LogHelper.restoreState();
       return true;
     }
     catch ( CompilationException e ) {
       setCompiledAlgorithm(null);
+      showCompilationResult(e);
       String forDisplay = "<html> Compilation errors:<br>";
       // int displayLineCount = 0;
       for ( Diagnostic<?> diagnostic :
@@ -113,6 +302,7 @@ public class GAlgorithmEditorPanel extends GEditorPanel {
     }
     catch ( MalformedMacroException e ) {
       setCompiledAlgorithm(null);
+      showCompilationResult(e);
       ExceptionDialog.displayExceptionInDialog( e, e.getMessage() );
       LogHelper.disable();
       LogHelper.exitMethod(getClass(), "compile [MalformedMacroException]");
@@ -201,4 +391,4 @@ public class GAlgorithmEditorPanel extends GEditorPanel {
 
 }
 
-// [Last modified: 2020 05 05 at 15:40:41 GMT]
+// [Last modified: 2026 10 17 at 17:58:37 GMT]
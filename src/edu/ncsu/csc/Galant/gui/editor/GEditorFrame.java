@@ -8,7 +8,6 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.List;
-import java.util.Scanner;
 
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
@@ -19,8 +18,9 @@ import edu.ncsu.csc.Galant.Galant;
 import edu.ncsu.csc.Galant.GalantException;
 import edu.ncsu.csc.Galant.GalantPreferences;
 import edu.ncsu.csc.Galant.GraphDispatch;
+import edu.ncsu.csc.Galant.graph.component.BinaryGraphReader;
+import edu.ncsu.csc.Galant.graph.component.BinaryGraphWriter;
 import edu.ncsu.csc.Galant.graph.component.Graph;
-import edu.ncsu.csc.Galant.graph.parser.GraphMLParser;
 import edu.ncsu.csc.Galant.gui.editor.GTabbedPane.AlgorithmOrGraph;
 import edu.ncsu.csc.Galant.gui.util.ExceptionDialog;
 import edu.ncsu.csc.Galant.gui.util.WindowUtil;
@@ -106,15 +106,10 @@ public class GEditorFrame extends JFrame implements WindowListener {
       GTabbedPane.AlgorithmOrGraph type =
         AlgorithmOrGraph.typeForFileName( file.getName() );
       if ( type != null ) {
-        Scanner scanner = null;
         try {
-          scanner = new Scanner(file);
-          scanner.useDelimiter("\\A");
-          tabbedPane.addEditorTab(file.getName(), file.getPath(),
-                                  scanner.hasNext() ? scanner.next() : "", type);
+          tabbedPane.addFileTab(file, type);
 
         } catch ( Exception e ) { ExceptionDialog.displayExceptionInDialog(e); }
-        finally { if ( scanner != null ) scanner.close(); }
       } else JOptionPane.showMessageDialog(this, FILENAME_EXTENSION_MESSAGE);
     }
   }
@@ -190,8 +185,16 @@ public class GEditorFrame extends JFrame implements WindowListener {
     if ( file != null && AlgorithmOrGraph.typeForFileName( file.getName() ) != null ) {
       FileWriter outfile = null;
       try {
-        outfile = new FileWriter(file);
-        outfile.write( gaep.getText() );
+        if ( BinaryGraphReader.handles(file)
+             && GGraphEditorPanel.class.isInstance(gaep) ) {
+          // the graph of the tab, parsed only if its text has been edited
+          Graph graph = ((GGraphEditorPanel) gaep).getGraph();
+          BinaryGraphWriter.write(file, graph);
+        }
+        else {
+          outfile = new FileWriter(file);
+          outfile.write( gaep.getText() );
+        }
         gaep.setDirty(false);
         gaep.setFileName( file.getName() );
         gaep.setFilePath( file.getPath() );
@@ -207,8 +210,7 @@ public class GEditorFrame extends JFrame implements WindowListener {
 
   private static void updateWorkingGraph(GGraphEditorPanel gep) {
     try {
-      GraphMLParser parser = new GraphMLParser( gep.getText() );
-      GraphDispatch.getInstance().setWorkingGraph( parser.getGraph(), gep.getUUID() );
+      GraphDispatch.getInstance().setWorkingGraph( gep.getGraph(), gep.getUUID() );
     }
     catch ( GalantException e ) {
       e.report("error while parsing");
@@ -256,4 +258,4 @@ public class GEditorFrame extends JFrame implements WindowListener {
   public void windowOpened(WindowEvent e) { }
 }
 
-// [Last modified: 2017 07 25 at 19:31:20 GMT]
+// [Last modified: 2026 10 17 at 20:35:38 GMT]
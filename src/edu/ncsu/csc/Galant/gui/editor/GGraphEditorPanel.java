@@ -22,7 +22,14 @@ import edu.ncsu.csc.Galant.logging.LogHelper;
 public class GGraphEditorPanel extends GEditorPanel {
 
   private final UUID uuid = UUID.randomUUID();
-    private Graph myGraph;
+
+  /**
+   * the graph described by graphText, the text last parsed or set from a
+   * graph; while the text is unchanged the graph is used as is, so that a
+   * large graph, e.g., one loaded from a binary file, is not parsed again
+   */
+  private Graph myGraph;
+  private String graphText;
 
   /**
    * Create a new edit session of a graph.
@@ -34,18 +41,11 @@ public class GGraphEditorPanel extends GEditorPanel {
    */
   public GGraphEditorPanel(GTabbedPane gTabbedPane, String filename, String content) {
     super(gTabbedPane, filename, content);
-    GraphDispatch dispatch = GraphDispatch.getInstance();
     LogHelper.disable();
     LogHelper.enterConstructor( getClass() );
-    dispatch.addChangeListener(this);
 
     try {
-      if ( ! content.equals("") ) {
-        GraphMLParser parser = new GraphMLParser(content);
-        myGraph = parser.getGraph();
-      } else {
-          myGraph = new Graph();
-      }
+      getGraph();
     }
     catch ( GalantException e ) {
       e.report("");
@@ -56,12 +56,52 @@ public class GGraphEditorPanel extends GEditorPanel {
       ExceptionDialog.displayExceptionInDialog(e);
     }
 
+    startEditing();
+    LogHelper.exitConstructor( getClass() );
+    LogHelper.restoreState();
+  }
+
+  /**
+   * Create a new edit session of a graph that has already been loaded,
+   * e.g., from a binary file; the text shows the graph as GraphML, but is
+   * not parsed unless it is edited.
+   * @param graph The graph to be edited.
+   */
+  public GGraphEditorPanel(GTabbedPane gTabbedPane, String filename, Graph graph) {
+    super(gTabbedPane, filename, graph.xmlString());
+    myGraph = graph;
+    graphText = getText();
+    startEditing();
+  }
+
+  /**
+   * Makes the graph of this panel the one being edited
+   */
+  private void startEditing() {
+    GraphDispatch dispatch = GraphDispatch.getInstance();
+    dispatch.addChangeListener(this);
     dispatch.setWorkingGraph(myGraph, uuid);
     dispatch.setEditMode(true);
     syntaxHighlighter = new GGraphSyntaxHighlighting(textPane);
     documentUpdated();
-    LogHelper.exitConstructor( getClass() );
-    LogHelper.restoreState();
+  }
+
+  /**
+   * @return the graph described by the text; the text is parsed only if
+   * it has changed since it was last parsed or set from the graph
+   */
+  public Graph getGraph() throws GalantException {
+    String text = getText();
+    if ( myGraph == null || ! text.equals(graphText) ) {
+      if ( ! text.equals("") ) {
+        GraphMLParser parser = new GraphMLParser(text);
+        myGraph = parser.getGraph();
+      } else {
+          myGraph = new Graph();
+      }
+      graphText = text;
+    }
+    return myGraph;
   }
 
   /**
@@ -124,6 +164,12 @@ public class GGraphEditorPanel extends GEditorPanel {
       if ( GraphDispatch.getInstance().getGraphSource().equals(uuid) ) {
         LogHelper.logDebug("  doing a text update in active panel");
         textPane.setText(workingGraph.xmlString(workingGraph.getEditState()));
+        // during an animation the working graph is a copy that is
+        // discarded at the end
+        if ( ! GraphDispatch.getInstance().isAnimationMode() ) {
+          myGraph = workingGraph;
+          graphText = getText();
+        }
       }
     } // end, not animation mode
     LogHelper.exitMethod(getClass(), "propertyChange");
@@ -136,4 +182,4 @@ public class GGraphEditorPanel extends GEditorPanel {
 
 }
 
-// [Last modified: 2021 01 31 at 14:06:07 GMT]
+// [Last modified: 2026 10 17 at 20:35:38 GMT]
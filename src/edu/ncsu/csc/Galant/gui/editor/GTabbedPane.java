@@ -20,8 +20,8 @@ import javax.swing.event.ChangeListener;
 import edu.ncsu.csc.Galant.GraphDispatch;
 import edu.ncsu.csc.Galant.GalantException;
 import edu.ncsu.csc.Galant.logging.LogHelper;
+import edu.ncsu.csc.Galant.graph.component.BinaryGraphReader;
 import edu.ncsu.csc.Galant.graph.component.Graph;
-import edu.ncsu.csc.Galant.graph.parser.GraphMLParser;
 import edu.ncsu.csc.Galant.gui.util.ExceptionDialog;
 import edu.ncsu.csc.Galant.prefs.Accessors;
 import edu.ncsu.csc.Galant.prefs.Preference;
@@ -92,7 +92,7 @@ public class GTabbedPane extends JTabbedPane implements ChangeListener {
   public static final String NO = "No";
 
   public static enum AlgorithmOrGraph {
-    CompiledAlgorithm("class"), Algorithm("alg"), Graph("graphml");
+    CompiledAlgorithm("class"), Algorithm("alg"), Graph("graphml", "gbin");
 
     private static final List<String> ALL_FILE_EXTS = new ArrayList<String>();
     static
@@ -196,9 +196,7 @@ public class GTabbedPane extends JTabbedPane implements ChangeListener {
    */
   public GEditorPanel addEditorTab(String filename, String filepath, String content,
                                    AlgorithmOrGraph type) {
-    String fullyQualifiedName = (filepath != null) ? filepath + "/" + filename : null;
     GEditorPanel panel;
-    GraphDispatch dispatch = GraphDispatch.getInstance();
     if ( type == AlgorithmOrGraph.Graph )
       panel = new GGraphEditorPanel(this, filename, content);
     else if ( type == AlgorithmOrGraph.Algorithm )
@@ -206,7 +204,16 @@ public class GTabbedPane extends JTabbedPane implements ChangeListener {
 // else if(type == AlgorithmOrGraph.CompiledAlgorithm)
 // panel = new GCompiledAlgorithmEditorPanel(this, filename, content);
     else return null;
+    return addTab(panel, filename, filepath, type);
+  }
 
+  /**
+   * Adds a tab for the given panel, see addEditorTab()
+   * @return the panel
+   */
+  private GEditorPanel addTab(GEditorPanel panel, String filename,
+                              String filepath, AlgorithmOrGraph type) {
+    String fullyQualifiedName = (filepath != null) ? filepath + "/" + filename : null;
     if ( filepath != null ) panel.setFilePath(filepath);
     TabRenderer tbr = new TabRenderer(filename, panel);
     insertTab( filename, null, panel, fullyQualifiedName,
@@ -412,18 +419,9 @@ public class GTabbedPane extends JTabbedPane implements ChangeListener {
     if ( graphEditPanel != null
          && GGraphEditorPanel.class.isInstance(graphEditPanel) ) {
       GGraphEditorPanel geditorPanel = (GGraphEditorPanel) graphEditPanel;
-        // at this point you want to setWorkingGraph(gEditorPanel.getGraph())
-        // and not do the stuff below
       try {
-        String panelText = geditorPanel.getText();
-        if ( ! panelText.equals("") ) {
-          GraphMLParser parser = new GraphMLParser(panelText);
-          GraphDispatch.getInstance().setWorkingGraph(
-             parser.getGraph(), geditorPanel.getUUID() );
-        } else {
-          GraphDispatch.getInstance().setWorkingGraph( new Graph(),
-                                                       geditorPanel.getUUID() );
-        }
+        GraphDispatch.getInstance().setWorkingGraph( geditorPanel.getGraph(),
+                                                     geditorPanel.getUUID() );
       }
       catch ( GalantException e ) {
         e.report("");
@@ -443,8 +441,8 @@ public class GTabbedPane extends JTabbedPane implements ChangeListener {
   private void open(File file) {
     if ( file.getName().endsWith(".alg")
          || file.getName().endsWith(".txt")
-         || file.getName().endsWith(".graphml") ) {
-      Scanner scanner = null;
+         || file.getName().endsWith(".graphml")
+         || BinaryGraphReader.handles(file) ) {
       try {
         GTabbedPane.AlgorithmOrGraph type;
         if ( file.getName().endsWith(".alg")
@@ -452,15 +450,39 @@ public class GTabbedPane extends JTabbedPane implements ChangeListener {
           type = GTabbedPane.AlgorithmOrGraph.Algorithm;
         else type = GTabbedPane.AlgorithmOrGraph.Graph;
 
-        scanner = new Scanner(file);
-        scanner.useDelimiter("\\A");
-        addEditorTab(file.getName(), file.getPath(), scanner.next(), type);
+        addFileTab(file, type);
 
       } catch ( Exception e ) { ExceptionDialog.displayExceptionInDialog(e); }
-      finally { if ( scanner != null ) scanner.close(); }
     }
   }
 
+  /**
+   * Adds a new editor tab for the given file; a binary graph is loaded
+   * directly and shown, and edited, as GraphML.
+   * @return the panel of the new tab
+   */
+  GEditorPanel addFileTab(File file, AlgorithmOrGraph type) throws Exception {
+    if ( BinaryGraphReader.handles(file) ) {
+      Graph graph = BinaryGraphReader.load(file);
+      return addTab(new GGraphEditorPanel(this, file.getName(), graph),
+                    file.getName(), file.getPath(), AlgorithmOrGraph.Graph);
+    }
+    return addEditorTab(file.getName(), file.getPath(), fileContent(file), type);
+  }
+
+  /**
+   * @return the text of the given file
+   */
+  static String fileContent(File file) throws Exception {
+    Scanner scanner = null;
+    try {
+      scanner = new Scanner(file);
+      scanner.useDelimiter("\\A");
+      return scanner.hasNext() ? scanner.next() : "";
+    }
+    finally { if ( scanner != null ) scanner.close(); }
+  }
+
   public void setFontSize(Integer size) {
     for ( GEditorPanel geditorPanel : editorPanels )
       geditorPanel.setFontSize(size);
@@ -479,4 +501,4 @@ public class GTabbedPane extends JTabbedPane implements ChangeListener {
   }
 }
 
-// [Last modified: 2021 01 31 at 14:40:45 GMT]
+// [Last modified: 2026 10 17 at 20:35:38 GMT]
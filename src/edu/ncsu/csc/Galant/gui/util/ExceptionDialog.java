@@ -3,6 +3,7 @@ package edu.ncsu.csc.Galant.gui.util;
 import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
+import java.awt.GraphicsEnvironment;
 import java.awt.Point;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
@@ -88,6 +89,8 @@ public class ExceptionDialog {
      *        this is <code>null</code>, displays <code>e.toString()</code>.
      * @param onClose a <code>Runnable</code> to run when the dialog is
      *        closed. If this is <code>null</code>, it is ignored.
+     *        Without a display (batch runs), the message is printed to the
+     *        console instead and <code>onClose</code> is run right away.
      */
     public static void displayExceptionInDialog(Throwable e,
                                                 String interpretation,
@@ -95,6 +98,12 @@ public class ExceptionDialog {
         LogHelper.logDebug("-> displayExceptionInDialog(e, interpretation, onClose)");
         if ( e == null )
             return;
+        if ( GraphicsEnvironment.isHeadless() ) {
+            System.out.println(interpretation == null
+                               ? e.toString() : interpretation);
+            if ( onClose != null ) onClose.run();
+            return;
+        }
 
         final JPanel infoDisp = new JPanel(new BorderLayout());
         final JComponent info =
@@ -218,4 +227,4 @@ public class ExceptionDialog {
     }
 }
 
-//  [Last modified: 2017 07 25 at 19:30:55 GMT]
+//  [Last modified: 2026 10 17 at 17:50:03 GMT]
@@ -9,9 +9,11 @@ import java.awt.event.ComponentEvent;
 import java.awt.event.KeyEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.util.prefs.Preferences;
 import javax.swing.AbstractAction;
 import javax.swing.Action;
@@ -22,7 +24,10 @@ import javax.swing.filechooser.FileNameExtensionFilter;
 
 import edu.ncsu.csc.Galant.GalantPreferences;
 import edu.ncsu.csc.Galant.GraphDispatch;
+import edu.ncsu.csc.Galant.graph.component.BinaryGraphWriter;
 import edu.ncsu.csc.Galant.graph.component.Graph;
+import edu.ncsu.csc.Galant.graph.component.TraceReader;
+import edu.ncsu.csc.Galant.graph.component.TraceWriter;
 import edu.ncsu.csc.Galant.gui.editor.GEditorFrame;
 import edu.ncsu.csc.Galant.gui.window.GraphWindow;
 import edu.ncsu.csc.Galant.logging.LogHelper;
@@ -75,21 +80,35 @@ public class WindowUtil {
 			FileNameExtensionFilter filtergraphml = new FileNameExtensionFilter(
 					"GraphML file (.graphml)",
 					"graphml");
+			FileNameExtensionFilter filterbinary = new FileNameExtensionFilter(
+					"Binary graph (" + BinaryGraphWriter.EXTENSION + ")",
+					BinaryGraphWriter.EXTENSION.substring(1));
 			jfc.addChoosableFileFilter(filtergraphml);
+			jfc.addChoosableFileFilter(filterbinary);
 			jfc.setCurrentDirectory(GalantPreferences.DEFAULT_DIRECTORY.get());
 			File file = null;
 			int returnVal = jfc.showSaveDialog(GraphWindow.getGraphFrame());
 			if ( returnVal == JFileChooser.APPROVE_OPTION ) {
 				file = jfc.getSelectedFile();
 				if ( file != null ) {
-					FileWriter outfile = null;
+					Writer outfile = null;
 					try {
-						if ( ! file.getPath().endsWith(".graphml") ) {
+						if ( jfc.getFileFilter() == filterbinary
+								 && ! file.getPath().endsWith(BinaryGraphWriter.EXTENSION) ) {
+							file = new File(file.getPath() + BinaryGraphWriter.EXTENSION);
+						}
+						else if ( ! file.getPath().endsWith(".graphml")
+								 && ! file.getPath().endsWith(BinaryGraphWriter.EXTENSION) ) {
 							file = new File(file.getPath() + ".graphml");
 						}
 						int state = gd.getAlgorithmExecutor().getDisplayState();
-						outfile = new FileWriter(file);
-						outfile.write(g.xmlString(state));
+						if ( file.getPath().endsWith(BinaryGraphWriter.EXTENSION) ) {
+							BinaryGraphWriter.write(file, g, state);
+						}
+						else {
+							outfile = new BufferedWriter(new FileWriter(file));
+							g.writeXml(outfile, state);
+						}
 					} catch ( Exception ex ) {
 						ExceptionDialog.displayExceptionInDialog(ex);
 					} finally {
@@ -107,6 +126,71 @@ public class WindowUtil {
 		}
 	};
 
+	/**
+	 * Saves the animation that is running, up to its latest state, in a trace
+	 * file (see TraceWriter)
+	 */
+	public static final Action SAVE_TRACE_ACTION = new AbstractAction("Save Trace") {
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			GraphDispatch gd = GraphDispatch.getInstance();
+			if ( ! gd.isAnimationMode() ) {
+				gd.getGraphWindow().updateStatusLabel("No animation to save");
+				return;
+			}
+			File file = chooseTraceFile(true);
+			if ( file == null ) return;
+			if ( ! file.getPath().endsWith(TraceWriter.EXTENSION) ) {
+				file = new File(file.getPath() + TraceWriter.EXTENSION);
+			}
+			try {
+				gd.getAlgorithmExecutor().writeTrace(file);
+				gd.getGraphWindow().updateStatusLabel("Trace saved in " + file);
+			} catch ( IOException ex ) {
+				ExceptionDialog.displayExceptionInDialog(ex);
+			}
+		}
+	};
+
+	/**
+	 * Replays the animation recorded in a trace file in the graph window,
+	 * without the algorithm (see GraphDispatch.startReplay())
+	 */
+	public static final Action REPLAY_TRACE_ACTION = new AbstractAction("Replay Trace") {
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			GraphDispatch gd = GraphDispatch.getInstance();
+			if ( gd.isAnimationMode() ) {
+				gd.getGraphWindow().updateStatusLabel("Animation already running");
+				return;
+			}
+			File file = chooseTraceFile(false);
+			if ( file == null ) return;
+			try {
+				gd.startReplay(new TraceReader(file));
+				GraphWindow.getGraphFrame().repaint();
+			} catch ( Exception ex ) {
+				ExceptionDialog.displayExceptionInDialog(ex);
+			}
+		}
+	};
+
+	/**
+	 * @return the trace file chosen by the user or null if none
+	 */
+	private static File chooseTraceFile(boolean save) {
+		JFileChooser jfc = new JFileChooser();
+		jfc.setFileFilter(new FileNameExtensionFilter(
+				"Galant trace (" + TraceWriter.EXTENSION + ")",
+				TraceWriter.EXTENSION.substring(1)));
+		jfc.setCurrentDirectory(GalantPreferences.DEFAULT_DIRECTORY.get());
+		int returnVal = save
+			? jfc.showSaveDialog(GraphWindow.getGraphFrame())
+			: jfc.showOpenDialog(GraphWindow.getGraphFrame());
+		if ( returnVal != JFileChooser.APPROVE_OPTION ) return null;
+		return jfc.getSelectedFile();
+	}
+
 	private static final Preferences WINDOW_PREFS = Preferences
 			.userNodeForPackage(WindowUtil.class);
 
@@ -28,6 +28,8 @@ import java.awt.KeyboardFocusManager;
 import java.awt.KeyEventDispatcher;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 import javax.swing.BoxLayout;
 import javax.swing.BorderFactory;
 import javax.swing.ButtonGroup;
@@ -39,9 +41,12 @@ import javax.swing.JLabel;
 import javax.swing.JMenu;
 import javax.swing.JMenuBar;
 import javax.swing.JPanel;
+import javax.swing.JSlider;
 import javax.swing.JToggleButton;
 import javax.swing.JToolBar;
 import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 import javax.swing.WindowConstants;
 import javax.swing.JOptionPane;
 import edu.ncsu.csc.Galant.Galant;
@@ -122,6 +127,31 @@ public class GraphWindow extends JPanel implements PropertyChangeListener, Compo
     }
     private final JButton done;
 
+    /**
+     * Shows the display state among the states the algorithm has reached
+     * so far; dragging it jumps directly to a state
+     */
+    private final JSlider stateSlider;
+
+    /**
+     * true while the slider is being set to match the display state, so
+     * that the change is not taken for a jump requested by the user
+     */
+    private boolean updatingStateSlider = false;
+
+    /**
+     * the background run started by performRunToEnd(), null when there is
+     * none; while it runs the algorithm executor is busy, so the other
+     * animation controls are ignored (see runningToEnd())
+     */
+    private SwingWorker<Void, Void> runToEnd;
+
+    /**
+     * true if the user asked to leave animation mode during a run to the
+     * end; the run is stopped and performDone() is called once it returns
+     */
+    private boolean doneRequested = false;
+
     private ButtonGroup modeGroup = new ButtonGroup();
     private JToggleButton select;
     private JToggleButton addNode;
@@ -484,11 +514,13 @@ public class GraphWindow extends JPanel implements PropertyChangeListener, Compo
 
         // Create the buttons to navigate the graph state: forward, back, and stop
         stepForward = new JButton(new ImageIcon(GraphWindow.class.getResource("images/stepforward_24.png")));
-        stepForward.setToolTipText("Step Forward\n[->]");
+        stepForward.setToolTipText("Step Forward\n[->]\nRun to End\n[End]");
         stepBack = new JButton(new ImageIcon(GraphWindow.class.getResource("images/stepback_24.png")));
         stepBack.setToolTipText("Step Backward\n[<-]");
         done = new JButton(new ImageIcon(GraphWindow.class.getResource("images/close_24.png")));
         done.setToolTipText("Exit Animation\n[Esc]");
+        stateSlider = new JSlider(1, 1, 1);
+        stateSlider.setToolTipText("Jump to State");
 
         componentEditPanel = new ComponentEditPanel();
         componentEditPanel.setVisible(false);
@@ -599,6 +631,7 @@ public class GraphWindow extends JPanel implements PropertyChangeListener, Compo
                 componentEditPanel.setWorkingComponent(null);
                 stepForward.setEnabled(true);
                 stepBack.setEnabled(false);
+                updateStateSlider();
                 animationButtons.setVisible(true);
                 animationButtons.setFocusable(true);
                 animationButtons.requestFocusInWindow();
@@ -647,6 +680,8 @@ public class GraphWindow extends JPanel implements PropertyChangeListener, Compo
         fileMenu = new JMenu("File");
         fileMenu.add(PreferencesPanel.SHOW_PREFS_DIALOG);
         fileMenu.add(WindowUtil.EXPORT_ACTION);
+        fileMenu.add(WindowUtil.SAVE_TRACE_ACTION);
+        fileMenu.add(WindowUtil.REPLAY_TRACE_ACTION);
         fileMenu.addSeparator();
         fileMenu.add(WindowUtil.QUIT_ACTION);
 
@@ -853,6 +888,7 @@ public class GraphWindow extends JPanel implements PropertyChangeListener, Compo
     }
 
     private synchronized void performStepBack() {
+        if ( runningToEnd() ) return;
         AlgorithmExecutor executor = dispatch.getAlgorithmExecutor();
         if (!executor.hasPreviousState()) {
             return;
@@ -860,9 +896,11 @@ public class GraphWindow extends JPanel implements PropertyChangeListener, Compo
         executor.decrementDisplayState();
         stepForward.setEnabled(executor.hasNextState());
         stepBack.setEnabled(executor.hasPreviousState());
+        updateStateSlider();
     }
 
     private synchronized void performStepForward() {
+        if ( runningToEnd() ) return;
         AlgorithmExecutor executor = dispatch.getAlgorithmExecutor();
         if (!executor.hasNextState()) {
             return;
@@ -870,12 +908,108 @@ public class GraphWindow extends JPanel implements PropertyChangeListener, Compo
         executor.incrementDisplayState();
         stepForward.setEnabled(executor.hasNextState());
         stepBack.setEnabled(executor.hasPreviousState());
+        updateStateSlider();
+    }
+
+    /**
+     * @return true while a run to the end is in progress
+     */
+    private boolean runningToEnd() {
+        return runToEnd != null;
+    }
+
+    /**
+     * Runs the algorithm to the end, or until it asks a query, without
+     * displaying the intermediate states; they can still be viewed by
+     * stepping back. The run can take as long as the executor allows a free
+     * run, so it happens in the background; the final state is displayed
+     * when it is over.
+     */
+    private synchronized void performRunToEnd() {
+        if ( runningToEnd() ) return;
+        final AlgorithmExecutor executor = dispatch.getAlgorithmExecutor();
+        if (!executor.hasNextState()) {
+            return;
+        }
+        stepForward.setEnabled(false);
+        stepBack.setEnabled(false);
+        stateSlider.setEnabled(false);
+        updateStatusLabel("running to the end");
+        runToEnd = new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() {
+                executor.runToCompletion();
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                runToEnd = null;
+                stateSlider.setEnabled(true);
+                if ( doneRequested ) {
+                    doneRequested = false;
+                    performDone();
+                    return;
+                }
+                stepForward.setEnabled(executor.hasNextState());
+                stepBack.setEnabled(executor.hasPreviousState());
+                updateStateSlider();
+                frame.repaint();
+            }
+        };
+        runToEnd.execute();
+    }
+
+    /**
+     * Displays the state chosen with the slider; states beyond the current
+     * algorithm state cannot be chosen, so the algorithm does not run
+     */
+    private synchronized void performJump(int state) {
+        if ( runningToEnd() ) return;
+        AlgorithmExecutor executor = dispatch.getAlgorithmExecutor();
+        executor.jumpToState(state);
+        stepForward.setEnabled(executor.hasNextState());
+        stepBack.setEnabled(executor.hasPreviousState());
     }
 
-    public synchronized void performDone() {
+    /**
+     * Makes the slider range over the states reached so far and show the
+     * display state
+     */
+    private void updateStateSlider() {
         AlgorithmExecutor executor = dispatch.getAlgorithmExecutor();
-        executor.stopAlgorithm();
-        this.updateStatusLabel();
+        if ( executor == null ) return;
+        updatingStateSlider = true;
+        stateSlider.setMaximum(Math.max(1, executor.getAlgorithmState()));
+        stateSlider.setValue(Math.max(1, executor.getDisplayState()));
+        updatingStateSlider = false;
+    }
+
+    /**
+     * Leaves animation mode. Runs on the event dispatch thread; when called
+     * from elsewhere, e.g., by the executor after an exception, it is
+     * scheduled to run there. During a run to the end, the run is stopped
+     * first.
+     */
+    public void performDone() {
+        if ( ! SwingUtilities.isEventDispatchThread() ) {
+            SwingUtilities.invokeLater(new Runnable() {
+                public void run() {
+                    performDone();
+                }
+            });
+            return;
+        }
+        if ( runningToEnd() ) {
+            doneRequested = true;
+            dispatch.getAlgorithmSynchronizer().stop();
+            return;
+        }
+        synchronized ( this ) {
+            AlgorithmExecutor executor = dispatch.getAlgorithmExecutor();
+            executor.stopAlgorithm();
+            this.updateStatusLabel();
+        }
     }
 
     /**
@@ -913,9 +1047,20 @@ public class GraphWindow extends JPanel implements PropertyChangeListener, Compo
             }
         });
 
+        // Jump directly to the state chosen with the slider
+        stateSlider.addChangeListener(new ChangeListener() {
+            @Override
+            public void stateChanged(ChangeEvent e) {
+                if ( updatingStateSlider || ! dispatch.isAnimationMode() ) return;
+                performJump(stateSlider.getValue());
+                frame.repaint();
+            }
+        });
+
         animationButtons.add(stepBack);
         animationButtons.add(stepForward);
         animationButtons.add(done);
+        animationButtons.add(stateSlider);
         animationButtons.setMaximumSize(new Dimension(DEFAULT_WIDTH, ANIMATION_BUTTON_SIZE));
         animationButtons.setMinimumSize(new Dimension(DEFAULT_WIDTH, ANIMATION_BUTTON_SIZE));
 
@@ -1005,6 +1150,15 @@ public class GraphWindow extends JPanel implements PropertyChangeListener, Compo
                     LogHelper.exitMethod(getClass(), "step forward");
                     return true;
                 }
+                //"end" run to the end of the algorithm when in animation mode
+                if (dispatch.isAnimationMode()
+                        && e.getID() == KeyEvent.KEY_PRESSED
+                        && e.getKeyCode() == KeyEvent.VK_END) {
+                    performRunToEnd();
+                    frame.repaint();
+                    LogHelper.exitMethod(getClass(), "run to end");
+                    return true;
+                }
                 // "Esc" leave animation mode when in animation mode
                 if (dispatch.isAnimationMode()
                         && e.getID() == KeyEvent.KEY_PRESSED
@@ -1226,4 +1380,4 @@ public class GraphWindow extends JPanel implements PropertyChangeListener, Compo
         // TODO Auto-generated method stub
     }
 }
- //  [Last modified: 2021 02 08 at 18:01:04 GMT]
+ //  [Last modified: 2026 10 17 at 20:27:03 GMT]
@@ -896,7 +896,7 @@ public class GraphPanel extends JPanel{
             Graph g = dispatch.getWorkingGraph();
             int stateNumber = g.getEditState();
             Node top = null;
-            for (Node n : g.getNodes(stateNumber)) {
+            for (Node n : g.nodeView(stateNumber)) {
                 if ( p.distance(n.getFixedPosition()) < NODE_SELECTION_RADIUS ) {
                     top = n;
                 }
@@ -950,7 +950,7 @@ public class GraphPanel extends JPanel{
                     = new Rectangle2D.Double(p.getX() - centerVal,
                                              p.getY() - centerVal - 1, i, i);
 			
-                for (Edge e : g.getEdges(stateNumber)) {
+                for (Edge e : g.edgeView(stateNumber)) {
                     Point p1 = e.getSourceNode().getFixedPosition();
                     Point p2 = e.getTargetNode().getFixedPosition();
 
@@ -1021,4 +1021,4 @@ public class GraphPanel extends JPanel{
 	
 }
 
-//  [Last modified: 2021 02 27 at 16:13:01 GMT]
+//  [Last modified: 2026 10 17 at 17:39:36 GMT]
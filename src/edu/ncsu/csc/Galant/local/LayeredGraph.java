@@ -474,12 +474,14 @@ public class LayeredGraph {
     {
         this.graph = graph;
         layers = new ArrayList<Layer>();
-        positionOfNode = new int[ graph.getNodes().size() ];
-        savedPositionOfNode = new int[ graph.getNodes().size() ];
-        layerOfNode = new int[ graph.getNodes().size() ];
-        weightOfNode = new double[ graph.getNodes().size() ];
-        isMarked = new boolean[ graph.getNodes().size() ];
-        crossingsOfEdge = new int[ graph.getEdges().size() ];
+        // the arrays are indexed by id; id's need not be contiguous
+        int nodeIds = graph.nodeIds();
+        positionOfNode = new int[ nodeIds ];
+        savedPositionOfNode = new int[ nodeIds ];
+        layerOfNode = new int[ nodeIds ];
+        weightOfNode = new double[ nodeIds ];
+        isMarked = new boolean[ nodeIds ];
+        crossingsOfEdge = new int[ graph.edgeIds() ];
 
         // record layer and position information for all the nodes
         for ( Node u: graph.getNodes() ) {
@@ -30,7 +30,7 @@ public class LogHelper {
    */
 	private static int spaces = 0;
 
-    public static void setEnabled( boolean enabled ) {
+    public static synchronized void setEnabled( boolean enabled ) {
       savedStates.push(loggingEnabled);
         loggingEnabled = enabled;
     }
@@ -51,8 +51,10 @@ public class LogHelper {
      * whether enabled or disabled. This allows for local logging and is, in
      * fact, necessary for compiler output in the current implementation.
      * - mfms
+     * Synchronized because algorithm threads disable and restore logging
+     * concurrently with the main thread.
      */
-    public static void restoreState() {
+    public static synchronized void restoreState() {
       if ( savedStates.isEmpty() ) {
         loggingEnabled = false;
       }
@@ -157,4 +159,4 @@ public class LogHelper {
 	}
 }
 
-//  [Last modified: 2021 01 30 at 21:04:29 GMT]
+//  [Last modified: 2026 10 17 at 17:51:57 GMT]
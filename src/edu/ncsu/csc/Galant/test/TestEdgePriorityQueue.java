@@ -0,0 +1,80 @@
+package edu.ncsu.csc.Galant.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ncsu.csc.Galant.GraphDispatch;
+import edu.ncsu.csc.Galant.graph.component.Edge;
+import edu.ncsu.csc.Galant.graph.component.Graph;
+import edu.ncsu.csc.Galant.graph.component.Node;
+import edu.ncsu.csc.Galant.graph.datastructure.EdgePriorityQueue;
+
+public class TestEdgePriorityQueue {
+
+	private Graph g;
+	private Edge e1, e2, e3;
+
+	/**
+	 * Three edges added while editing, all of which have id 0
+	 */
+	@Before
+	public void setUp() throws Exception {
+		g = new Graph();
+		GraphDispatch.getInstance().setWorkingGraph(g, null);
+		Node n1 = g.addInitialNode(0, 0);
+		Node n2 = g.addInitialNode(10, 0);
+		Node n3 = g.addInitialNode(0, 10);
+		e1 = g.addInitialEdge(n1, n2);
+		e2 = g.addInitialEdge(n2, n3);
+		e3 = g.addInitialEdge(n3, n1);
+		e1.setWeight(1.0);
+		e2.setWeight(2.0);
+		e3.setWeight(3.0);
+	}
+
+	@Test
+	public void testDuplicateIds() {
+		assertEquals(e1.getId(), e2.getId());
+		assertEquals(e2.getId(), e3.getId());
+	}
+
+	@Test
+	public void testContains() throws Exception {
+		EdgePriorityQueue q = new EdgePriorityQueue();
+		q.insert(e1);
+		q.insert(e2);
+		assertTrue(q.contains(e1));
+		assertTrue(q.contains(e2));
+		assertFalse(q.contains(e3));
+	}
+
+	@Test
+	public void testChangeKey() throws Exception {
+		EdgePriorityQueue q = new EdgePriorityQueue();
+		q.insert(e1);
+		q.insert(e2);
+		q.insert(e3);
+		q.changeKey(e1, 4.0);
+		assertEquals(3, q.size());
+		assertEquals(e2, q.removeBest());
+		assertEquals(e3, q.removeBest());
+		assertEquals(e1, q.removeBest());
+		assertTrue(q.isEmpty());
+	}
+
+	@Test
+	public void testRemove() throws Exception {
+		EdgePriorityQueue q = new EdgePriorityQueue();
+		q.insert(e1);
+		q.insert(e2);
+		q.insert(e3);
+		assertTrue(q.remove(e2));
+		assertFalse(q.contains(e2));
+		assertEquals(e1, q.removeBest());
+		assertEquals(e3, q.removeBest());
+	}
+}